@@ -0,0 +1,32 @@
+#!/bin/bash
+# Compare platform-thread and virtual-thread execution modes.
+# Runs ExecutionModeBenchmark twice against a real Tomcat on a random port.
+# Needs a Java 21+ JDK (virtual threads are ignored on Java 17).
+#
+# Usage: ./benchmark-execution-modes.sh [clients] [duration-seconds]
+#   JAVA_HOME=/path/to/jdk-21 ./benchmark-execution-modes.sh 2000 30
+
+CLIENTS=${1:-1000}
+DURATION=${2:-20}
+
+cd "$(dirname "$0")/money-transfer" || exit 1
+
+JAVA_MAJOR=$(java -XshowSettings:properties -version 2>&1 | awk -F' = ' '/java.specification.version/ {print $2}')
+if [ "${JAVA_MAJOR%%.*}" -lt 21 ]; then
+    echo "⚠️  Java $JAVA_MAJOR detected: virtual-thread mode needs Java 21+ (set JAVA_HOME)"
+fi
+
+# Raise the open-files limit: each client holds its own connection
+ulimit -n 65536 2>/dev/null
+
+for PROFILE in default virtual-threads; do
+    echo "=========================================="
+    echo "Execution mode: $PROFILE"
+    echo "=========================================="
+    mvn -q -B test -Pbenchmark -Dtest=ExecutionModeBenchmark \
+        -Dspring.profiles.active=$PROFILE \
+        -Dbenchmark.clients=$CLIENTS \
+        -Dbenchmark.duration-seconds=$DURATION \
+        -Djdk.tracePinnedThreads=short \
+        | grep -E "===|req/s|Pinned|pinned"
+done
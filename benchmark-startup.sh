@@ -0,0 +1,103 @@
+#!/bin/bash
+# Compare startup of the standard and fast-startup (Spring AOT + class-data-sharing)
+# builds: time from launch to the first successful transfer. Each run starts
+# a fresh instance, POSTs a transfer every 50ms until one succeeds, and stops it.
+#
+# Usage: ./benchmark-startup.sh [runs] [docker|local]
+#   ./benchmark-startup.sh 5            build both Docker images and run each 5 times
+#   ./benchmark-startup.sh 5 local      run target/money-transfer-app.jar against
+#                                       target/fast-startup (mvn package -Pfast-startup)
+#   CPUS=1 MEMORY=768m ./benchmark-startup.sh 5    container limits (default 2 CPUs, 1g)
+
+RUNS=${1:-5}
+MODE=${2:-docker}
+CPUS=${CPUS:-2}
+MEMORY=${MEMORY:-1g}
+PORT=18080
+TIMEOUT=180  # seconds per start
+TRANSFER='{"fromAccountNumber":"ACC001","toAccountNumber":"ACC002","amount":1.00,"description":"startup benchmark"}'
+
+cd "$(dirname "$0")/money-transfer" || exit 1
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Wait for the first 2xx transfer; prints the elapsed milliseconds or fails
+await_transfer() {
+    local start=$1
+    local deadline=$(( start + TIMEOUT * 1000 ))
+    until curl -sf -o /dev/null -X POST -H "Content-Type: application/json" \
+            -d "$TRANSFER" "http://localhost:$PORT/api/transfers"; do
+        [ "$(now_ms)" -gt "$deadline" ] && return 1
+        sleep 0.05
+    done
+    echo $(( $(now_ms) - start ))
+}
+
+start_instance() {
+    local variant=$1
+    if [ "$MODE" = "docker" ]; then
+        docker run -d --rm --name money-transfer-startup --cpus="$CPUS" --memory="$MEMORY" \
+            -p "$PORT:8080" "money-transfer:$variant" > /dev/null
+    elif [ "$variant" = "standard" ]; then
+        java -Dserver.port=$PORT -jar target/money-transfer-app.jar > target/startup-$variant.log 2>&1 &
+        PID=$!
+    else
+        (cd target/fast-startup && exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+            -Dspring.profiles.active=fast-startup -Dserver.port=$PORT \
+            -jar money-transfer-app-fast-startup.jar) > target/startup-$variant.log 2>&1 &
+        PID=$!
+    fi
+}
+
+stop_instance() {
+    local variant=$1
+    if [ "$MODE" = "docker" ]; then
+        docker logs money-transfer-startup > target/startup-$variant.log 2>&1
+        docker rm -f money-transfer-startup > /dev/null 2>&1
+    else
+        kill "$PID" 2>/dev/null
+        wait "$PID" 2>/dev/null
+    fi
+}
+
+# "Started MoneyTransferApplication in X seconds" as reported by Spring Boot
+reported_startup() {
+    grep -oE 'Started MoneyTransferApplication in [0-9.]+ seconds' "target/startup-$1.log" \
+        | grep -oE '[0-9.]+' | head -1
+}
+
+if [ "$MODE" = "docker" ]; then
+    echo "Building images (standard, fast-startup)..."
+    docker build -q --target standard -t money-transfer:standard . > /dev/null || exit 1
+    docker build -q --target fast-startup -t money-transfer:fast-startup . > /dev/null || exit 1
+elif [ ! -f target/money-transfer-app.jar ] || [ ! -f target/fast-startup/app.jsa ]; then
+    echo "Building target/money-transfer-app.jar and target/fast-startup..."
+    mvn -q -B package -Pfast-startup -DskipTests > /dev/null || exit 1
+fi
+
+mkdir -p target
+for VARIANT in standard fast-startup; do
+    echo "=========================================="
+    echo "Startup: $VARIANT ($MODE, $RUNS runs)"
+    echo "=========================================="
+    RESULTS=""
+    for RUN in $(seq 1 "$RUNS"); do
+        START=$(now_ms)
+        start_instance "$VARIANT"
+        ELAPSED=$(await_transfer "$START")
+        STATUS=$?
+        stop_instance "$VARIANT"
+        if [ $STATUS -ne 0 ]; then
+            echo "Run $RUN: no successful transfer within ${TIMEOUT}s (see target/startup-$VARIANT.log)"
+            exit 1
+        fi
+        echo "Run $RUN: first transfer after ${ELAPSED} ms (Spring Boot reported $(reported_startup "$VARIANT")s)"
+        RESULTS="$RESULTS $ELAPSED"
+    done
+    echo "$RESULTS" | tr ' ' '\n' | grep -v '^$' | sort -n | awk -v variant="$VARIANT" '
+        { values[NR] = $1; sum += $1 }
+        END { printf "%s: min %d ms, median %d ms, mean %d ms, max %d ms\n",
+              variant, values[1], values[int((NR + 1) / 2)], sum / NR, values[NR] }'
+done
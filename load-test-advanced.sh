@@ -1,8 +1,28 @@
 #!/bin/bash
+# Drive the Java load generator (money-transfer/src/loadgen) against a running app.
+# Mixes transfers between hot (data.sql) and cold (freshly created) accounts,
+# balance reads and history reads, and writes HdrHistogram latency reports
+# to money-transfer/target/loadgen/<label>/ (summary.txt, summary.json, *.hgrm).
+#
+# Usage: ./load-test-advanced.sh <host> [duration-seconds] [rate] [label] [extra options...]
+#   ./load-test-advanced.sh $STAGING_IP 60 200 build-41
+#   ./load-test-advanced.sh $STAGING_IP 60 200 build-42 --baseline=target/loadgen/build-41/summary.json
+#   ./load-test-advanced.sh localhost 60 0 closed --concurrency=32
+#
+# Extra options: --mode=open|closed --concurrency=N --warmup=S --cold-accounts=N
+#                --mix=transfer-hot=30,transfer-cold=30,balance=30,history=10
+#                --hot-accounts=ACC001,ACC002,... --baseline=<summary.json>
 
 STAGING_HOST=$1
 DURATION=${2:-60}  # seconds
-RATE=${3:-10}      # requests per second
+RATE=${3:-200}     # requests per second (open loop); 0 = unthrottled closed loop
+LABEL=${4:-latest}
+
+if [ -z "$STAGING_HOST" ]; then
+    echo "Usage: $0 <host> [duration-seconds] [rate] [label] [extra options...]"
+    exit 1
+fi
+shift $(( $# < 4 ? $# : 4 ))
 
 echo "=========================================="
 echo "Advanced Load Test"
@@ -10,41 +30,10 @@ echo "=========================================="
 echo "Target: $STAGING_HOST"
 echo "Duration: ${DURATION}s"
 echo "Rate: ${RATE} req/s"
+echo "Label: $LABEL"
 echo "=========================================="
 
-START_TIME=$(date +%s)
-END_TIME=$((START_TIME + DURATION))
-REQUEST_COUNT=0
-
-while [ $(date +%s) -lt $END_TIME ]; do
-    # Health check
-    curl -s http://$STAGING_HOST:8080/actuator/health > /dev/null &
-    
-    # Metrics endpoint
-    curl -s http://$STAGING_HOST:8080/actuator/prometheus > /dev/null &
-    
-    # API calls
-    curl -s http://$STAGING_HOST:8080/api/accounts > /dev/null &
-    
-    REQUEST_COUNT=$((REQUEST_COUNT + 3))
-    
-    # Print status every 10 requests
-    if [ $((REQUEST_COUNT % 30)) -eq 0 ]; then
-        ELAPSED=$(($(date +%s) - START_TIME))
-        echo "[$ELAPSED s] Sent $REQUEST_COUNT requests..."
-    fi
-    
-    # Control request rate
-    sleep $(echo "scale=3; 1/$RATE" | bc)
-done
+cd "$(dirname "$0")/money-transfer" || exit 1
 
-wait
-
-echo ""
-echo "=========================================="
-echo "✅ Load Test Complete!"
-echo "=========================================="
-echo "Total Requests: $REQUEST_COUNT"
-echo "Duration: ${DURATION}s"
-echo "Avg Rate: $(echo "scale=2; $REQUEST_COUNT/$DURATION" | bc) req/s"
-echo "=========================================="
+mvn -q -B test -Ploadgen -DskipTests \
+    -Dloadgen.args="--target=http://$STAGING_HOST:8080 --duration=$DURATION --rate=$RATE --label=$LABEL $*"
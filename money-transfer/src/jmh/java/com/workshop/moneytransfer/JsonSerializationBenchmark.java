@@ -0,0 +1,78 @@
+package com.workshop.moneytransfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialisation of the response bodies, configured like Spring
+ * Boot's ObjectMapper (java.time support, ISO dates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Transaction transaction;
+    private Account account;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        transaction = new Transaction();
+        transaction.setId(42L);
+        transaction.setTransactionId(UUID.randomUUID().toString());
+        transaction.setFromAccountNumber("1000000018");
+        transaction.setToAccountNumber("1000000026");
+        transaction.setAmount(Money.of("125.50"));
+        transaction.setCurrency("USD");
+        transaction.setStatus("SUCCESS");
+        transaction.setDescription("JMH transaction");
+        transaction.setTransactionDate(LocalDateTime.now());
+
+        account = new Account();
+        account.setId(7L);
+        account.setAccountNumber("1000000018");
+        account.setAccountHolderName("Alice Smith");
+        account.setBalance(Money.of("5000.00"));
+        account.setCurrency("USD");
+        account.setStatus("ACTIVE");
+        account.setCreatedAt(LocalDateTime.now());
+        account.setUpdatedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public byte[] serializeTransaction() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] serializeAccount() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+}
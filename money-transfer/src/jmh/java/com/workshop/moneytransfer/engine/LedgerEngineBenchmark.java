@@ -0,0 +1,113 @@
+package com.workshop.moneytransfer.engine;
+
+import com.workshop.moneytransfer.MoneyTransferApplication;
+import com.workshop.moneytransfer.dto.TransferRequest;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.service.AccountService;
+import com.workshop.moneytransfer.service.TransferService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database vs sharded in-memory transfer engine, in transfers per ms.
+ *
+ * {@code transfer} is one blocking call per transfer from 8 threads;
+ * {@code batch} queues 1000 transfers per call, which keeps every shard
+ * busy and shows the engine's own ceiling. The sharded engine's sustained
+ * rate is bounded by how fast the persister can write batches once its
+ * ring is full, so compare long iterations:
+ * {@code mvn test -Pjmh -Djmh.args="LedgerEngine -w 10s -r 20s"}
+ * and watch {@code money.transfer.engine.persist.backlog}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LedgerEngineBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int ACCOUNTS = 10_000;
+    private static final Money AMOUNT = Money.of("1.00");
+
+    @Param({"database", "sharded"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(MoneyTransferApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments, so they override application.properties
+                .run(
+                        "--money.transfer.engine.type=" + engine,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.com.workshop.moneytransfer=WARN",
+                        "--management.tracing.sampling.probability=0.0");
+        transferService = context.getBean(TransferService.class);
+
+        AccountService accountService = context.getBean(AccountService.class);
+        accountNumbers = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = accountService.createAccount("Benchmark " + i, new BigDecimal("1000000000.00"));
+            accountNumbers[i] = account.getAccountNumber();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        return transferService.transfer(accountNumbers[from], accountNumbers[to], AMOUNT, "JMH transfer");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Object batch() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<TransferRequest> requests = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            int from = random.nextInt(ACCOUNTS);
+            int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+            requests.add(new TransferRequest(accountNumbers[from], accountNumbers[to], AMOUNT, "JMH batch"));
+        }
+        return transferService.transferBatch(requests);
+    }
+}
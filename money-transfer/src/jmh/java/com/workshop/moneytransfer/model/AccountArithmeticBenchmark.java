@@ -0,0 +1,97 @@
+package com.workshop.moneytransfer.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic on the transfer hot path: the funds check plus
+ * Account.debit/credit, with {@link Money} against the BigDecimal
+ * arithmetic it replaced (the {@code bigDecimal*} baselines).
+ *
+ * Run with the GC profiler to compare allocation per operation:
+ * {@code mvn test -Pjmh -Djmh.args="AccountArithmetic -prof gc"}
+ * and read {@code gc.alloc.rate.norm}.
+ *
+ * Transfers alternate direction, so the balances stay put instead of the
+ * source running dry within the first iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountArithmeticBenchmark {
+
+    private Account from;
+    private Account to;
+    private Money amount;
+
+    private BigDecimal fromBalance;
+    private BigDecimal toBalance;
+    private BigDecimal decimalAmount;
+
+    private boolean reverse;
+
+    @Setup
+    public void setUp() {
+        from = new Account();
+        from.setBalance(Money.of("5000.00"));
+        to = new Account();
+        to.setBalance(Money.of("5000.00"));
+        amount = Money.of("12.34");
+
+        fromBalance = new BigDecimal("5000.00");
+        toBalance = new BigDecimal("5000.00");
+        decimalAmount = new BigDecimal("12.34");
+    }
+
+    @Benchmark
+    public boolean debitAndCredit() {
+        reverse = !reverse;
+        Account source = reverse ? to : from;
+        Account destination = reverse ? from : to;
+        if (source.canCover(amount)) {
+            source.debit(amount);
+            destination.credit(amount);
+            return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean fundsCheck() {
+        return !from.canCover(amount);
+    }
+
+    @Benchmark
+    public Object bigDecimalDebitAndCredit() {
+        reverse = !reverse;
+        if (reverse) {
+            if (toBalance.compareTo(decimalAmount) >= 0) {
+                toBalance = toBalance.subtract(decimalAmount);
+                fromBalance = fromBalance.add(decimalAmount);
+            }
+        } else if (fromBalance.compareTo(decimalAmount) >= 0) {
+            fromBalance = fromBalance.subtract(decimalAmount);
+            toBalance = toBalance.add(decimalAmount);
+        }
+        return toBalance;
+    }
+
+    @Benchmark
+    public boolean bigDecimalFundsCheck() {
+        return fromBalance.compareTo(decimalAmount) < 0;
+    }
+}
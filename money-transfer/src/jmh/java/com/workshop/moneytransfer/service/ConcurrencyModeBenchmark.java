@@ -0,0 +1,108 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.MoneyTransferApplication;
+import com.workshop.moneytransfer.exception.ConcurrentUpdateException;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pessimistic vs optimistic single transfers under 8 threads.
+ *
+ * With 1000 accounts conflicts are rare, so the optimistic mode saves the
+ * lock acquisition and FOR UPDATE round trip. With 2 accounts every
+ * transfer touches the same rows: pessimistic callers queue on the lock,
+ * optimistic ones burn attempts on conflicts and back off. The
+ * {@code gaveUp} counter reports transfers rejected once the retry limit
+ * or budget ran out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConcurrencyModeBenchmark {
+
+    private static final Money AMOUNT = Money.of("1.00");
+
+    @Param({"pessimistic", "optimistic"})
+    private String mode;
+
+    /** 2 models a hot pair of accounts, 1000 a low-contention workload. */
+    @Param({"2", "1000"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private String[] accountNumbers;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long gaveUp;
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(MoneyTransferApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments, so they override application.properties
+                .run(
+                        "--money.transfer.concurrency-mode=" + mode,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.com.workshop.moneytransfer=WARN",
+                        "--management.tracing.sampling.probability=0.0");
+        transferService = context.getBean(TransferService.class);
+
+        AccountService accountService = context.getBean(AccountService.class);
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            Account account = accountService.createAccount("Benchmark " + i, new BigDecimal("1000000000.00"));
+            accountNumbers[i] = account.getAccountNumber();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object transfer(Outcomes outcomes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        try {
+            return transferService.transfer(accountNumbers[from], accountNumbers[to], AMOUNT, "JMH transfer");
+        } catch (ConcurrentUpdateException e) {
+            outcomes.gaveUp++;
+            return e;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.MoneyTransferApplication;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-transfer latency with the default logging setup (synchronous JSON
+ * console output, SQL statements at DEBUG and binds at TRACE) against the
+ * prod profile (INFO, asynchronous bounded appender).
+ *
+ * The forked JVM's console output is part of what is measured, so run
+ * with output to a file and compare the percentiles:
+ * {@code mvn test -Pjmh -Djmh.args="LoggingOverhead -o target/logging.txt"}.
+ * The prod run's drop counts are at /actuator/metrics/logging.async.dropped
+ * when run as a server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoggingOverheadBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+    private static final Money AMOUNT = Money.of("1.00");
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(MoneyTransferApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("default".equals(profile) ? new String[0] : new String[] {profile})
+                .run("--management.tracing.sampling.probability=0.0");
+        transferService = context.getBean(TransferService.class);
+
+        AccountService accountService = context.getBean(AccountService.class);
+        accountNumbers = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = accountService.createAccount("Benchmark " + i, new BigDecimal("1000000000.00"));
+            accountNumbers[i] = account.getAccountNumber();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        return transferService.transfer(accountNumbers[from], accountNumbers[to], AMOUNT, "JMH transfer");
+    }
+}
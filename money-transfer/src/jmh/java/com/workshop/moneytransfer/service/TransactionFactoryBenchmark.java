@@ -0,0 +1,75 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.MoneyTransferApplication;
+import com.workshop.moneytransfer.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.AopTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a Transaction record: UUID generation plus entity construction.
+ *
+ * The service comes from the application context. Transfers call
+ * createTransaction on the service itself, not through its proxy, so the
+ * benchmark does the same.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionFactoryBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private Money amount;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(MoneyTransferApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.com.workshop.moneytransfer=WARN",
+                        "management.tracing.sampling.probability=0.0")
+                .run();
+        transferService = AopTestUtils.getUltimateTargetObject(context.getBean(TransferService.class));
+        amount = Money.of("125.50");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createTransaction() {
+        return transferService.createTransaction("1000000018", "1000000026", amount,
+                "JMH transaction", "SUCCESS", null);
+    }
+
+    @Benchmark
+    public Object randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+}
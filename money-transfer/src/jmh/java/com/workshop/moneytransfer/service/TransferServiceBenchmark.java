@@ -0,0 +1,96 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.MoneyTransferApplication;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end TransferService.transfer against the embedded H2 database:
+ * striped locks, SELECT ... FOR UPDATE, balance updates and the ledger insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferServiceBenchmark {
+
+    private static final Money AMOUNT = Money.of("1.00");
+
+    /** Number of accounts transfers are spread across; small values model hot accounts. */
+    @Param({"10", "1000"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(MoneyTransferApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.com.workshop.moneytransfer=WARN",
+                        "management.tracing.sampling.probability=0.0")
+                .run();
+        transferService = context.getBean(TransferService.class);
+
+        AccountService accountService = context.getBean(AccountService.class);
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            Account account = accountService.createAccount("Benchmark " + i, new BigDecimal("1000000000.00"));
+            accountNumbers[i] = account.getAccountNumber();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object transferSingleThread() {
+        return transfer();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object transferContended() {
+        return transfer();
+    }
+
+    private Object transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        return transferService.transfer(accountNumbers[from], accountNumbers[to],
+                AMOUNT, "JMH transfer");
+    }
+}
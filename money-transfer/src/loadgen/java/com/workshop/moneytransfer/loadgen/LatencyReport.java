@@ -0,0 +1,221 @@
+package com.workshop.moneytransfer.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-scenario latency distributions and status counts.
+ *
+ * Two histograms are kept per scenario. "response" is measured from the
+ * moment the request was supposed to be sent, so time spent queued behind
+ * a slow server counts (coordinated-omission corrected). "service" is
+ * measured from the moment it was actually sent, which is what a naive
+ * load tool reports. Values are recorded in microseconds.
+ */
+final class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<Scenario, Stats> stats = new EnumMap<>(Scenario.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    LatencyReport(Scenario[] scenarios) {
+        for (Scenario scenario : scenarios) {
+            stats.put(scenario, new Stats());
+        }
+    }
+
+    /** Open loop: latency is corrected by measuring from the intended send time. */
+    void record(Scenario scenario, long intendedNanos, long sentNanos, long doneNanos, int status) {
+        Stats s = stats.get(scenario);
+        s.response.recordValue(toMicros(doneNanos - intendedNanos));
+        s.service.recordValue(toMicros(doneNanos - sentNanos));
+        s.count(status);
+    }
+
+    /**
+     * Closed loop: a worker cannot send while it waits, so the requests it
+     * should have sent meanwhile are back-filled from the expected interval.
+     */
+    void recordWithExpectedInterval(Scenario scenario, long latencyNanos, long expectedIntervalNanos, int status) {
+        Stats s = stats.get(scenario);
+        long micros = toMicros(latencyNanos);
+        if (expectedIntervalNanos > 0) {
+            s.response.recordValueWithExpectedInterval(micros, toMicros(expectedIntervalNanos));
+        } else {
+            s.response.recordValue(micros);
+        }
+        s.service.recordValue(micros);
+        s.count(status);
+    }
+
+    /**
+     * Write summary.txt (human readable), summary.json (for --baseline) and
+     * one .hgrm percentile distribution per scenario into the report directory.
+     */
+    void write(Path dir, LoadOptions options, double measuredSeconds) throws IOException {
+        Files.createDirectories(dir);
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("options", options.toString());
+        json.put("correction", correctionNote(options));
+        json.put("measuredSeconds", round(measuredSeconds));
+        ObjectNode scenarios = json.putObject("scenarios");
+
+        Histogram allResponse = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Histogram allService = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        for (Map.Entry<Scenario, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            allResponse.add(s.response);
+            allService.add(s.service);
+            scenarios.set(entry.getKey().label, s.toJson(measuredSeconds));
+            writeDistribution(dir.resolve(entry.getKey().label + ".hgrm"), s.response);
+        }
+        Stats total = new Stats();
+        total.response.add(allResponse);
+        total.service.add(allService);
+        stats.values().forEach(total::addCounts);
+        scenarios.set("all", total.toJson(measuredSeconds));
+        writeDistribution(dir.resolve("all.hgrm"), total.response);
+
+        objectMapper.writeValue(dir.resolve("summary.json").toFile(), json);
+        Files.writeString(dir.resolve("summary.txt"), summary(json));
+    }
+
+    /** Fixed-width table of the summary; stable ordering so two runs diff cleanly. */
+    String summary(JsonNode json) {
+        StringBuilder out = new StringBuilder();
+        out.append(json.get("options").asText()).append('\n');
+        out.append("latency: ").append(json.get("correction").asText()).append('\n');
+        out.append(String.format(Locale.ROOT, "measured: %.1fs%n%n", json.get("measuredSeconds").asDouble()));
+        for (String kind : new String[] {"response", "service"}) {
+            out.append(kind).append(" time (ms)\n");
+            out.append(String.format(Locale.ROOT, "%-14s %9s %9s %6s %6s %6s %9s %9s %9s %9s %9s %9s%n",
+                    "scenario", "count", "req/s", "4xx", "5xx", "io", "p50", "p90", "p99", "p99.9", "p99.99", "max"));
+            json.get("scenarios").fields().forEachRemaining(e -> {
+                JsonNode s = e.getValue();
+                JsonNode latency = s.get(kind);
+                out.append(String.format(Locale.ROOT, "%-14s %9d %9.1f %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        e.getKey(), s.get("count").asLong(), s.get("throughput").asDouble(),
+                        s.get("clientErrors").asLong(), s.get("serverErrors").asLong(), s.get("ioErrors").asLong(),
+                        latency.get("p50").asDouble(), latency.get("p90").asDouble(), latency.get("p99").asDouble(),
+                        latency.get("p99.9").asDouble(), latency.get("p99.99").asDouble(), latency.get("max").asDouble()));
+            });
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    /** Compare corrected response-time percentiles against an earlier summary.json. */
+    String compare(Path dir, Path baselineFile) throws IOException {
+        JsonNode current = objectMapper.readTree(dir.resolve("summary.json").toFile());
+        JsonNode baseline = objectMapper.readTree(baselineFile.toFile());
+        StringBuilder out = new StringBuilder("response time vs " + baselineFile + " (ms, baseline -> current)\n");
+        current.get("scenarios").fields().forEachRemaining(e -> {
+            JsonNode before = baseline.path("scenarios").path(e.getKey()).path("response");
+            if (before.isMissingNode()) {
+                return;
+            }
+            out.append(String.format(Locale.ROOT, "%-14s", e.getKey()));
+            for (String p : new String[] {"p50", "p99", "p99.9", "max"}) {
+                double was = before.get(p).asDouble();
+                double now = e.getValue().get("response").get(p).asDouble();
+                double change = was == 0 ? 0 : (now - was) * 100 / was;
+                out.append(String.format(Locale.ROOT, "  %s %.2f -> %.2f (%+.0f%%)", p, was, now, change));
+            }
+            out.append('\n');
+        });
+        return out.toString();
+    }
+
+    private static String correctionNote(LoadOptions options) {
+        if (options.mode == LoadOptions.Mode.OPEN) {
+            return "open loop, measured from intended send time";
+        }
+        return options.expectedIntervalNanos() > 0
+                ? "closed loop, corrected with expected interval " + options.expectedIntervalNanos() / 1_000 + "us"
+                : "closed loop, unthrottled: response time is not corrected for coordinated omission";
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, nanos / 1_000));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private final class Stats {
+
+        final Histogram response = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final Histogram service = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder ioErrors = new LongAdder();
+
+        /** status is the HTTP status code, or -1 when no response arrived. */
+        void count(int status) {
+            if (status < 0) {
+                ioErrors.increment();
+            } else if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            } else {
+                ok.increment();
+            }
+        }
+
+        void addCounts(Stats other) {
+            ok.add(other.ok.sum());
+            clientErrors.add(other.clientErrors.sum());
+            serverErrors.add(other.serverErrors.sum());
+            ioErrors.add(other.ioErrors.sum());
+        }
+
+        ObjectNode toJson(double seconds) {
+            long count = ok.sum() + clientErrors.sum() + serverErrors.sum() + ioErrors.sum();
+            ObjectNode node = objectMapper.createObjectNode();
+            node.put("count", count);
+            node.put("throughput", round(count / seconds));
+            node.put("ok", ok.sum());
+            node.put("clientErrors", clientErrors.sum());
+            node.put("serverErrors", serverErrors.sum());
+            node.put("ioErrors", ioErrors.sum());
+            node.set("response", percentiles(response));
+            node.set("service", percentiles(service));
+            return node;
+        }
+
+        private ObjectNode percentiles(Histogram histogram) {
+            ObjectNode node = objectMapper.createObjectNode();
+            for (double p : PERCENTILES) {
+                String key = "p" + (p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p));
+                node.put(key, round(histogram.getValueAtPercentile(p) / 1000.0));
+            }
+            node.put("max", round(histogram.getMaxValue() / 1000.0));
+            return node;
+        }
+    }
+}
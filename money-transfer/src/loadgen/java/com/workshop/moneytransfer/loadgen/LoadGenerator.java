@@ -0,0 +1,193 @@
+package com.workshop.moneytransfer.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP load generator for the money transfer API.
+ *
+ * Open loop (default) sends requests on a fixed schedule regardless of how
+ * fast the server answers, which is how real clients behave. Closed loop
+ * runs a fixed number of workers that each wait for their previous
+ * response. See {@link LatencyReport} for how latency is measured.
+ *
+ * Run with: mvn test -Ploadgen -Dloadgen.args="--rate=500 --duration=60 --label=build-42"
+ */
+public final class LoadGenerator {
+
+    private final LoadOptions options;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private LoadGenerator(LoadOptions options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        new LoadGenerator(options).run();
+    }
+
+    private void run() throws Exception {
+        System.out.println("Target: " + options.target);
+        System.out.println(options);
+
+        checkAccounts(options.hotAccounts);
+        List<String> coldAccounts = options.mix.containsKey(Scenario.TRANSFER_COLD)
+                ? seedColdAccounts(options.coldAccounts)
+                : List.of();
+        RequestMix mix = new RequestMix(options.target, options.mix, options.hotAccounts, coldAccounts);
+        LatencyReport report = new LatencyReport(mix.scenarios());
+
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        System.out.printf("Warming up for %ds, then measuring for %ds%n",
+                options.warmup.toSeconds(), options.duration.toSeconds());
+
+        if (options.mode == LoadOptions.Mode.OPEN) {
+            runOpenLoop(mix, report, start, measureFrom, end);
+        } else {
+            runClosedLoop(mix, report, measureFrom, end);
+        }
+
+        double measuredSeconds = options.duration.toNanos() / 1e9;
+        report.write(options.reportDir, options, measuredSeconds);
+        System.out.println();
+        System.out.print(Files.readString(options.reportDir.resolve("summary.txt")));
+        System.out.println("Report written to " + options.reportDir.toAbsolutePath());
+        if (options.baseline != null) {
+            System.out.println();
+            System.out.print(report.compare(options.reportDir, options.baseline));
+        }
+    }
+
+    /**
+     * Each request has an intended send time on a fixed grid. If the server
+     * falls behind and the in-flight cap is reached, sends are delayed but
+     * latency is still measured from the intended time.
+     */
+    private void runOpenLoop(RequestMix mix, LatencyReport report, long start, long measureFrom, long end)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.concurrency);
+        for (long i = 0; ; i++) {
+            long intended = start + i * 1_000_000_000L / options.rate;
+            if (intended >= end) {
+                break;
+            }
+            parkUntil(intended);
+            inFlight.acquire();
+
+            Scenario scenario = mix.next();
+            HttpRequest request = mix.request(scenario);
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long done = System.nanoTime();
+                        inFlight.release();
+                        if (intended >= measureFrom) {
+                            report.record(scenario, intended, sent, done, response != null ? response.statusCode() : -1);
+                        }
+                    });
+        }
+        // Let outstanding requests finish so they are counted
+        if (!inFlight.tryAcquire(options.concurrency, 60, TimeUnit.SECONDS)) {
+            System.out.println("Some requests were still in flight after 60s and are not counted");
+        }
+    }
+
+    /**
+     * Fixed pool of workers, each sending its next request once the previous
+     * one has completed. With --rate set, each worker is paced to its share
+     * of the rate.
+     */
+    private void runClosedLoop(RequestMix mix, LatencyReport report, long measureFrom, long end)
+            throws InterruptedException {
+        long interval = options.expectedIntervalNanos();
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < options.concurrency; w++) {
+            Thread worker = new Thread(() -> {
+                long next = System.nanoTime();
+                while (next < end) {
+                    Scenario scenario = mix.next();
+                    long sent = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(mix.request(scenario), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long done = System.nanoTime();
+                    if (sent >= measureFrom) {
+                        report.recordWithExpectedInterval(scenario, done - sent, interval, status);
+                    }
+                    next = interval > 0 ? Math.max(next + interval, done) : done;
+                    parkUntil(next);
+                }
+            }, "loadgen-worker-" + w);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void checkAccounts(List<String> accountNumbers) throws IOException, InterruptedException {
+        for (String accountNumber : accountNumbers) {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create(options.target + "/api/accounts/" + accountNumber + "/balance")).GET().build();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 200) {
+                throw new IllegalStateException("Hot account " + accountNumber + " is not available (HTTP " + status
+                        + "); seed it or pass --hot-accounts");
+            }
+        }
+    }
+
+    /** Cold accounts are created fresh for each run with enough balance to never run dry. */
+    private List<String> seedColdAccounts(int count) throws IOException, InterruptedException {
+        System.out.printf("Creating %d cold accounts...%n", count);
+        List<String> accountNumbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String body = "{\"accountHolderName\":\"Load Test " + i + "\",\"initialBalance\":1000000.00}";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(options.target + "/api/accounts"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Could not create account: HTTP " + response.statusCode()
+                        + " " + response.body());
+            }
+            accountNumbers.add(objectMapper.readTree(response.body()).get("accountNumber").asText());
+        }
+        return accountNumbers;
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.workshop.moneytransfer.loadgen;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options for {@link LoadGenerator}, given as --name=value.
+ */
+final class LoadOptions {
+
+    enum Mode { OPEN, CLOSED }
+
+    final String target;
+    final Mode mode;
+    /** Requests per second (open loop), or the pacing target across all workers (closed loop, 0 = unthrottled). */
+    final int rate;
+    /** Closed-loop workers, or the in-flight cap for the open loop. */
+    final int concurrency;
+    final Duration duration;
+    final Duration warmup;
+    final Map<Scenario, Integer> mix;
+    final List<String> hotAccounts;
+    final int coldAccounts;
+    final Path reportDir;
+    final Path baseline;
+
+    private LoadOptions(Map<String, String> args) {
+        target = stripTrailingSlash(args.getOrDefault("target", "http://localhost:8080"));
+        rate = Integer.parseInt(args.getOrDefault("rate", "200"));
+        // Without an explicit mode, rate 0 asks for an unthrottled closed loop
+        mode = Mode.valueOf(args.getOrDefault("mode", rate == 0 ? "closed" : "open").toUpperCase());
+        concurrency = Integer.parseInt(args.getOrDefault("concurrency", "64"));
+        duration = Duration.ofSeconds(Long.parseLong(args.getOrDefault("duration", "60")));
+        warmup = Duration.ofSeconds(Long.parseLong(args.getOrDefault("warmup", "10")));
+        mix = parseMix(args.getOrDefault("mix", "transfer-hot=30,transfer-cold=30,balance=30,history=10"));
+        // Hot set defaults to the demo accounts seeded by data.sql
+        hotAccounts = Arrays.asList(args.getOrDefault("hot-accounts",
+                "ACC001,ACC002,ACC003,ACC004,ACC005,ACC006,ACC007,ACC008,ACC009,ACC010").split(","));
+        coldAccounts = Integer.parseInt(args.getOrDefault("cold-accounts", "200"));
+        reportDir = Path.of(args.getOrDefault("report-dir", "target/loadgen/" + args.getOrDefault("label", "latest")));
+        baseline = args.containsKey("baseline") ? Path.of(args.get("baseline")) : null;
+
+        if (mode == Mode.OPEN && rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive in open-loop mode");
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("--concurrency must be positive");
+        }
+        if (hotAccounts.size() < 2 || (mix.containsKey(Scenario.TRANSFER_COLD) && coldAccounts < 2)) {
+            throw new IllegalArgumentException("Transfers need at least two accounts in each set");
+        }
+    }
+
+    static LoadOptions parse(String[] argv) {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            args.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadOptions(args);
+    }
+
+    /** Expected gap between two requests of one closed-loop worker, or 0 when unthrottled. */
+    long expectedIntervalNanos() {
+        return rate > 0 ? 1_000_000_000L * concurrency / rate : 0;
+    }
+
+    private static Map<Scenario, Integer> parseMix(String spec) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Scenario.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Scenario mix is empty: " + spec);
+        }
+        return weights;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    @Override
+    public String toString() {
+        return "mode=" + mode.name().toLowerCase()
+                + " rate=" + rate
+                + " concurrency=" + concurrency
+                + " duration=" + duration.toSeconds() + "s"
+                + " warmup=" + warmup.toSeconds() + "s"
+                + " mix=" + mix
+                + " hot-accounts=" + hotAccounts.size()
+                + " cold-accounts=" + coldAccounts;
+    }
+}
@@ -0,0 +1,88 @@
+package com.workshop.moneytransfer.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks scenarios according to their weights and builds the matching HTTP request.
+ */
+final class RequestMix {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String target;
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+    private final List<String> hotAccounts;
+    private final List<String> coldAccounts;
+
+    RequestMix(String target, Map<Scenario, Integer> weights, List<String> hotAccounts, List<String> coldAccounts) {
+        this.target = target;
+        this.scenarios = weights.keySet().stream().sorted().toArray(Scenario[]::new);
+        this.cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += weights.get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.hotAccounts = hotAccounts;
+        this.coldAccounts = coldAccounts;
+    }
+
+    Scenario[] scenarios() {
+        return scenarios;
+    }
+
+    Scenario next() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        throw new IllegalStateException("Weights exhausted");
+    }
+
+    HttpRequest request(Scenario scenario) {
+        return switch (scenario) {
+            case TRANSFER_HOT -> transfer(hotAccounts);
+            case TRANSFER_COLD -> transfer(coldAccounts);
+            case BALANCE -> get("/api/accounts/" + anyAccount() + "/balance");
+            case HISTORY -> get("/api/transfers/history/" + pick(hotAccounts) + "/page?size=20");
+        };
+    }
+
+    private HttpRequest transfer(List<String> accounts) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts.size());
+        int to = (from + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+        String body = "{\"fromAccountNumber\":\"" + accounts.get(from)
+                + "\",\"toAccountNumber\":\"" + accounts.get(to)
+                + "\",\"amount\":1.00,\"description\":\"load test\"}";
+        return HttpRequest.newBuilder(URI.create(target + "/api/transfers"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    private String anyAccount() {
+        int index = ThreadLocalRandom.current().nextInt(hotAccounts.size() + coldAccounts.size());
+        return index < hotAccounts.size() ? hotAccounts.get(index) : coldAccounts.get(index - hotAccounts.size());
+    }
+
+    private static String pick(List<String> accounts) {
+        return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.workshop.moneytransfer.loadgen;
+
+import java.util.Arrays;
+
+/**
+ * Request types in a load mix.
+ */
+enum Scenario {
+
+    /** Transfer between two accounts of the small, contended hot set. */
+    TRANSFER_HOT("transfer-hot"),
+    /** Transfer between two accounts of the large cold set; little lock contention. */
+    TRANSFER_COLD("transfer-cold"),
+    /** GET /api/accounts/{n}/balance on a random account. */
+    BALANCE("balance"),
+    /** First page of GET /api/transfers/history/{n}/page on a random hot account. */
+    HISTORY("history");
+
+    final String label;
+
+    Scenario(String label) {
+        this.label = label;
+    }
+
+    static Scenario fromName(String name) {
+        return Arrays.stream(values())
+                .filter(s -> s.label.equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown scenario: " + name));
+    }
+}
@@ -0,0 +1,208 @@
+package com.workshop.moneytransfer.audit;
+
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the FAILED transaction records of rejected transfers.
+ *
+ * A transfer rejected for insufficient funds throws out of its database
+ * transaction, so a record inserted there would be rolled back with it.
+ * Instead the record is queued here, in a bounded in-memory buffer, and a
+ * background thread inserts queued records in batches, each batch in its
+ * own transaction. The rejecting request never waits for the insert.
+ *
+ * When the buffer is full the record is dropped and counted rather than
+ * slowing down rejections; records still queued at shutdown are written
+ * before the writer stops.
+ */
+@Component
+@Slf4j
+public class FailedTransferAuditWriter implements SmartLifecycle {
+
+    private static final long POLL_MILLIS = 100;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionOperations transactionOperations;
+    private final int batchSize;
+    private final BlockingQueue<Transaction> queue;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private volatile boolean dropWarned;
+    private Thread thread;
+
+    public FailedTransferAuditWriter(TransactionRepository transactionRepository,
+                                     TransactionOperations transactionOperations,
+                                     MeterRegistry registry,
+                                     @Value("${money.transfer.failure-audit.queue-size:10000}") int queueSize,
+                                     @Value("${money.transfer.failure-audit.batch-size:500}") int batchSize) {
+        this.transactionRepository = transactionRepository;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+
+        this.written = Counter.builder("money.transfer.audit.written")
+                .description("Failed-transfer records written to the database")
+                .tag("type", "transfer")
+                .register(registry);
+        this.dropped = Counter.builder("money.transfer.audit.dropped")
+                .description("Failed-transfer records discarded: queue full or record rejected by the database")
+                .tag("type", "transfer")
+                .register(registry);
+        this.flushTimer = Timer.builder("money.transfer.audit.flush")
+                .description("Time to write one batch of failed-transfer records")
+                .tag("type", "transfer")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("money.transfer.audit.backlog", queue, BlockingQueue::size)
+                .description("Failed-transfer records waiting to be written")
+                .tag("type", "transfer")
+                .register(registry);
+    }
+
+    /**
+     * Queue a rejected transfer's record. Never blocks; returns false if
+     * the record was dropped because the queue is full.
+     */
+    public boolean record(Transaction transaction) {
+        if (transaction.getTransactionDate() == null) {
+            // Stamp the rejection time, not the time the batch happens to be written
+            transaction.setTransactionDate(LocalDateTime.now());
+        }
+        if (queue.offer(transaction)) {
+            return true;
+        }
+        dropped.increment();
+        if (!dropWarned) {
+            dropWarned = true;
+            log.warn("Failure audit queue full, dropping records (first: transaction {})",
+                    transaction.getTransactionId());
+        }
+        return false;
+    }
+
+    private void run() {
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            if (batch.isEmpty() && !take(batch)) {
+                continue;
+            }
+            try {
+                flushTimer.record(() -> transactionOperations.executeWithoutResult(
+                        status -> transactionRepository.saveAll(batch)));
+                written.increment(batch.size());
+                batch.clear();
+                dropWarned = false;
+            } catch (DataIntegrityViolationException e) {
+                // One bad record must not block the rest: write them one at a time
+                batch.forEach(this::writeOne);
+                batch.clear();
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Failure audit writer stopped with {} records not written: {}",
+                            batch.size() + queue.size(), e.getMessage());
+                    return;
+                }
+                log.warn("Writing {} failed-transfer records failed, retrying: {}", batch.size(), e.getMessage());
+                // The rolled-back inserts may have been assigned ids; insert them afresh
+                batch.forEach(transaction -> transaction.setId(null));
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void writeOne(Transaction transaction) {
+        transaction.setId(null);
+        try {
+            transactionOperations.executeWithoutResult(status -> transactionRepository.save(transaction));
+            written.increment();
+        } catch (RuntimeException e) {
+            dropped.increment();
+            log.warn("Could not record failed transaction {}: {}", transaction.getTransactionId(), e.getMessage());
+        }
+    }
+
+    /** Wait briefly for a first record, then take whatever else is queued. */
+    private boolean take(List<Transaction> batch) {
+        try {
+            Transaction first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return false;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            return true;
+        } catch (InterruptedException e) {
+            // Only stop() ends this thread, and it lets the queue drain first
+            return false;
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "failure-audit-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stop after writing what is already queued. */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Failure audit writer stopped with {} records not written", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
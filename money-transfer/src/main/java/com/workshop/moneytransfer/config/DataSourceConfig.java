@@ -0,0 +1,85 @@
+package com.workshop.moneytransfer.config;
+
+import com.workshop.moneytransfer.datasource.ReadReplicaRoutingDataSource;
+import com.workshop.moneytransfer.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Connection pools for the primary database and, with
+ * {@code money.transfer.read-replica.enabled}, a read replica.
+ *
+ * The application's {@link DataSource} sends read-only transactions to the
+ * replica while it is within its staleness bound (see
+ * {@link ReadReplicaRoutingDataSource}) and all other work to the primary.
+ * It also defers fetching a pooled connection until the first statement,
+ * so a transaction that never reaches the database (an account cache hit)
+ * does not take one.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /** The write pool, configured by the usual {@code spring.datasource.*} properties. */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "money.transfer.read-replica.enabled", havingValue = "true")
+    public HikariDataSource replicaDataSource(
+            @Value("${money.transfer.read-replica.url}") String url,
+            @Value("${money.transfer.read-replica.username:${spring.datasource.username:}}") String username,
+            @Value("${money.transfer.read-replica.password:${spring.datasource.password:}}") String password,
+            @Value("${money.transfer.read-replica.max-pool-size:10}") int maxPoolSize,
+            @Value("${money.transfer.read-replica.connection-timeout:1s}") Duration connectionTimeout) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maxPoolSize);
+        dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+        dataSource.setReadOnly(true);
+        // Start even while the replica is down; reads use the primary until it answers
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "money.transfer.read-replica.enabled", havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${money.transfer.read-replica.max-staleness:5s}") Duration maxStaleness,
+            @Value("${money.transfer.read-replica.heartbeat-interval:1s}") Duration heartbeatInterval) {
+        return new ReplicaLagMonitor(primary, replica, maxStaleness, heartbeatInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+                                 ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        DataSource target = monitor != null
+                ? new ReadReplicaRoutingDataSource(primary, replica.getObject(), monitor)
+                : primary;
+        return new LazyConnectionDataSourceProxy(target);
+    }
+}
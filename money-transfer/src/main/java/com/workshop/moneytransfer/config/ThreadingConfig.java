@@ -0,0 +1,33 @@
+package com.workshop.moneytransfer.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Reports which execution mode is in effect. Spring Boot silently falls back
+ * to platform threads when spring.threads.virtual.enabled is set on a
+ * pre-21 runtime, which is easy to miss when comparing benchmark runs.
+ */
+@Configuration
+@Slf4j
+public class ThreadingConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logExecutionMode() {
+        boolean supported = JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE);
+        if (virtualThreadsRequested && !supported) {
+            log.warn("Virtual threads requested but the runtime is Java {}; using platform threads",
+                    System.getProperty("java.specification.version"));
+        } else {
+            log.info("Execution mode: {} threads",
+                    virtualThreadsRequested ? "virtual" : "platform");
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.workshop.moneytransfer.config;
 
+import com.workshop.moneytransfer.tracing.TailSamplingSpanProcessor;
 import io.micrometer.observation.ObservationRegistry;
 import io.micrometer.observation.aop.ObservedAspect;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class TracingConfig {
 
@@ -12,4 +22,37 @@ public class TracingConfig {
     public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
         return new ObservedAspect(observationRegistry);
     }
-}
\ No newline at end of file
+
+    /**
+     * Wraps the auto-configured exporting processor, so every span reaches
+     * the exporter only after its trace has been kept.
+     */
+    @Bean
+    public TailSamplingSpanProcessor tailSamplingSpanProcessor(
+            BatchSpanProcessor otelSpanProcessor,
+            @Value("${money.transfer.tracing.tail-sampling.enabled:true}") boolean enabled,
+            @Value("${money.transfer.tracing.tail-sampling.sample-rate:0.01}") double sampleRate,
+            @Value("${money.transfer.tracing.tail-sampling.latency-threshold:500ms}") Duration latencyThreshold,
+            @Value("${money.transfer.tracing.tail-sampling.decision-wait:10s}") Duration decisionWait,
+            @Value("${money.transfer.tracing.tail-sampling.max-traces:10000}") int maxTraces,
+            @Value("${money.transfer.tracing.tail-sampling.max-spans-per-trace:256}") int maxSpansPerTrace,
+            @Value("${money.transfer.tracing.tail-sampling.max-spans:50000}") int maxSpans) {
+        return new TailSamplingSpanProcessor(otelSpanProcessor, enabled, sampleRate, latencyThreshold,
+                decisionWait, maxTraces, maxSpansPerTrace, maxSpans);
+    }
+
+    /**
+     * The processors the tracer provider calls: the tail sampler in place of
+     * the exporting processor it wraps, plus any other processor beans.
+     */
+    @Bean
+    public SpanProcessors spanProcessors(TailSamplingSpanProcessor tailSampling,
+                                         ObjectProvider<SpanProcessor> processors) {
+        List<SpanProcessor> result = new ArrayList<>();
+        result.add(tailSampling);
+        processors.orderedStream()
+                .filter(processor -> processor != tailSampling && !(processor instanceof BatchSpanProcessor))
+                .forEach(result::add);
+        return SpanProcessors.of(result);
+    }
+}
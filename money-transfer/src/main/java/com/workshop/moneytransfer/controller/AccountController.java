@@ -1,17 +1,26 @@
 package com.workshop.moneytransfer.controller;
 
+import com.workshop.moneytransfer.dto.AccountActivitySummary;
+import com.workshop.moneytransfer.dto.AccountImportResult;
+import com.workshop.moneytransfer.dto.AccountPage;
 import com.workshop.moneytransfer.dto.CreateAccountRequest;
 import com.workshop.moneytransfer.exception.AccountNotFoundException;
 import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.service.AccountActivityService;
+import com.workshop.moneytransfer.service.AccountImportService;
 import com.workshop.moneytransfer.service.AccountService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -20,18 +29,27 @@ public class AccountController {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountController.class);
     private final AccountService accountService;
+    private final AccountActivityService accountActivityService;
+    private final AccountImportService accountImportService;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, AccountActivityService accountActivityService,
+                             AccountImportService accountImportService) {
         this.accountService = accountService;
+        this.accountActivityService = accountActivityService;
+        this.accountImportService = accountImportService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Account>> getAllAccounts() {
+    public ResponseEntity<AccountPage> getAllAccounts(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String currency,
+            @RequestParam(defaultValue = "false") boolean slice,
+            @PageableDefault(size = 50, sort = "accountNumber") Pageable pageable) {
         MDC.put("operation", "getAllAccounts");
-        logger.info("Fetching all accounts");
+        logger.info("Fetching accounts page {} (size {})", pageable.getPageNumber(), pageable.getPageSize());
 
-        List<Account> accounts = accountService.getAllAccounts();
-        logger.debug("Found {} accounts", accounts.size());
+        AccountPage accounts = accountService.listAccounts(status, currency, pageable, slice);
+        logger.debug("Found {} accounts", accounts.getContent().size());
 
         MDC.clear();
         return ResponseEntity.ok(accounts);
@@ -79,6 +97,31 @@ public class AccountController {
         }
     }
 
+    /**
+     * Create accounts from a streamed UTF-8 upload: {@code text/csv} with an
+     * {@code accountHolderName,initialBalance} header, or
+     * {@code application/x-ndjson} with one account request per line.
+     * Invalid rows are skipped and reported by line number.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<AccountImportResult> importAccounts(HttpServletRequest request) throws IOException {
+        AccountImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? AccountImportService.Format.CSV
+                : AccountImportService.Format.NDJSON;
+        MDC.put("operation", "importAccounts");
+        logger.info("Importing accounts from {} upload", format);
+
+        try {
+            AccountImportResult result = accountImportService.importAccounts(request.getInputStream(), format);
+            logger.info("Account import finished: {} imported, {} rejected",
+                    result.getImported(), result.getRejected());
+            return ResponseEntity.ok(result);
+        } finally {
+            MDC.clear();
+        }
+    }
+
     @GetMapping("/{accountNumber}/balance")
     public ResponseEntity<?> getBalance(@PathVariable String accountNumber) {
         MDC.put("operation", "getBalance");
@@ -126,4 +169,62 @@ public class AccountController {
                     .body(Map.of("error", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Totals of the account's successful transfers and its daily buckets
+     * for the last {@code days} days, read from the maintained aggregates.
+     */
+    @GetMapping("/{accountNumber}/summary")
+    public ResponseEntity<?> getActivitySummary(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "30") int days) {
+        MDC.put("operation", "getActivitySummary");
+        MDC.put("accountNumber", accountNumber);
+
+        logger.info("Fetching activity summary for account: {}", accountNumber);
+
+        try {
+            AccountActivitySummary summary = accountActivityService.getSummary(accountNumber, days);
+            MDC.clear();
+            return ResponseEntity.ok(summary);
+        } catch (AccountNotFoundException e) {
+            logger.warn("Account not found: {}", accountNumber);
+            MDC.clear();
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** Recompute one account's activity aggregates from the transactions table. */
+    @PostMapping("/{accountNumber}/summary/rebuild")
+    public ResponseEntity<?> rebuildActivitySummary(@PathVariable String accountNumber) {
+        MDC.put("operation", "rebuildActivitySummary");
+        MDC.put("accountNumber", accountNumber);
+
+        logger.info("Rebuilding activity summary for account: {}", accountNumber);
+
+        try {
+            AccountActivitySummary summary = accountActivityService.rebuild(accountNumber);
+            MDC.clear();
+            return ResponseEntity.ok(summary);
+        } catch (AccountNotFoundException e) {
+            logger.warn("Account not found: {}", accountNumber);
+            MDC.clear();
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** Recompute every account's activity aggregates, one account at a time. */
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildAllActivitySummaries() {
+        MDC.put("operation", "rebuildAllActivitySummaries");
+        logger.info("Rebuilding activity summaries for all accounts");
+
+        int accounts = accountActivityService.rebuildAll();
+        logger.info("Rebuilt activity summaries for {} accounts", accounts);
+
+        MDC.clear();
+        return ResponseEntity.ok(Map.of("accounts", accounts));
+    }
+}
@@ -1,16 +1,28 @@
 package com.workshop.moneytransfer.controller;
 
+import com.workshop.moneytransfer.dto.BatchTransferRequest;
+import com.workshop.moneytransfer.dto.BatchTransferResponse;
+import com.workshop.moneytransfer.dto.TransactionPage;
 import com.workshop.moneytransfer.dto.TransferRequest;
+import com.workshop.moneytransfer.dto.TransferResult;
 import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.service.TransactionExportService;
 import com.workshop.moneytransfer.service.TransferService;
 
 import io.micrometer.observation.annotation.Observed;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,19 +31,32 @@ import java.util.List;
 public class TransferController {
 
     private final TransferService transferService;
+    private final TransactionExportService transactionExportService;
 
     @PostMapping
     @Observed(name = "money.transfer", contextualName = "Money Transfer")
-    public ResponseEntity<Transaction> transfer(@Valid @RequestBody TransferRequest request) {
+    public ResponseEntity<Transaction> transfer(
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         Transaction transaction = transferService.transfer(
                 request.getFromAccountNumber(),
                 request.getToAccountNumber(),
                 request.getAmount(),
-                request.getDescription());
+                request.getDescription(),
+                idempotencyKey);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
     }
 
+    @PostMapping("/batch")
+    @Observed(name = "money.transfer.batch", contextualName = "Money Transfer Batch")
+    public ResponseEntity<BatchTransferResponse> transferBatch(
+            @Valid @RequestBody BatchTransferRequest request) {
+
+        List<TransferResult> results = transferService.transferBatch(request.getTransfers());
+        return ResponseEntity.ok(BatchTransferResponse.of(results));
+    }
+
     @GetMapping("/history/{accountNumber}")
     @Observed(name = "transaction.history", contextualName = "Transaction History")
     public ResponseEntity<List<Transaction>> getTransactionHistory(
@@ -40,4 +65,36 @@ public class TransferController {
         List<Transaction> transactions = transferService.getTransactionHistory(accountNumber);
         return ResponseEntity.ok(transactions);
     }
+
+    @GetMapping("/history/{accountNumber}/page")
+    @Observed(name = "transaction.history.page", contextualName = "Transaction History Page")
+    public ResponseEntity<TransactionPage> getTransactionHistoryPage(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+
+        TransactionPage page = transferService.getTransactionHistoryPage(
+                accountNumber, cursor, size, since, until);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/history/{accountNumber}/export")
+    @Observed(name = "transaction.history.export", contextualName = "Transaction History Export")
+    public void exportTransactionHistory(
+            @PathVariable String accountNumber,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+
+        TransactionExportService.Format exportFormat = TransactionExportService.Format.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("transactions-" + accountNumber + "." + exportFormat.getExtension())
+                .build()
+                .toString());
+
+        transactionExportService.export(accountNumber, exportFormat, response.getOutputStream());
+    }
 }
\ No newline at end of file
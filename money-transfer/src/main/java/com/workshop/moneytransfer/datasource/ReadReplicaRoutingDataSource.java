@@ -0,0 +1,68 @@
+package com.workshop.moneytransfer.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out replica connections to read-only transactions and primary
+ * connections to everything else.
+ *
+ * A read-only transaction still goes to the primary when
+ * {@link ReplicaLagMonitor} reports the replica beyond its staleness bound,
+ * or when the replica cannot supply a connection.
+ *
+ * The choice is made when the connection is fetched, so this must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * JPA asks for a connection while beginning the transaction, before it is
+ * marked read-only, and the proxy defers the fetch to the first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return source.from(primary);
+        }
+        if (!monitor.isFresh()) {
+            monitor.staleFallback();
+            return source.from(primary);
+        }
+        try {
+            Connection connection = source.from(replica);
+            monitor.replicaRead();
+            return connection;
+        } catch (SQLException e) {
+            monitor.replicaFailed(e);
+            return source.from(primary);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+
+        Connection from(DataSource dataSource) throws SQLException;
+    }
+}
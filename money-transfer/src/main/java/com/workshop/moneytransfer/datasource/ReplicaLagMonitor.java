@@ -0,0 +1,190 @@
+package com.workshop.moneytransfer.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether the read replica is fresh enough to serve reads.
+ *
+ * Every {@code interval} the primary's {@code replication_heartbeat} row is
+ * stamped with the current time and the replica's copy of it is read back.
+ * Replication applies commits in order, so the replica holds at least
+ * everything committed before the heartbeat it shows: its staleness right
+ * now is at most {@code now - that heartbeat}. Reads may use the replica
+ * while that stays within {@code maxStaleness}. The bound keeps growing
+ * between checks, so a stalled replication stream or a stalled monitor
+ * both end in reads going back to the primary.
+ *
+ * A replica that cannot be reached, or that fails to hand out a connection
+ * ({@link #replicaFailed}), is treated as stale until the next successful
+ * check.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements SmartLifecycle, MeterBinder {
+
+    private static final String HEARTBEAT_UPDATE = "UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1";
+    private static final String HEARTBEAT_INSERT = "INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, ?)";
+    private static final String HEARTBEAT_READ = "SELECT beat_millis FROM replication_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxStalenessMillis;
+    private final long intervalMillis;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder staleFallbacks = new LongAdder();
+    private final LongAdder unavailableFallbacks = new LongAdder();
+
+    /** Heartbeat last seen on the replica; 0 while unknown or unreachable. */
+    private volatile long replicaBeatMillis;
+    private volatile boolean usable;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxStaleness, Duration interval) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout((int) Math.max(1, interval.toSeconds()));
+        this.maxStalenessMillis = maxStaleness.toMillis();
+        this.intervalMillis = Math.max(10, interval.toMillis());
+        if (intervalMillis >= maxStalenessMillis) {
+            log.warn("Replica heartbeat interval {}ms is not below the staleness bound {}ms; "
+                    + "reads will mostly use the primary", intervalMillis, maxStalenessMillis);
+        }
+    }
+
+    /** Whether a read starting now may use the replica. */
+    public boolean isFresh() {
+        long beat = replicaBeatMillis;
+        return beat != 0 && System.currentTimeMillis() - beat <= maxStalenessMillis;
+    }
+
+    /** Upper bound on the replica's staleness, or null while it is unknown. */
+    public Duration getLag() {
+        long beat = replicaBeatMillis;
+        return beat != 0 ? Duration.ofMillis(Math.max(0, System.currentTimeMillis() - beat)) : null;
+    }
+
+    void replicaRead() {
+        replicaReads.increment();
+    }
+
+    void staleFallback() {
+        staleFallbacks.increment();
+    }
+
+    /** The replica refused a connection: use the primary until it answers a heartbeat again. */
+    void replicaFailed(Exception e) {
+        unavailableFallbacks.increment();
+        replicaBeatMillis = 0;
+        log.debug("Read replica connection failed: {}", e.getMessage());
+    }
+
+    void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update(HEARTBEAT_UPDATE, now) == 0) {
+                primary.update(HEARTBEAT_INSERT, now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not write replication heartbeat: {}", e.getMessage());
+        }
+        try {
+            Long beat = replica.query(HEARTBEAT_READ, rs -> rs.next() ? rs.getLong(1) : null);
+            replicaBeatMillis = beat != null ? beat : 0;
+        } catch (DataAccessException e) {
+            replicaBeatMillis = 0;
+            log.debug("Could not read replication heartbeat from the replica: {}", e.getMessage());
+        }
+
+        boolean fresh = isFresh();
+        if (fresh != usable) {
+            usable = fresh;
+            if (fresh) {
+                log.info("Read replica within {}ms of the primary; serving read-only transactions",
+                        maxStalenessMillis);
+            } else {
+                log.warn("Read replica unreachable or more than {}ms behind; reading from the primary",
+                        maxStalenessMillis);
+            }
+        }
+    }
+
+    private void checkQuietly() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            // Never let an unexpected failure cancel the schedule
+            log.warn("Replica lag check failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("money.datasource.replica.lag", this,
+                        monitor -> monitor.getLag() != null ? monitor.getLag().toMillis() / 1000.0 : Double.NaN)
+                .description("Upper bound on how far the read replica is behind the primary")
+                .baseUnit("seconds")
+                .tag("type", "datasource")
+                .register(registry);
+        FunctionCounter.builder("money.datasource.replica.reads", replicaReads, LongAdder::sum)
+                .description("Read-only transactions served by the read replica")
+                .tag("type", "datasource")
+                .register(registry);
+        FunctionCounter.builder("money.datasource.replica.fallbacks", staleFallbacks, LongAdder::sum)
+                .description("Read-only transactions sent to the primary instead of the read replica")
+                .tag("type", "datasource")
+                .tag("reason", "stale")
+                .register(registry);
+        FunctionCounter.builder("money.datasource.replica.fallbacks", unavailableFallbacks, LongAdder::sum)
+                .description("Read-only transactions sent to the primary instead of the read replica")
+                .tag("type", "datasource")
+                .tag("reason", "unavailable")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+        replicaBeatMillis = 0;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.workshop.moneytransfer.dto;
+
+import com.workshop.moneytransfer.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Totals of an account's successful transfers, plus its most recent daily
+ * buckets (newest first; days without activity are omitted).
+ * {@code transactionCount} is {@code debitCount + creditCount}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountActivitySummary {
+
+    private String accountNumber;
+    private Money totalDebited;
+    private Money totalCredited;
+    private long debitCount;
+    private long creditCount;
+    private long transactionCount;
+    private LocalDateTime lastTransactionAt;
+    private List<DailyActivity> days;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyActivity {
+
+        private LocalDate date;
+        private Money debited;
+        private Money credited;
+        private long debitCount;
+        private long creditCount;
+    }
+}
@@ -0,0 +1,35 @@
+package com.workshop.moneytransfer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk account import. {@code rows} counts every data row
+ * read, {@code imported + rejected == rows}. Only the first rejected rows
+ * are listed in {@code errors}; {@code errorsTruncated} is set when there
+ * were more.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountImportResult {
+
+    private long rows;
+    private long imported;
+    private long rejected;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /** Line of the upload the row starts on (1-based; a CSV header is line 1). */
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,37 @@
+package com.workshop.moneytransfer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * One page of the account listing. In slice mode no count query is run, so
+ * {@code totalElements} and {@code totalPages} are omitted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AccountPage {
+
+    private List<AccountSummary> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Long totalElements;
+    private Integer totalPages;
+
+    public static AccountPage of(Slice<AccountSummary> slice) {
+        if (slice instanceof Page<AccountSummary> page) {
+            return new AccountPage(page.getContent(), page.getNumber(), page.getSize(),
+                    page.hasNext(), page.getTotalElements(), page.getTotalPages());
+        }
+        return new AccountPage(slice.getContent(), slice.getNumber(), slice.getSize(),
+                slice.hasNext(), null, null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.workshop.moneytransfer.dto;
+
+import com.workshop.moneytransfer.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Currency;
+
+/**
+ * Read-only account projection used by the account listing. Built directly
+ * by a JPQL constructor expression, so no managed entity is created.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSummary {
+
+    private String accountNumber;
+    private String accountHolderName;
+    private Money balance;
+    private String currency;
+    private String status;
+
+    /** Constructor expression form: the entity holds its balance in minor units. */
+    public AccountSummary(String accountNumber, String accountHolderName, Long balance,
+                          String currency, String status) {
+        this(accountNumber, accountHolderName, Money.ofMinor(balance, Currency.getInstance(currency)),
+                currency, status);
+    }
+}
@@ -0,0 +1,20 @@
+package com.workshop.moneytransfer.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferRequest {
+
+    @NotEmpty(message = "At least one transfer is required")
+    @Size(max = 10000, message = "A batch may contain at most 10000 transfers")
+    private List<@Valid TransferRequest> transfers;
+}
@@ -0,0 +1,25 @@
+package com.workshop.moneytransfer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResponse {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<TransferResult> results;
+
+    public static BatchTransferResponse of(List<TransferResult> results) {
+        int succeeded = (int) results.stream()
+                .filter(result -> "SUCCESS".equals(result.getStatus()))
+                .count();
+        return new BatchTransferResponse(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
@@ -3,6 +3,7 @@ package com.workshop.moneytransfer.dto;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,6 +16,7 @@ import java.math.BigDecimal;
 public class CreateAccountRequest {
 
     @NotBlank(message = "Account holder name is required")
+    @Size(max = 255, message = "Account holder name must be at most 255 characters")
     private String accountHolderName;
 
     @NotNull(message = "Initial balance is required")
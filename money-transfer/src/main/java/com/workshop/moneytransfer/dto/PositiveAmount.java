@@ -0,0 +1,39 @@
+package com.workshop.moneytransfer.dto;
+
+import com.workshop.moneytransfer.model.Money;
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated {@link Money} must be greater than zero; null is valid
+ * (combine with {@code @NotNull}). Replaces {@code @DecimalMin}, which only
+ * applies to numbers and strings.
+ */
+@Documented
+@Constraint(validatedBy = PositiveAmount.Validator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PositiveAmount {
+
+    String message() default "Amount must be greater than 0";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validator implements ConstraintValidator<PositiveAmount, Money> {
+
+        @Override
+        public boolean isValid(Money value, ConstraintValidatorContext context) {
+            return value == null || value.isPositive();
+        }
+    }
+}
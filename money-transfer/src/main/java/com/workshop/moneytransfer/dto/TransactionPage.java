@@ -0,0 +1,23 @@
+package com.workshop.moneytransfer.dto;
+
+import com.workshop.moneytransfer.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of transaction history. Pass {@code nextCursor} back as the
+ * {@code cursor} parameter to fetch the next (older) page; it is null on
+ * the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+
+    private List<Transaction> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
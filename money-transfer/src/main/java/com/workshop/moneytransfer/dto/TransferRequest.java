@@ -1,14 +1,13 @@
 package com.workshop.moneytransfer.dto;
 
-import jakarta.validation.constraints.DecimalMin;
+import com.workshop.moneytransfer.model.Money;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,8 +20,9 @@ public class TransferRequest {
     private String toAccountNumber;
 
     @NotNull(message = "Amount is required")
-    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-    private BigDecimal amount;
+    @PositiveAmount(message = "Amount must be greater than 0")
+    private Money amount;
 
+    @Size(max = 255, message = "Description must be at most 255 characters")
     private String description;
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.workshop.moneytransfer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single item in a batch transfer. {@code code} uses the same
+ * values as the error responses of the single-item endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferResult {
+
+    private int index;
+    private String status; // SUCCESS, FAILED, PENDING
+    private String transactionId;
+    private String code;
+    private String message;
+
+    public static TransferResult success(int index, String transactionId) {
+        return new TransferResult(index, "SUCCESS", transactionId, null, null);
+    }
+
+    /** The transfer was still executing when the wait ended; it will complete, outcome unknown. */
+    public static TransferResult pending(int index, String transactionId, String message) {
+        return new TransferResult(index, "PENDING", transactionId, "TRANSFER_PENDING", message);
+    }
+
+    public static TransferResult failure(int index, String transactionId, String code, String message) {
+        return new TransferResult(index, "FAILED", transactionId, code, message);
+    }
+}
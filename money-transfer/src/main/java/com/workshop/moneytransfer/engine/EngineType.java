@@ -0,0 +1,16 @@
+package com.workshop.moneytransfer.engine;
+
+/**
+ * Which engine executes single and batch transfers ({@code money.transfer.engine}).
+ */
+public enum EngineType {
+
+    /** Every transfer is its own database transaction against the account rows. */
+    DATABASE,
+
+    /**
+     * Balances live in memory, owned by single-threaded shards; the database
+     * is updated asynchronously in batches (see {@link ShardedLedgerEngine}).
+     */
+    SHARDED
+}
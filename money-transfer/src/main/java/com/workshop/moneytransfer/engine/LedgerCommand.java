@@ -0,0 +1,31 @@
+package com.workshop.moneytransfer.engine;
+
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.service.IdempotencyStore;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Messages processed by a {@link LedgerShard}.
+ */
+sealed interface LedgerCommand {
+
+    /** Step 1, on the source account's shard: validate and debit. */
+    record Transfer(String fromAccountNumber, String toAccountNumber, Money amount, String description,
+                    IdempotencyStore.Request idempotency, PendingTransfer result)
+            implements LedgerCommand {
+    }
+
+    /** Step 2 of a cross-shard transfer, on the destination's shard: credit. */
+    record Credit(Transfer transfer, Transaction transaction) implements LedgerCommand {
+    }
+
+    /** Step 2 rejected: give the debited amount back to the source and fail the transfer. */
+    record Refund(Transfer transfer, RuntimeException reason) implements LedgerCommand {
+    }
+
+    record StatusChange(String accountNumber, String status, CompletableFuture<Void> done)
+            implements LedgerCommand {
+    }
+}
@@ -0,0 +1,291 @@
+package com.workshop.moneytransfer.engine;
+
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import com.workshop.moneytransfer.service.AccountActivityService;
+import com.workshop.moneytransfer.service.AccountCache;
+import com.workshop.moneytransfer.service.IdempotencyStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread that writes the ledger shards' changes to the
+ * {@code accounts} and {@code transactions} tables in batches.
+ *
+ * Each account's balance is only ever reported by its owning shard, in
+ * order, so a batch keeps just the latest balance per account and sets it
+ * absolutely; replaying a batch after a failure is harmless. Transaction
+ * rows are inserted idempotently by transaction id, and only the rows
+ * actually inserted are added to the accounts' activity aggregates.
+ *
+ * A batch that violates a constraint is written again with one transaction
+ * row per database transaction; a row that still cannot be stored is
+ * logged in full and dropped (the transfer's balances are kept), so one bad
+ * row does not stall the ledger. Other failures retry the whole batch.
+ */
+@Slf4j
+final class LedgerPersister implements Runnable {
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** Either a new balance for an account or a transaction to record. */
+    record Change(String accountNumber, long balance, Transaction transaction,
+                  IdempotencyStore.Request idempotency) {
+
+        static Change balance(LedgerShard.Balance balance) {
+            return new Change(balance.accountNumber, balance.minorUnits, null, null);
+        }
+
+        static Change transaction(Transaction transaction, IdempotencyStore.Request idempotency) {
+            return new Change(null, 0, transaction, idempotency);
+        }
+    }
+
+    private record Keyed(IdempotencyStore.Request idempotency, Transaction transaction) {
+    }
+
+    private static final class Batch {
+
+        final Map<String, Long> balances = new LinkedHashMap<>();
+        final List<Transaction> transactions = new ArrayList<>();
+        final List<Keyed> keys = new ArrayList<>();
+        int changes;
+
+        void add(Change change) {
+            changes++;
+            if (change.transaction() == null) {
+                balances.put(change.accountNumber(), change.balance());
+                return;
+            }
+            transactions.add(change.transaction());
+            if (change.idempotency() != null) {
+                keys.add(new Keyed(change.idempotency(), change.transaction()));
+            }
+        }
+
+        boolean isEmpty() {
+            return changes == 0;
+        }
+    }
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionOperations transactionOperations;
+    private final IdempotencyStore idempotencyStore;
+    private final AccountCache accountCache;
+    private final AccountActivityService accountActivity;
+    private final int batchSize;
+    private final Timer persistTimer;
+    private final Counter dropped;
+    private final MpscRingBuffer<Change> changes;
+    private volatile boolean running = true;
+    private Thread thread;
+
+    LedgerPersister(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                    TransactionOperations transactionOperations, IdempotencyStore idempotencyStore,
+                    AccountCache accountCache, AccountActivityService accountActivity,
+                    int ringSize, int batchSize, Timer persistTimer, Counter dropped) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionOperations = transactionOperations;
+        this.idempotencyStore = idempotencyStore;
+        this.accountCache = accountCache;
+        this.accountActivity = accountActivity;
+        this.batchSize = batchSize;
+        this.persistTimer = persistTimer;
+        this.dropped = dropped;
+        this.changes = new MpscRingBuffer<>(ringSize);
+    }
+
+    void start() {
+        thread = new Thread(this, "ledger-persister");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue a change, waiting while the persister is a full ring behind.
+     * Shards hold back new transfers once {@link #isBehind()}, so only the
+     * remaining steps of transfers already under way can end up waiting here.
+     */
+    void record(Change change) {
+        while (!changes.offer(change)) {
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        }
+    }
+
+    int backlog() {
+        return changes.size();
+    }
+
+    /**
+     * True once three quarters of the ring are waiting to be written; the
+     * last quarter is left for transfers that are already under way.
+     */
+    boolean isBehind() {
+        return changes.size() >= changes.capacity() - changes.capacity() / 4;
+    }
+
+    /** Stop after draining what is already queued. */
+    void stop(long timeoutMillis) throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join(timeoutMillis);
+        }
+    }
+
+    @Override
+    public void run() {
+        Batch batch = new Batch();
+        boolean retry = false;
+        while (running || !changes.isEmpty() || !batch.isEmpty()) {
+            if (!retry) {
+                Change change;
+                while (batch.changes < batchSize && (change = changes.poll()) != null) {
+                    batch.add(change);
+                }
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                persist(batch, retry);
+                batch = new Batch();
+                retry = false;
+            } catch (RuntimeException e) {
+                log.warn("Persisting {} ledger changes failed, retrying: {}", batch.changes, e.getMessage());
+                retry = true;
+                if (!running) {
+                    log.error("Ledger engine stopped with {} changes not persisted", batch.changes + changes.size());
+                    return;
+                }
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * Write the batch, falling back to one transaction row at a time if it
+     * violates a constraint, then record the batch's idempotency keys.
+     */
+    private void persist(Batch batch, boolean retry) {
+        try {
+            write(batch.balances, batch.transactions, retry);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Persisting {} ledger changes failed, writing transactions one at a time: {}",
+                    batch.changes, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            write(batch.balances, List.of(), retry);
+            batch.transactions.forEach(transaction -> writeOne(transaction, retry));
+        }
+        saveKeys(batch.keys);
+    }
+
+    private void writeOne(Transaction transaction, boolean retry) {
+        try {
+            write(Map.of(), List.of(transaction), retry);
+        } catch (DataIntegrityViolationException e) {
+            dropped.increment();
+            log.error("Dropping ledger transaction {} that cannot be stored ({} -> {}, {} {}, {}, {}): {}",
+                    transaction.getTransactionId(), transaction.getFromAccountNumber(),
+                    transaction.getToAccountNumber(), transaction.getAmount(), transaction.getCurrency(),
+                    transaction.getStatus(), transaction.getTransactionDate(),
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    /**
+     * Write the latest balances, the new transaction rows and their
+     * activity in one database transaction.
+     */
+    private void write(Map<String, Long> balances, List<Transaction> transactions, boolean retry) {
+        persistTimer.record(() -> transactionOperations.executeWithoutResult(status -> {
+            if (!balances.isEmpty()) {
+                List<Account> accounts = accountRepository.findAllByAccountNumberInForUpdate(
+                        new ArrayList<>(balances.keySet()));
+                for (Account account : accounts) {
+                    account.setBalance(Money.ofMinor(balances.get(account.getAccountNumber()),
+                            account.getBalance().getCurrency()));
+                }
+                accountCache.refreshOnCommit(accounts);
+            }
+
+            // Fresh copies: the originals were handed to clients and must not get ids mid-serialisation
+            List<Transaction> rows = new ArrayList<>(transactions.size());
+            transactions.forEach(transaction -> rows.add(copyOf(transaction)));
+            if (retry) {
+                Set<String> existing = transactionRepository.findExistingTransactionIds(
+                        rows.stream().map(Transaction::getTransactionId).toList());
+                rows.removeIf(row -> existing.contains(row.getTransactionId()));
+            }
+            transactionRepository.saveAll(rows);
+
+            AccountActivityService.Changes activity = new AccountActivityService.Changes();
+            rows.stream()
+                    .filter(row -> "SUCCESS".equals(row.getStatus()))
+                    .forEach(activity::add);
+            accountActivity.apply(activity);
+        }));
+    }
+
+    /**
+     * Keys are best effort: the transfers already happened, so a key that
+     * cannot be stored is logged and dropped rather than blocking the ledger.
+     * A duplicate means two requests reused one key for transfers from
+     * different accounts; the first one stored wins.
+     */
+    private void saveKeys(List<Keyed> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            transactionOperations.executeWithoutResult(status ->
+                    keys.forEach(keyed -> idempotencyStore.save(keyed.idempotency(), keyed.transaction())));
+        } catch (DataIntegrityViolationException e) {
+            keys.forEach(this::saveKey);
+        } catch (RuntimeException e) {
+            log.warn("Could not record {} idempotency keys: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private void saveKey(Keyed keyed) {
+        try {
+            transactionOperations.executeWithoutResult(status ->
+                    idempotencyStore.save(keyed.idempotency(), keyed.transaction()));
+        } catch (RuntimeException e) {
+            log.warn("Could not record Idempotency-Key {}: {}", keyed.idempotency().key(), e.getMessage());
+        }
+    }
+
+    private static Transaction copyOf(Transaction transaction) {
+        return new Transaction(null, transaction.getTransactionId(), transaction.getFromAccountNumber(),
+                transaction.getToAccountNumber(), transaction.getAmount(), transaction.getCurrency(),
+                transaction.getStatus(), transaction.getDescription(), transaction.getFailureReason(),
+                transaction.getTransactionDate());
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
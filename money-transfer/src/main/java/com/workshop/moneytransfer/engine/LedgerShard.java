@@ -0,0 +1,429 @@
+package com.workshop.moneytransfer.engine;
+
+import com.workshop.moneytransfer.exception.AccountInactiveException;
+import com.workshop.moneytransfer.exception.AccountNotFoundException;
+import com.workshop.moneytransfer.exception.IdempotencyKeyReusedException;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.service.IdempotencyStore;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * One single-threaded partition of the in-memory ledger.
+ *
+ * The shard's thread is the only writer of the balances it owns, so a
+ * transfer between two of its accounts needs no locks at all. A transfer
+ * whose destination lives on another shard is debited here and handed over
+ * as a {@link LedgerCommand.Credit}; if the destination rejects it, the
+ * amount comes back as a {@link LedgerCommand.Refund}. Hand-overs use an
+ * unbounded queue so that two shards with full rings can never block on
+ * each other. While the persister is too far behind, the shard holds back
+ * new transfers rather than blocking inside it, and skips those whose
+ * callers give up meanwhile.
+ */
+@Slf4j
+final class LedgerShard implements Runnable {
+
+    private static final int SPIN_LIMIT = 100;
+    private static final int YIELD_LIMIT = 200;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    /** In-memory state of one account; written only by the owning shard. */
+    static final class Balance {
+
+        final String accountNumber;
+        final Currency currency;
+        volatile long minorUnits;
+        volatile String status;
+
+        Balance(Account account) {
+            this.accountNumber = account.getAccountNumber();
+            this.currency = account.getBalance().getCurrency();
+            this.minorUnits = account.getBalance().getMinorUnits();
+            this.status = account.getStatus();
+        }
+
+        Money money() {
+            return Money.ofMinor(minorUnits, currency);
+        }
+    }
+
+    private record Tracked(String requestHash, CompletableFuture<Transaction> result) {
+    }
+
+    private final int index;
+    private final Function<String, Optional<Account>> loader;
+    private final LedgerPersister persister;
+    private final Counter crossShardTransfers;
+    private final Counter persisterBehind;
+    private final MpscRingBuffer<LedgerCommand> commands;
+    private final Queue<LedgerCommand> handoffs = new ConcurrentLinkedQueue<>();
+    private final Map<String, Balance> balances = new ConcurrentHashMap<>();
+    private final Map<String, Tracked> recentKeys = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Tracked> eldest) {
+            return size() > MAX_TRACKED_KEYS;
+        }
+    };
+    private LedgerShard[] shards;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private Thread thread;
+
+    LedgerShard(int index, int ringSize, Function<String, Optional<Account>> loader,
+                LedgerPersister persister, Counter crossShardTransfers, Counter persisterBehind) {
+        this.index = index;
+        this.loader = loader;
+        this.persister = persister;
+        this.crossShardTransfers = crossShardTransfers;
+        this.persisterBehind = persisterBehind;
+        this.commands = new MpscRingBuffer<>(ringSize);
+    }
+
+    static int shardOf(String accountNumber, int shardCount) {
+        return Math.floorMod(accountNumber.hashCode(), shardCount);
+    }
+
+    void start(LedgerShard[] allShards) {
+        this.shards = allShards;
+        thread = new Thread(this, "ledger-shard-" + index);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stop after draining what is already queued. */
+    void stop(long timeoutMillis) throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(timeoutMillis);
+        }
+    }
+
+    /** Queue a command from outside the engine, waiting while the ring is full. */
+    void submit(LedgerCommand command) {
+        while (!commands.offer(command)) {
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        }
+        wake();
+    }
+
+    /**
+     * Queue a command from outside the engine, waiting while the ring is
+     * full but no later than the deadline ({@link System#nanoTime()}).
+     * Returns false if the command was not queued.
+     */
+    boolean submit(LedgerCommand command, long deadlineNanos) {
+        while (!commands.offer(command)) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        }
+        wake();
+        return true;
+    }
+
+    /** Queue a step of a cross-shard transfer from another shard; never blocks. */
+    private void handOff(LedgerCommand command) {
+        handoffs.add(command);
+        wake();
+    }
+
+    private void wake() {
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    int queueDepth() {
+        return commands.size() + handoffs.size();
+    }
+
+    /** Current balance if this shard has loaded the account. Safe from any thread. */
+    Optional<Balance> peek(String accountNumber) {
+        return Optional.ofNullable(balances.get(accountNumber));
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (running || !handoffs.isEmpty() || !commands.isEmpty()) {
+            LedgerCommand command = handoffs.poll();
+            if (command == null) {
+                command = commands.poll();
+            }
+            if (command == null) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            try {
+                handle(command);
+            } catch (RuntimeException e) {
+                log.error("Ledger shard {} failed to process {}", index, command.getClass().getSimpleName(), e);
+                fail(command, e);
+            }
+        }
+    }
+
+    /**
+     * Spin, then yield, then park until a producer wakes the shard. The
+     * flag is set before the queues are checked again, so a command offered
+     * concurrently either is seen here or sees the flag and unparks.
+     */
+    private int idle(int idle) {
+        if (idle < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else if (idle < YIELD_LIMIT) {
+            Thread.yield();
+        } else {
+            parked = true;
+            if (running && handoffs.isEmpty() && commands.isEmpty()) {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            parked = false;
+        }
+        return idle + 1;
+    }
+
+    private void handle(LedgerCommand command) {
+        if (command instanceof LedgerCommand.Transfer transfer) {
+            transfer(transfer);
+        } else if (command instanceof LedgerCommand.Credit credit) {
+            credit(credit);
+        } else if (command instanceof LedgerCommand.Refund refund) {
+            refund(refund);
+        } else if (command instanceof LedgerCommand.StatusChange change) {
+            peek(change.accountNumber()).ifPresent(balance -> balance.status = change.status());
+            change.done().complete(null);
+        }
+    }
+
+    private static void fail(LedgerCommand command, RuntimeException e) {
+        if (command instanceof LedgerCommand.Transfer transfer) {
+            transfer.result().completeExceptionally(e);
+        } else if (command instanceof LedgerCommand.Credit credit) {
+            credit.transfer().result().completeExceptionally(e);
+        } else if (command instanceof LedgerCommand.Refund refund) {
+            refund.transfer().result().completeExceptionally(e);
+        } else if (command instanceof LedgerCommand.StatusChange change) {
+            change.done().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Step 1 on the source shard: validate, check funds and debit. A
+     * same-shard transfer completes here; otherwise the credit is handed to
+     * the destination's shard.
+     */
+    private void transfer(LedgerCommand.Transfer transfer) {
+        if (!persisterCaughtUp(transfer.result()) || !transfer.result().start()) {
+            return; // withdrawn by a caller that stopped waiting
+        }
+        if (transfer.idempotency() != null && joinedInFlight(transfer)) {
+            return;
+        }
+
+        Balance from = account(transfer.fromAccountNumber());
+        if (from == null) {
+            transfer.result().completeExceptionally(new AccountNotFoundException(
+                    "Source account not found: " + transfer.fromAccountNumber()));
+            return;
+        }
+        if (!"ACTIVE".equals(from.status)) {
+            transfer.result().completeExceptionally(
+                    new AccountInactiveException("Source account is not active"));
+            return;
+        }
+        Money amount = transfer.amount();
+        if (!amount.isPositive()) {
+            transfer.result().completeExceptionally(
+                    new IllegalArgumentException("Transfer amount must be positive"));
+            return;
+        }
+        if (!from.currency.equals(amount.getCurrency())) {
+            transfer.result().completeExceptionally(new IllegalArgumentException(
+                    "Transfer currency " + amount.getCurrency() + " does not match account currency " + from.currency));
+            return;
+        }
+
+        LedgerShard destinationShard = shards[shardOf(transfer.toAccountNumber(), shards.length)];
+        Balance to = null;
+        if (destinationShard == this) {
+            to = account(transfer.toAccountNumber());
+            RuntimeException rejected = rejectCredit(to, transfer);
+            if (rejected == null && to != from && to.minorUnits > Long.MAX_VALUE - amount.getMinorUnits()) {
+                rejected = new IllegalArgumentException("Destination balance would overflow");
+            }
+            if (rejected != null) {
+                transfer.result().completeExceptionally(rejected);
+                return;
+            }
+        }
+
+        if (from.minorUnits < amount.getMinorUnits()) {
+            String reason = String.format("Insufficient funds in account %s. Balance: %s, Required: %s",
+                    from.accountNumber, from.money(), amount);
+            Transaction failed = transaction(transfer, "FAILED", reason);
+            persister.record(LedgerPersister.Change.transaction(failed, null));
+            transfer.result().complete(failed);
+            return;
+        }
+
+        from.minorUnits -= amount.getMinorUnits();
+        persister.record(LedgerPersister.Change.balance(from));
+        Transaction transaction = transaction(transfer, "SUCCESS", null);
+
+        if (to != null) {
+            to.minorUnits += amount.getMinorUnits();
+            persister.record(LedgerPersister.Change.balance(to));
+            persister.record(LedgerPersister.Change.transaction(transaction, transfer.idempotency()));
+            transfer.result().complete(transaction);
+        } else {
+            crossShardTransfers.increment();
+            destinationShard.handOff(new LedgerCommand.Credit(transfer, transaction));
+        }
+    }
+
+    /**
+     * Wait while the persister is too far behind, so that the changes of a
+     * transfer started now always fit. False if the caller withdrew the
+     * transfer meanwhile, which bounds the wait by the engine timeout.
+     */
+    private boolean persisterCaughtUp(PendingTransfer result) {
+        if (!persister.isBehind()) {
+            return true;
+        }
+        persisterBehind.increment();
+        while (persister.isBehind()) {
+            if (result.isCancelled()) {
+                return false;
+            }
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /** Step 2 of a cross-shard transfer, on the destination's shard. */
+    private void credit(LedgerCommand.Credit credit) {
+        LedgerCommand.Transfer transfer = credit.transfer();
+        Balance to = account(transfer.toAccountNumber());
+        RuntimeException rejected = rejectCredit(to, transfer);
+        if (rejected == null) {
+            try {
+                to.minorUnits = Math.addExact(to.minorUnits, transfer.amount().getMinorUnits());
+            } catch (ArithmeticException e) {
+                rejected = new IllegalArgumentException("Destination balance would overflow", e);
+            }
+        }
+        if (rejected != null) {
+            shards[shardOf(transfer.fromAccountNumber(), shards.length)]
+                    .handOff(new LedgerCommand.Refund(transfer, rejected));
+            return;
+        }
+        persister.record(LedgerPersister.Change.balance(to));
+        persister.record(LedgerPersister.Change.transaction(credit.transaction(), transfer.idempotency()));
+        transfer.result().complete(credit.transaction());
+    }
+
+    /** The destination rejected the credit: undo the debit on the source shard. */
+    private void refund(LedgerCommand.Refund refund) {
+        LedgerCommand.Transfer transfer = refund.transfer();
+        Balance from = balances.get(transfer.fromAccountNumber());
+        from.minorUnits += transfer.amount().getMinorUnits();
+        persister.record(LedgerPersister.Change.balance(from));
+        transfer.result().completeExceptionally(refund.reason());
+    }
+
+    private static RuntimeException rejectCredit(Balance to, LedgerCommand.Transfer transfer) {
+        if (to == null) {
+            return new AccountNotFoundException("Destination account not found: " + transfer.toAccountNumber());
+        }
+        if (!"ACTIVE".equals(to.status)) {
+            return new AccountInactiveException("Destination account is not active");
+        }
+        if (!to.currency.equals(transfer.amount().getCurrency())) {
+            return new IllegalArgumentException("Transfer currency " + transfer.amount().getCurrency()
+                    + " does not match account currency " + to.currency);
+        }
+        return null;
+    }
+
+    /**
+     * Transfers with the same Idempotency-Key always start on the same
+     * shard (keys are scoped to their source account here), so a retry that
+     * arrives before the first attempt is persisted shares its outcome
+     * instead of moving the money twice. Failed attempts may be retried,
+     * as in the database engine.
+     */
+    private boolean joinedInFlight(LedgerCommand.Transfer transfer) {
+        IdempotencyStore.Request idempotency = transfer.idempotency();
+        Tracked tracked = recentKeys.get(idempotency.key());
+        if (tracked == null || failed(tracked.result())) {
+            recentKeys.put(idempotency.key(), new Tracked(idempotency.requestHash(), transfer.result()));
+            return false;
+        }
+        if (!tracked.requestHash().equals(idempotency.requestHash())) {
+            transfer.result().completeExceptionally(new IdempotencyKeyReusedException(
+                    "Idempotency-Key " + idempotency.key() + " was already used for a different transfer"));
+            return true;
+        }
+        tracked.result().whenComplete((transaction, error) -> {
+            if (error != null) {
+                transfer.result().completeExceptionally(error);
+            } else {
+                transfer.result().complete(transaction);
+            }
+        });
+        return true;
+    }
+
+    private static boolean failed(CompletableFuture<Transaction> result) {
+        return result.isCompletedExceptionally()
+                || (result.isDone() && "FAILED".equals(result.join().getStatus()));
+    }
+
+    /** The owned balance, loading it from the database on first use. */
+    private Balance account(String accountNumber) {
+        Balance balance = balances.get(accountNumber);
+        if (balance == null) {
+            balance = loader.apply(accountNumber).map(Balance::new).orElse(null);
+            if (balance != null) {
+                balances.put(accountNumber, balance);
+            }
+        }
+        return balance;
+    }
+
+    private static Transaction transaction(LedgerCommand.Transfer transfer, String status, String failureReason) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transfer.result().transactionId());
+        transaction.setFromAccountNumber(transfer.fromAccountNumber());
+        transaction.setToAccountNumber(transfer.toAccountNumber());
+        transaction.setAmount(transfer.amount());
+        transaction.setCurrency(transfer.amount().getCurrency().getCurrencyCode());
+        transaction.setDescription(transfer.description());
+        transaction.setStatus(status);
+        transaction.setFailureReason(failureReason);
+        transaction.setTransactionDate(LocalDateTime.now());
+        return transaction;
+    }
+}
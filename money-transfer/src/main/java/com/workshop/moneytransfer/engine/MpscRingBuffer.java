@@ -0,0 +1,82 @@
+package com.workshop.moneytransfer.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and exactly one consumer.
+ *
+ * Each slot carries a sequence number (Vyukov's bounded queue): a producer
+ * claims a slot by CAS on the tail, writes the element and then publishes
+ * it by advancing the slot's sequence; the consumer takes a slot only once
+ * its sequence shows it published, and frees it for the next lap.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    MpscRingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** Enqueue, or return false if the buffer is full. Safe from any thread. */
+    boolean offer(E element) {
+        long claimed;
+        int index;
+        while (true) {
+            claimed = tail.get();
+            index = (int) claimed & mask;
+            long available = sequences.get(index) - claimed;
+            if (available == 0) {
+                if (tail.compareAndSet(claimed, claimed + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                return false;
+            }
+            // else another producer claimed this slot first; reload the tail
+        }
+        slots.lazySet(index, element);
+        sequences.set(index, claimed + 1);
+        return true;
+    }
+
+    /** Dequeue the next published element, or null. Consumer thread only. */
+    E poll() {
+        long next = head;
+        int index = (int) next & mask;
+        if (sequences.get(index) != next + 1) {
+            return null;
+        }
+        E element = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, next + capacity);
+        head = next + 1;
+        return element;
+    }
+
+    /** Approximate number of queued elements. */
+    int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,40 @@
+package com.workshop.moneytransfer.engine;
+
+import com.workshop.moneytransfer.model.Transaction;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Result of a transfer submitted to the {@link ShardedLedgerEngine}. Until
+ * the source shard starts executing it, the transfer can be withdrawn;
+ * once started it always runs to completion. The id of the transaction it
+ * records is fixed at submission.
+ */
+public final class PendingTransfer extends CompletableFuture<Transaction> {
+
+    private final String transactionId = UUID.randomUUID().toString();
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    PendingTransfer() {
+    }
+
+    public String transactionId() {
+        return transactionId;
+    }
+
+    /** Called by the source shard before executing; false if the transfer was withdrawn. */
+    boolean start() {
+        return claimed.compareAndSet(false, true);
+    }
+
+    /** Withdraw the transfer unless its shard has already started it. */
+    boolean withdraw() {
+        if (!claimed.compareAndSet(false, true)) {
+            return false;
+        }
+        cancel(false);
+        return true;
+    }
+}
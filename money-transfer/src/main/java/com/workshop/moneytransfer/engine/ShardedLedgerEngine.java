@@ -0,0 +1,302 @@
+package com.workshop.moneytransfer.engine;
+
+import com.workshop.moneytransfer.exception.InsufficientFundsException;
+import com.workshop.moneytransfer.exception.LockTimeoutException;
+import com.workshop.moneytransfer.exception.TransferPendingException;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import com.workshop.moneytransfer.service.AccountActivityService;
+import com.workshop.moneytransfer.service.AccountCache;
+import com.workshop.moneytransfer.service.IdempotencyStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transfer engine that keeps balances in memory, partitioned over
+ * single-threaded {@link LedgerShard}s ({@code money.transfer.engine.type=sharded}).
+ *
+ * Every account is owned by exactly one shard (by account number hash),
+ * and only that shard's thread changes its balance, so transfers need no
+ * locks and no database round trip. Requests reach a shard through a
+ * bounded lock-free ring; callers wait while it is full, for at most the
+ * engine timeout. A cross-shard
+ * transfer runs as two deterministic steps: debit on the source's shard,
+ * then credit on the destination's, with a refund to the source if the
+ * destination rejects it.
+ *
+ * The in-memory balances are authoritative while the engine runs. The
+ * {@link LedgerPersister} writes them and the transaction rows to the
+ * database asynchronously in batches, so reads from the tables lag slightly
+ * behind, and a crash loses whatever was not yet persisted. Accounts are
+ * loaded from the database the first time a shard sees them.
+ */
+@Component
+@Slf4j
+public class ShardedLedgerEngine implements SmartLifecycle {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionOperations transactionOperations;
+    private final IdempotencyStore idempotencyStore;
+    private final AccountCache accountCache;
+    private final AccountActivityService accountActivity;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int shardCount;
+    private final int ringSize;
+    private final int persistBatchSize;
+    private final Duration timeout;
+
+    private final AtomicLong inFlight = new AtomicLong();
+    private LedgerShard[] shards;
+    private LedgerPersister persister;
+    private volatile boolean running;
+
+    public ShardedLedgerEngine(AccountRepository accountRepository,
+                               TransactionRepository transactionRepository,
+                               TransactionOperations transactionOperations,
+                               IdempotencyStore idempotencyStore,
+                               AccountCache accountCache,
+                               AccountActivityService accountActivity,
+                               MeterRegistry registry,
+                               @Value("${money.transfer.engine.type:database}") EngineType type,
+                               @Value("${money.transfer.engine.shards:0}") int shards,
+                               @Value("${money.transfer.engine.ring-size:65536}") int ringSize,
+                               @Value("${money.transfer.engine.persist.batch-size:1000}") int persistBatchSize,
+                               @Value("${money.transfer.engine.timeout:5s}") Duration timeout) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionOperations = transactionOperations;
+        this.idempotencyStore = idempotencyStore;
+        this.accountCache = accountCache;
+        this.accountActivity = accountActivity;
+        this.registry = registry;
+        this.enabled = type == EngineType.SHARDED;
+        this.shardCount = shards > 0 ? shards : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.ringSize = ringSize;
+        this.persistBatchSize = persistBatchSize;
+        this.timeout = timeout;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a transfer on the source account's shard. The future completes
+     * with the SUCCESS transaction, with a FAILED one for insufficient funds
+     * (as batch transfers report it), or exceptionally if the transfer was
+     * rejected. Throws {@link LockTimeoutException} if the shard's ring
+     * stays full for the whole engine timeout.
+     */
+    public PendingTransfer submit(String fromAccountNumber, String toAccountNumber,
+                                                 Money amount, String description,
+                                                 IdempotencyStore.Request idempotency) {
+        if (!running) {
+            throw new IllegalStateException("Ledger engine is not running");
+        }
+        PendingTransfer result = new PendingTransfer();
+        inFlight.incrementAndGet();
+        if (!shardOf(fromAccountNumber).submit(new LedgerCommand.Transfer(
+                fromAccountNumber, toAccountNumber, amount, description, idempotency, result),
+                System.nanoTime() + timeout.toNanos())) {
+            inFlight.decrementAndGet();
+            throw new LockTimeoutException("Ledger shard queue stayed full for " + timeout.toMillis()
+                    + " ms; the transfer was not executed");
+        }
+        result.whenComplete((transaction, error) -> inFlight.decrementAndGet());
+        return result;
+    }
+
+    /**
+     * Execute a transfer and wait for it; same contract as the database
+     * engine, including {@link InsufficientFundsException}.
+     */
+    public Transaction transfer(String fromAccountNumber, String toAccountNumber,
+                                Money amount, String description, IdempotencyStore.Request idempotency) {
+        Transaction transaction = await(submit(fromAccountNumber, toAccountNumber, amount, description, idempotency));
+        if ("FAILED".equals(transaction.getStatus())) {
+            throw new InsufficientFundsException(transaction.getFailureReason());
+        }
+        return transaction;
+    }
+
+    /**
+     * Wait for a submitted transfer, rethrowing the reason it was rejected.
+     * A transfer still queued when the wait ends is withdrawn and reported
+     * as a {@link LockTimeoutException}; one its shard already started will
+     * complete regardless, so it is reported as a
+     * {@link TransferPendingException} with its transaction id.
+     */
+    public Transaction await(PendingTransfer result) {
+        try {
+            return outcome(result, timeout.toMillis());
+        } catch (TimeoutException e) {
+            return abandon(result, "Timed out waiting for the ledger after " + timeout.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return abandon(result, "Interrupted while waiting for the ledger");
+        }
+    }
+
+    private Transaction abandon(PendingTransfer result, String reason) {
+        if (result.withdraw()) {
+            throw new LockTimeoutException(reason + "; the transfer was not executed");
+        }
+        if (!result.isDone()) {
+            throw new TransferPendingException(result.transactionId(),
+                    reason + "; transfer " + result.transactionId() + " is still being executed");
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw failure(e.getCause());
+        }
+    }
+
+    private static Transaction outcome(PendingTransfer result, long timeoutMillis)
+            throws TimeoutException, InterruptedException {
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw failure(e.getCause());
+        }
+    }
+
+    private static RuntimeException failure(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException("Transfer failed", cause);
+    }
+
+    /**
+     * The account with its live in-memory balance and status, if the engine
+     * owns it; otherwise the account unchanged.
+     */
+    public Account withLiveBalance(Account account) {
+        if (!running) {
+            return account;
+        }
+        return shardOf(account.getAccountNumber()).peek(account.getAccountNumber())
+                .map(balance -> {
+                    Account live = account.snapshot();
+                    live.setBalance(balance.money());
+                    live.setStatus(balance.status);
+                    return live;
+                })
+                .orElse(account);
+    }
+
+    /** Apply a committed status change to the in-memory copy of the account. */
+    public void updateStatus(String accountNumber, String status) {
+        if (!running) {
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        shardOf(accountNumber).submit(new LedgerCommand.StatusChange(accountNumber, status, done));
+        done.join();
+    }
+
+    private LedgerShard shardOf(String accountNumber) {
+        return shards[LedgerShard.shardOf(accountNumber, shards.length)];
+    }
+
+    private Optional<Account> load(String accountNumber) {
+        return transactionOperations.execute(status -> accountRepository.findByAccountNumber(accountNumber));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        Timer persistTimer = Timer.builder("money.transfer.engine.persist")
+                .description("Time to write one batch of ledger changes to the database")
+                .register(registry);
+        Counter crossShard = Counter.builder("money.transfer.engine.cross.shard")
+                .description("Transfers whose accounts are owned by different shards")
+                .register(registry);
+        Counter persisterBehind = Counter.builder("money.transfer.engine.persist.behind")
+                .description("Transfers held back on a shard because the persister was too far behind")
+                .register(registry);
+        Counter persistDropped = Counter.builder("money.transfer.engine.persist.dropped")
+                .description("Transaction rows dropped because they violate a database constraint")
+                .register(registry);
+        persister = new LedgerPersister(accountRepository, transactionRepository, transactionOperations,
+                idempotencyStore, accountCache, accountActivity, ringSize * 4, persistBatchSize, persistTimer,
+                persistDropped);
+        Gauge.builder("money.transfer.engine.persist.backlog", persister, LedgerPersister::backlog)
+                .description("Ledger changes not yet written to the database")
+                .register(registry);
+
+        shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, ringSize, this::load, persister, crossShard, persisterBehind);
+            Gauge.builder("money.transfer.engine.queue.depth", shards[i], LedgerShard::queueDepth)
+                    .description("Commands waiting for a ledger shard")
+                    .tag("shard", Integer.toString(i))
+                    .register(registry);
+        }
+        persister.start();
+        for (LedgerShard shard : shards) {
+            shard.start(shards);
+        }
+        running = true;
+        log.info("Sharded ledger engine started with {} shards", shardCount);
+    }
+
+    /**
+     * Stop taking transfers, let those in flight finish (cross-shard credits
+     * and refunds included), then drain the shards and the persister.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+            for (LedgerShard shard : shards) {
+                shard.stop(timeout.toMillis());
+            }
+            persister.stop(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Sharded ledger engine stopped, {} ledger changes not persisted", persister.backlog());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.workshop.moneytransfer.exception;
+
+/**
+ * A transfer touched an account whose status is not ACTIVE. Still an
+ * {@link IllegalStateException}, so it is reported as INVALID_STATE.
+ */
+public class AccountInactiveException extends IllegalStateException {
+
+    public AccountInactiveException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.workshop.moneytransfer.exception;
+
+public class ConcurrentUpdateException extends RuntimeException {
+
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+
+    public ConcurrentUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
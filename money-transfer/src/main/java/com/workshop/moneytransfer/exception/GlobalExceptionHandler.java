@@ -2,6 +2,7 @@ package com.workshop.moneytransfer.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -33,6 +34,48 @@ public class GlobalExceptionHandler {
                 "INSUFFICIENT_FUNDS");
     }
 
+    @ExceptionHandler(LockTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleLockTimeout(
+            LockTimeoutException ex) {
+
+        return buildErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage(),
+                "LOCK_TIMEOUT");
+    }
+
+    @ExceptionHandler(TransferPendingException.class)
+    public ResponseEntity<Map<String, Object>> handleTransferPending(
+            TransferPendingException ex) {
+
+        ResponseEntity<Map<String, Object>> response = buildErrorResponse(
+                HttpStatus.ACCEPTED,
+                ex.getMessage(),
+                "TRANSFER_PENDING");
+        response.getBody().put("transactionId", ex.getTransactionId());
+        return response;
+    }
+
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<Map<String, Object>> handleConcurrentUpdate(
+            ConcurrentUpdateException ex) {
+
+        return buildErrorResponse(
+                HttpStatus.CONFLICT,
+                ex.getMessage(),
+                "CONCURRENT_UPDATE");
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyReused(
+            IdempotencyKeyReusedException ex) {
+
+        return buildErrorResponse(
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                ex.getMessage(),
+                "IDEMPOTENCY_KEY_REUSED");
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, Object>> handleIllegalArgument(
             IllegalArgumentException ex) {
@@ -53,6 +96,17 @@ public class GlobalExceptionHandler {
                 "INVALID_STATE");
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnreadableMessage(
+            HttpMessageNotReadableException ex) {
+
+        // e.g. an amount with more decimal places than the currency allows
+        return buildErrorResponse(
+                HttpStatus.BAD_REQUEST,
+                ex.getMostSpecificCause().getMessage(),
+                "INVALID_REQUEST");
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationErrors(
             MethodArgumentNotValidException ex) {
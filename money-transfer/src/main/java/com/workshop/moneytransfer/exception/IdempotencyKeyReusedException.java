@@ -0,0 +1,8 @@
+package com.workshop.moneytransfer.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.workshop.moneytransfer.exception;
+
+public class LockTimeoutException extends RuntimeException {
+
+    public LockTimeoutException(String message) {
+        super(message);
+    }
+
+    public LockTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
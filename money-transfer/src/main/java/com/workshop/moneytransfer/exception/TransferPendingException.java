@@ -0,0 +1,19 @@
+package com.workshop.moneytransfer.exception;
+
+/**
+ * The caller stopped waiting for a transfer that has already started and
+ * will still complete; its outcome is not known yet.
+ */
+public class TransferPendingException extends RuntimeException {
+
+    private final String transactionId;
+
+    public TransferPendingException(String transactionId, String message) {
+        super(message);
+        this.transactionId = transactionId;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+}
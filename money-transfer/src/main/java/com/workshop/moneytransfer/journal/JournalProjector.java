@@ -0,0 +1,127 @@
+package com.workshop.moneytransfer.journal;
+
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Background thread that materialises committed journal entries into the
+ * {@code transactions} table in batches. Inserts are idempotent by
+ * transaction id, so entries replayed after a crash can be projected again.
+ */
+@Slf4j
+final class JournalProjector implements Runnable {
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    /** A committed entry; {@code replayed} entries may already have been projected before a crash. */
+    record Pending(long seq, Transaction transaction, boolean replayed) {
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionOperations transactionOperations;
+    private final int batchSize;
+    private final Consumer<List<Pending>> onProjected;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    JournalProjector(TransactionRepository transactionRepository, TransactionOperations transactionOperations,
+                     int batchSize, Consumer<List<Pending>> onProjected) {
+        this.transactionRepository = transactionRepository;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = batchSize;
+        this.onProjected = onProjected;
+    }
+
+    void start() {
+        thread = new Thread(this, "journal-projector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void enqueue(long seq, Transaction transaction, boolean replayed) {
+        queue.add(new Pending(seq, transaction, replayed));
+    }
+
+    int backlog() {
+        return queue.size();
+    }
+
+    /** Stop after draining what is already queued. */
+    void stop(long timeoutMillis) throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join(timeoutMillis);
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        boolean retry = false;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                project(batch, retry);
+                onProjected.accept(batch);
+                batch = new ArrayList<>(batchSize);
+                retry = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Projecting {} journal entries failed, retrying: {}", batch.size(), e.getMessage());
+                retry = true;
+                if (!running) {
+                    // Left for replay on the next start
+                    return;
+                }
+                sleepQuietly();
+            }
+        }
+    }
+
+    /**
+     * Insert the batch in one transaction. Replayed or retried entries are
+     * checked against existing transaction ids first.
+     */
+    private void project(List<Pending> batch, boolean retry) {
+        transactionOperations.executeWithoutResult(status -> {
+            List<Transaction> rows = batch.stream().map(Pending::transaction).collect(Collectors.toList());
+            if (retry || batch.stream().anyMatch(Pending::replayed)) {
+                // A rolled back attempt may have left generated ids behind
+                rows.forEach(row -> row.setId(null));
+                Set<String> existing = transactionRepository.findExistingTransactionIds(
+                        rows.stream().map(Transaction::getTransactionId).toList());
+                rows.removeIf(row -> existing.contains(row.getTransactionId()));
+            }
+            transactionRepository.saveAll(rows);
+        });
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.workshop.moneytransfer.journal;
+
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of one journal record:
+ *
+ * <pre>
+ * int  length   total record length, header included (0 = end of segment)
+ * int  crc      CRC32C of everything after this field
+ * byte type     ENTRY, COMMIT or ABORT
+ * long seq      record sequence number
+ * ...  payload  ENTRY: the transfer record; COMMIT/ABORT: seq of the entry
+ * </pre>
+ *
+ * A record with a bad length or checksum marks a torn write at the tail of
+ * the journal; reading stops there.
+ */
+final class JournalRecord {
+
+    static final byte ENTRY = 1;
+    static final byte COMMIT = 2;
+    static final byte ABORT = 3;
+
+    static final int HEADER_SIZE = 4 + 4 + 1 + 8;
+
+    final byte type;
+    final long seq;
+    /** The transfer record for ENTRY, null otherwise. */
+    final Transaction transaction;
+    /** The entry a COMMIT/ABORT refers to. */
+    final long entrySeq;
+
+    private JournalRecord(byte type, long seq, Transaction transaction, long entrySeq) {
+        this.type = type;
+        this.seq = seq;
+        this.transaction = transaction;
+        this.entrySeq = entrySeq;
+    }
+
+    static JournalRecord entry(long seq, Transaction transaction) {
+        return new JournalRecord(ENTRY, seq, transaction, seq);
+    }
+
+    static JournalRecord outcome(long seq, boolean committed, long entrySeq) {
+        return new JournalRecord(committed ? COMMIT : ABORT, seq, null, entrySeq);
+    }
+
+    /**
+     * Encode into {@code buffer} at its position; returns false (buffer
+     * position unchanged) if the record does not fit.
+     */
+    boolean writeTo(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return false;
+        }
+        try {
+            buffer.position(start + 8);
+            buffer.put(type);
+            buffer.putLong(seq);
+            if (type == ENTRY) {
+                putString(buffer, transaction.getTransactionId());
+                putString(buffer, transaction.getFromAccountNumber());
+                putString(buffer, transaction.getToAccountNumber());
+                buffer.putLong(transaction.getAmount().getMinorUnits());
+                putString(buffer, transaction.getCurrency());
+                putString(buffer, transaction.getStatus());
+                putString(buffer, transaction.getDescription());
+                putString(buffer, transaction.getFailureReason());
+                LocalDateTime date = transaction.getTransactionDate();
+                buffer.putLong(date.toEpochSecond(ZoneOffset.UTC));
+                buffer.putInt(date.getNano());
+            } else {
+                buffer.putLong(entrySeq);
+            }
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            return false;
+        }
+        int end = buffer.position();
+        buffer.putInt(start, end - start);
+        buffer.putInt(start + 4, checksum(buffer, start + 8, end));
+        return true;
+    }
+
+    /**
+     * Decode the record at the buffer's position and advance past it, or
+     * return null at the end of the written data (zero length, truncated
+     * or corrupt record).
+     */
+    static JournalRecord readFrom(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length < HEADER_SIZE || length > buffer.remaining()) {
+            return null;
+        }
+        if (buffer.getInt(start + 4) != checksum(buffer, start + 8, start + length)) {
+            return null;
+        }
+        try {
+            buffer.position(start + 8);
+            byte type = buffer.get();
+            long seq = buffer.getLong();
+            JournalRecord record;
+            if (type == ENTRY) {
+                Transaction transaction = new Transaction();
+                transaction.setTransactionId(getString(buffer));
+                transaction.setFromAccountNumber(getString(buffer));
+                transaction.setToAccountNumber(getString(buffer));
+                long amount = buffer.getLong();
+                transaction.setCurrency(getString(buffer));
+                transaction.setAmount(Money.ofMinor(amount, Currency.getInstance(transaction.getCurrency())));
+                transaction.setStatus(getString(buffer));
+                transaction.setDescription(getString(buffer));
+                transaction.setFailureReason(getString(buffer));
+                transaction.setTransactionDate(LocalDateTime.ofEpochSecond(
+                        buffer.getLong(), buffer.getInt(), ZoneOffset.UTC));
+                record = entry(seq, transaction);
+            } else if (type == COMMIT || type == ABORT) {
+                record = outcome(seq, type == COMMIT, buffer.getLong());
+            } else {
+                buffer.position(start);
+                return null;
+            }
+            buffer.position(start + length);
+            return record;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            buffer.position(start);
+            return null;
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int from, int to) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+package com.workshop.moneytransfer.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One fixed-size, memory-mapped journal file. Segments are named after the
+ * sequence number of their first record so they sort in journal order.
+ */
+final class JournalSegment {
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    final Path path;
+    final long firstSeq;
+    final MappedByteBuffer buffer;
+
+    private JournalSegment(Path path, long firstSeq, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSeq = firstSeq;
+        this.buffer = buffer;
+    }
+
+    /** Create and map a new zero-filled segment whose first record will be {@code firstSeq}. */
+    static JournalSegment create(Path dir, long firstSeq, int size) throws IOException {
+        Path path = dir.resolve(String.format("%s%020d%s", PREFIX, firstSeq, SUFFIX));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new JournalSegment(path, firstSeq, buffer);
+        }
+    }
+
+    /** Map an existing segment read-only for replay. */
+    static JournalSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new JournalSegment(path, parseFirstSeq(path), buffer);
+        }
+    }
+
+    /** Existing segment files in journal order. */
+    static List<Path> list(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(JournalSegment::parseFirstSeq))
+                    .toList();
+        }
+    }
+
+    static long parseFirstSeq(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /** Records in this segment up to the first empty or torn one. */
+    List<JournalRecord> readAll() {
+        ByteBuffer view = buffer.duplicate().position(0);
+        List<JournalRecord> records = new ArrayList<>();
+        JournalRecord record;
+        while ((record = JournalRecord.readFrom(view)) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    /** Flush written pages to disk (msync). */
+    void force() {
+        buffer.force();
+    }
+}
@@ -0,0 +1,460 @@
+package com.workshop.moneytransfer.journal;
+
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import com.workshop.moneytransfer.service.ConcurrencyMode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only, memory-mapped journal of transfer records.
+ *
+ * A transfer appends its record while still holding its account locks and
+ * waits until the record is on disk. One background flusher forces the
+ * mapped segment for everything appended so far, so concurrent transfers
+ * share a single fsync (group commit). Once the database transaction
+ * completes, a COMMIT or ABORT marker is appended and committed entries are
+ * handed to the {@link JournalProjector}, which inserts them into the
+ * {@code transactions} table in the background.
+ *
+ * On startup the journal is replayed from the last projection checkpoint.
+ * Entries without an outcome marker (crash between fsync and commit) are
+ * resolved against the source account's {@code lastJournalSeq}, which the
+ * transfer writes in the same database transaction.
+ *
+ * That resolution relies on the account locks: a later transfer from the
+ * same account cannot commit before this entry's marker is durable. Optimistic
+ * transfers take no locks, so the journal refuses to start with
+ * {@link ConcurrencyMode#OPTIMISTIC}.
+ */
+@Component
+@Slf4j
+public class TransferJournal implements SmartLifecycle {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final AccountRepository accountRepository;
+    private final TransactionOperations transactionOperations;
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentSize;
+    private final JournalProjector projector;
+    private final Timer fsyncTimer;
+    private final DistributionSummary groupSize;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Deque<JournalSegment> sealedSegments = new ArrayDeque<>();
+    private JournalSegment current;
+    private long nextSeq = 1;
+    private long lastAppendedSeq;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushRequested = flushLock.newCondition();
+    private final Condition flushed = flushLock.newCondition();
+    private long requestedSeq;
+    private volatile long durableSeq;
+    private Thread flusher;
+
+    /** Entries that are neither aborted nor projected yet. */
+    private final ConcurrentSkipListSet<Long> unresolved = new ConcurrentSkipListSet<>();
+    private volatile boolean running;
+
+    public TransferJournal(AccountRepository accountRepository,
+                           TransactionRepository transactionRepository,
+                           TransactionOperations transactionOperations,
+                           MeterRegistry registry,
+                           @Value("${money.transfer.journal.enabled:false}") boolean enabled,
+                           @Value("${money.transfer.concurrency-mode:pessimistic}") ConcurrencyMode concurrencyMode,
+                           @Value("${money.transfer.journal.dir:data/journal}") Path dir,
+                           @Value("${money.transfer.journal.segment-size:64MB}") DataSize segmentSize,
+                           @Value("${money.transfer.journal.projector.batch-size:500}") int projectorBatchSize) {
+        if (enabled && concurrencyMode == ConcurrencyMode.OPTIMISTIC) {
+            throw new IllegalStateException("money.transfer.journal.enabled=true requires "
+                    + "money.transfer.concurrency-mode=pessimistic: in-doubt journal entries are "
+                    + "resolved assuming transfers from an account commit in order");
+        }
+        this.accountRepository = accountRepository;
+        this.transactionOperations = transactionOperations;
+        this.enabled = enabled;
+        this.dir = dir;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.projector = new JournalProjector(transactionRepository, transactionOperations,
+                projectorBatchSize, this::projected);
+        this.fsyncTimer = Timer.builder("money.transfer.journal.fsync")
+                .description("Time to force a journal segment to disk")
+                .register(registry);
+        this.groupSize = DistributionSummary.builder("money.transfer.journal.group.size")
+                .description("Journal records made durable per fsync")
+                .register(registry);
+        Gauge.builder("money.transfer.journal.projector.backlog", projector, JournalProjector::backlog)
+                .description("Committed journal entries not yet in the transactions table")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append a transfer record and wait until it is durable. Must be called
+     * inside the transfer's database transaction with the source account
+     * row locked; the outcome marker is written when that transaction ends.
+     */
+    public void append(Transaction transaction, Account sourceAccount) {
+        if (!running) {
+            throw new IllegalStateException("Transfer journal is not running");
+        }
+        if (transaction.getTransactionDate() == null) {
+            transaction.setTransactionDate(LocalDateTime.now());
+        }
+        Transaction record = copyOf(transaction);
+        long seq;
+        appendLock.lock();
+        try {
+            seq = nextSeq++;
+            write(JournalRecord.entry(seq, record));
+            unresolved.add(seq);
+        } finally {
+            appendLock.unlock();
+        }
+        sourceAccount.setLastJournalSeq(seq);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    resolve(seq, record, status == STATUS_COMMITTED, false);
+                }
+            });
+            awaitDurable(seq);
+        } else {
+            awaitDurable(seq);
+            resolve(seq, record, true, false);
+        }
+    }
+
+    /**
+     * Write the outcome marker (made durable by the next group commit) and
+     * hand committed entries to the projector.
+     */
+    private void resolve(long seq, Transaction record, boolean committed, boolean replayed) {
+        appendLock.lock();
+        try {
+            write(JournalRecord.outcome(nextSeq++, committed, seq));
+        } catch (RuntimeException e) {
+            log.error("Could not write journal outcome for entry {}: {}", seq, e.getMessage());
+        } finally {
+            appendLock.unlock();
+        }
+        if (committed) {
+            projector.enqueue(seq, record, replayed);
+        } else {
+            unresolved.remove(seq);
+        }
+    }
+
+    /** Guarded by appendLock. */
+    private void write(JournalRecord record) {
+        if (!record.writeTo(current.buffer)) {
+            roll(record.seq);
+            if (!record.writeTo(current.buffer)) {
+                throw new IllegalStateException("Journal record does not fit in a segment: " + record.seq);
+            }
+        }
+        lastAppendedSeq = record.seq;
+    }
+
+    /**
+     * Seal the current segment and continue in a new one. The sealed
+     * segment is forced here so the flusher only ever needs to force the
+     * current one.
+     */
+    private void roll(long firstSeq) {
+        current.force();
+        sealedSegments.addLast(current);
+        try {
+            current = JournalSegment.create(dir, firstSeq, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment", e);
+        }
+    }
+
+    private void awaitDurable(long seq) {
+        flushLock.lock();
+        try {
+            if (seq > requestedSeq) {
+                requestedSeq = seq;
+                flushRequested.signal();
+            }
+            while (durableSeq < seq) {
+                if (!flusher.isAlive()) {
+                    throw new IllegalStateException("Transfer journal stopped before entry " + seq + " was durable");
+                }
+                flushed.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the transfer journal", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            flushLock.lock();
+            try {
+                while (running && requestedSeq <= durableSeq) {
+                    flushRequested.await();
+                }
+                if (!running && requestedSeq <= durableSeq) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                flushLock.unlock();
+            }
+
+            JournalSegment segment;
+            long target;
+            appendLock.lock();
+            try {
+                segment = current;
+                target = lastAppendedSeq;
+            } finally {
+                appendLock.unlock();
+            }
+
+            long start = System.nanoTime();
+            segment.force();
+            fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            flushLock.lock();
+            try {
+                groupSize.record(target - durableSeq);
+                durableSeq = target;
+                flushed.signalAll();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Called by the projector after a batch is in the database: advance the
+     * checkpoint and delete segments that are entirely behind it.
+     */
+    private void projected(List<JournalProjector.Pending> batch) {
+        batch.forEach(pending -> unresolved.remove(pending.seq()));
+
+        long checkpoint;
+        List<JournalSegment> obsolete = new ArrayList<>();
+        appendLock.lock();
+        try {
+            checkpoint = unresolved.isEmpty() ? lastAppendedSeq : unresolved.first() - 1;
+            // A sealed segment ends right before the next one starts
+            while (!sealedSegments.isEmpty()) {
+                Iterator<JournalSegment> segments = sealedSegments.iterator();
+                segments.next();
+                JournalSegment next = segments.hasNext() ? segments.next() : current;
+                if (next.firstSeq - 1 > checkpoint) {
+                    break;
+                }
+                obsolete.add(sealedSegments.pollFirst());
+            }
+        } finally {
+            appendLock.unlock();
+        }
+
+        try {
+            writeCheckpoint(checkpoint);
+            for (JournalSegment segment : obsolete) {
+                Files.deleteIfExists(segment.path);
+            }
+        } catch (IOException e) {
+            log.warn("Could not update journal checkpoint: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        try {
+            Files.createDirectories(dir);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open transfer journal in " + dir, e);
+        }
+    }
+
+    /**
+     * Replay everything after the checkpoint: re-project committed entries,
+     * resolve entries without an outcome, then open a fresh segment.
+     */
+    private void recover() throws IOException {
+        long checkpoint = readCheckpoint();
+        Map<Long, Transaction> entries = new TreeMap<>();
+        Map<Long, Boolean> outcomes = new HashMap<>();
+        long maxSeq = checkpoint;
+
+        for (Path path : JournalSegment.list(dir)) {
+            JournalSegment segment = JournalSegment.open(path);
+            List<JournalRecord> records = segment.readAll();
+            if (records.isEmpty()) {
+                Files.delete(path);
+                continue;
+            }
+            for (JournalRecord record : records) {
+                maxSeq = Math.max(maxSeq, record.seq);
+                if (record.type == JournalRecord.ENTRY) {
+                    if (record.seq > checkpoint) {
+                        entries.put(record.seq, record.transaction);
+                    }
+                } else {
+                    outcomes.put(record.entrySeq, record.type == JournalRecord.COMMIT);
+                }
+            }
+            sealedSegments.addLast(segment);
+        }
+
+        nextSeq = maxSeq + 1;
+        lastAppendedSeq = maxSeq;
+        durableSeq = maxSeq;
+        requestedSeq = maxSeq;
+        current = JournalSegment.create(dir, nextSeq, segmentSize);
+        running = true;
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        int replayed = 0;
+        int inDoubt = 0;
+        for (Map.Entry<Long, Transaction> entry : entries.entrySet()) {
+            long seq = entry.getKey();
+            Boolean committed = outcomes.get(seq);
+            unresolved.add(seq);
+            if (committed == null) {
+                inDoubt++;
+                resolve(seq, entry.getValue(), wasCommitted(seq, entry.getValue()), true);
+            } else if (committed) {
+                replayed++;
+                projector.enqueue(seq, entry.getValue(), true);
+            } else {
+                unresolved.remove(seq);
+            }
+        }
+        if (inDoubt > 0) {
+            awaitDurable(lastAppendedSeq);
+        }
+        projector.start();
+
+        log.info("Transfer journal opened in {}: checkpoint {}, {} entries replayed, {} resolved from the database",
+                dir.toAbsolutePath(), checkpoint, replayed, inDoubt);
+    }
+
+    /**
+     * An entry without an outcome committed iff its source account still
+     * carries its sequence number. A later committed transfer on the same
+     * account would have made this entry's marker durable first.
+     */
+    private boolean wasCommitted(long seq, Transaction transaction) {
+        return Boolean.TRUE.equals(transactionOperations.execute(status ->
+                accountRepository.findByAccountNumber(transaction.getFromAccountNumber())
+                        .map(account -> Objects.equals(account.getLastJournalSeq(), seq))
+                        .orElse(false)));
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            running = false;
+            flushRequested.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+            appendLock.lock();
+            try {
+                current.force();
+            } finally {
+                appendLock.unlock();
+            }
+            projector.stop(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Transfer journal closed, {} entries left for replay", unresolved.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Start before the web server and stop after it, so no request sees a closed journal. */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT_FILE);
+        return Files.exists(file) ? Long.parseLong(Files.readString(file).trim()) : 0;
+    }
+
+    private void writeCheckpoint(long checkpoint) throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(tmp, Long.toString(checkpoint));
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** The caller keeps (and serialises) its own instance; the journal holds an immutable copy. */
+    private static Transaction copyOf(Transaction transaction) {
+        return new Transaction(null, transaction.getTransactionId(), transaction.getFromAccountNumber(),
+                transaction.getToAccountNumber(), transaction.getAmount(), transaction.getCurrency(),
+                transaction.getStatus(), transaction.getDescription(), transaction.getFailureReason(),
+                transaction.getTransactionDate());
+    }
+}
@@ -0,0 +1,64 @@
+package com.workshop.moneytransfer.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Queue depth and drop counts of every {@link BoundedAsyncAppender}
+ * configured in logback (only the prod profile uses one).
+ */
+@Component
+public class AsyncLoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        for (BoundedAsyncAppender appender : asyncAppenders(context)) {
+            String name = appender.getName();
+            Gauge.builder("logging.async.queued", appender, BoundedAsyncAppender::getQueuedEvents)
+                    .description("Log events waiting to be written")
+                    .tag("appender", name)
+                    .register(registry);
+            Gauge.builder("logging.async.capacity", appender, BoundedAsyncAppender::getQueueSize)
+                    .description("Size of the async logging queue")
+                    .tag("appender", name)
+                    .register(registry);
+            for (Level level : BoundedAsyncAppender.levels()) {
+                FunctionCounter.builder("logging.async.dropped", appender, a -> a.getDroppedEvents(level))
+                        .description("Log events discarded because the queue was (nearly) full")
+                        .tag("appender", name)
+                        .tag("level", level.toString().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+        }
+    }
+
+    private static Set<BoundedAsyncAppender> asyncAppenders(LoggerContext context) {
+        Set<BoundedAsyncAppender> found = new LinkedHashSet<>();
+        for (Logger logger : context.getLoggerList()) {
+            Iterator<Appender<ILoggingEvent>> appenders = logger.iteratorForAppenders();
+            while (appenders.hasNext()) {
+                if (appenders.next() instanceof BoundedAsyncAppender async) {
+                    found.add(async);
+                }
+            }
+        }
+        return found;
+    }
+}
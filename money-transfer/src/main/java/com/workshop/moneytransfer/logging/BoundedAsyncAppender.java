@@ -0,0 +1,246 @@
+package com.workshop.moneytransfer.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback appender that hands events to a bounded queue and lets one
+ * worker thread run the attached (slow, synchronous) appenders.
+ *
+ * Once fewer than {@code discardThreshold} slots are free, TRACE, DEBUG
+ * and INFO events are dropped so that WARN and ERROR still get through.
+ * When the queue is completely full the {@code overflowPolicy} decides:
+ * BLOCK makes the logging thread wait, DROP discards the event. Every
+ * dropped event is counted per level (see {@link AsyncLoggingMetrics}).
+ *
+ * <pre>
+ * &lt;appender name="ASYNC" class="com.workshop.moneytransfer.logging.BoundedAsyncAppender"&gt;
+ *     &lt;queueSize&gt;8192&lt;/queueSize&gt;
+ *     &lt;discardThreshold&gt;1638&lt;/discardThreshold&gt;
+ *     &lt;overflowPolicy&gt;BLOCK&lt;/overflowPolicy&gt;
+ *     &lt;appender-ref ref="CONSOLE"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class BoundedAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP
+    }
+
+    private static final int DRAIN_BATCH = 256;
+    private static final Level[] LEVELS = {Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR};
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder[] dropped = new LongAdder[LEVELS.length];
+    private int queueSize = 8192;
+    private int discardThreshold = -1;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private int maxFlushTime = 1000;
+    private BlockingQueue<ILoggingEvent> queue;
+    private Thread worker;
+
+    public BoundedAsyncAppender() {
+        for (int i = 0; i < dropped.length; i++) {
+            dropped[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (queueSize < 1) {
+            addError("Invalid queueSize " + queueSize);
+            return;
+        }
+        if (discardThreshold < 0) {
+            discardThreshold = queueSize / 5;
+        }
+        queue = new ArrayBlockingQueue<>(queueSize);
+        worker = new Thread(this::drain, "log-" + getName());
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+    }
+
+    /** Stop accepting events and give the worker {@code maxFlushTime} ms to write the rest. */
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        try {
+            worker.join(maxFlushTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            addWarn(queue.size() + " queued events not flushed within " + maxFlushTime + " ms");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (queue.remainingCapacity() < discardThreshold && event.getLevel().toInt() <= Level.INFO_INT) {
+            drop(event);
+            return;
+        }
+        // Capture thread-bound state (message formatting, MDC) before another thread encodes it
+        event.prepareForDeferredProcessing();
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            if (!queue.offer(event)) {
+                drop(event);
+            }
+            return;
+        }
+        putUninterruptibly(event);
+    }
+
+    private void putUninterruptibly(ILoggingEvent event) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    queue.put(event);
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void drop(ILoggingEvent event) {
+        dropped[levelIndex(event.getLevel())].increment();
+    }
+
+    private void drain() {
+        List<ILoggingEvent> batch = new ArrayList<>(DRAIN_BATCH);
+        while (isStarted() || !queue.isEmpty()) {
+            try {
+                ILoggingEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                for (ILoggingEvent event : batch) {
+                    appenders.appendLoopOnAppenders(event);
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static int levelIndex(Level level) {
+        for (int i = LEVELS.length - 1; i > 0; i--) {
+            if (level.toInt() >= LEVELS[i].toInt()) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /** Events waiting for the worker. */
+    public int getQueuedEvents() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    /** Events of this level dropped since startup. */
+    public long getDroppedEvents(Level level) {
+        return dropped[levelIndex(level)].sum();
+    }
+
+    static Level[] levels() {
+        return LEVELS.clone();
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getDiscardThreshold() {
+        return discardThreshold;
+    }
+
+    /** Free slots below which TRACE/DEBUG/INFO are dropped; 0 never drops early, default queueSize / 5. */
+    public void setDiscardThreshold(int discardThreshold) {
+        this.discardThreshold = discardThreshold;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
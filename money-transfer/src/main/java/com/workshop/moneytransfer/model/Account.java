@@ -1,12 +1,15 @@
 package com.workshop.moneytransfer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Currency;
 
 @Entity
 @Table(name = "accounts")
@@ -16,7 +19,11 @@ import java.time.LocalDateTime;
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "account_seq")
+    @GenericGenerator(name = "account_seq", type = PooledSequenceGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "accounts_seq"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -25,8 +32,14 @@ public class Account {
     @Column(nullable = false)
     private String accountHolderName;
 
+    /**
+     * Balance in minor units of {@link #currency}. Kept as a primitive so
+     * funds checks, debits and credits allocate nothing; {@link #getBalance()}
+     * builds the Money for callers outside that path.
+     */
     @Column(nullable = false)
-    private BigDecimal balance;
+    @Convert(converter = MinorUnitsConverter.class)
+    private long balance;
 
     @Column(nullable = false)
     private String currency;
@@ -40,6 +53,17 @@ public class Account {
     @Column(nullable = false)
     private String status; // ACTIVE, INACTIVE, BLOCKED
 
+    /** Sequence of the last transfer journal entry debiting this account (journal recovery). */
+    @JsonIgnore
+    @Column
+    private Long lastJournalSeq;
+
+    /** Optimistic-lock version; checked on every update (optimistic transfer mode). */
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -57,11 +81,55 @@ public class Account {
         updatedAt = LocalDateTime.now();
     }
 
-    public void debit(BigDecimal amount) {
-        this.balance = this.balance.subtract(amount);
+    /**
+     * Detached copy of the current state, safe to share through caches.
+     */
+    public Account snapshot() {
+        Account copy = new Account();
+        copy.id = id;
+        copy.accountNumber = accountNumber;
+        copy.accountHolderName = accountHolderName;
+        copy.balance = balance;
+        copy.currency = currency;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.status = status;
+        copy.lastJournalSeq = lastJournalSeq;
+        copy.version = version;
+        return copy;
+    }
+
+    public Money getBalance() {
+        return Money.ofMinor(balance, currency != null ? Currency.getInstance(currency) : Money.DEFAULT_CURRENCY);
+    }
+
+    /** Sets the balance and, with it, the account's currency. */
+    public void setBalance(Money balance) {
+        this.balance = balance.getMinorUnits();
+        this.currency = balance.getCurrency().getCurrencyCode();
     }
 
-    public void credit(BigDecimal amount) {
-        this.balance = this.balance.add(amount);
+    /** Whether the balance is at least the given amount. */
+    public boolean canCover(Money amount) {
+        checkCurrency(amount);
+        return balance >= amount.getMinorUnits();
+    }
+
+    public void debit(Money amount) {
+        checkCurrency(amount);
+        this.balance = Math.subtractExact(balance, amount.getMinorUnits());
+    }
+
+    public void credit(Money amount) {
+        checkCurrency(amount);
+        this.balance = Math.addExact(balance, amount.getMinorUnits());
+    }
+
+    private void checkCurrency(Money amount) {
+        String expected = currency != null ? currency : Money.DEFAULT_CURRENCY.getCurrencyCode();
+        if (!expected.equals(amount.getCurrency().getCurrencyCode())) {
+            throw new IllegalArgumentException(
+                    "Currency mismatch: " + expected + " vs " + amount.getCurrency());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.workshop.moneytransfer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of an account's successful transfers, kept up to date in
+ * the same database transaction as each transfer.
+ *
+ * An account's totals may be split over several stripes: stripe 0 takes
+ * its debits and ordinary credits, and credits to a hot account's balance
+ * slot {@code n} go to stripe {@code n + 1}, so they contend no more than
+ * the slots themselves. The account's totals are the sum of its stripes.
+ */
+@Entity
+@Table(name = "account_activity", uniqueConstraints = @UniqueConstraint(
+        name = "uk_account_activity_account_stripe", columnNames = {"account_number", "stripe"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountActivity {
+
+    @Id
+    @GeneratedValue(generator = "account_activity_seq")
+    @GenericGenerator(name = "account_activity_seq", type = PooledSequenceGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "account_activity_seq"),
+            @Parameter(name = "increment_size", value = "50")
+    })
+    private Long id;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    private int stripe;
+
+    @Column(nullable = false)
+    @Convert(converter = MoneyConverter.class)
+    private Money totalDebited;
+
+    @Column(nullable = false)
+    @Convert(converter = MoneyConverter.class)
+    private Money totalCredited;
+
+    @Column(nullable = false)
+    private long debitCount;
+
+    @Column(nullable = false)
+    private long creditCount;
+
+    private LocalDateTime lastTransactionAt;
+}
@@ -0,0 +1,55 @@
+package com.workshop.moneytransfer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import java.time.LocalDate;
+
+/**
+ * One day's bucket of an account's successful transfers, striped like
+ * {@link AccountActivity}.
+ */
+@Entity
+@Table(name = "account_activity_days", uniqueConstraints = @UniqueConstraint(
+        name = "uk_account_activity_days_account_date_stripe",
+        columnNames = {"account_number", "activity_date", "stripe"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountActivityDay {
+
+    @Id
+    @GeneratedValue(generator = "account_activity_day_seq")
+    @GenericGenerator(name = "account_activity_day_seq", type = PooledSequenceGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "account_activity_days_seq"),
+            @Parameter(name = "increment_size", value = "50")
+    })
+    private Long id;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    private LocalDate activityDate;
+
+    @Column(nullable = false)
+    private int stripe;
+
+    @Column(nullable = false)
+    @Convert(converter = MoneyConverter.class)
+    private Money debited;
+
+    @Column(nullable = false)
+    @Convert(converter = MoneyConverter.class)
+    private Money credited;
+
+    @Column(nullable = false)
+    private long debitCount;
+
+    @Column(nullable = false)
+    private long creditCount;
+}
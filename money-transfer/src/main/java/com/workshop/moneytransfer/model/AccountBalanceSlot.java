@@ -0,0 +1,68 @@
+package com.workshop.moneytransfer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+/**
+ * One sub-balance of a hot account. Incoming credits land on a slot row
+ * instead of the account row, so concurrent credits to the same account
+ * only contend when they pick the same slot. The account's total balance
+ * is its own balance plus the sum of its slots.
+ */
+@Entity
+@Table(name = "account_balance_slots", uniqueConstraints = @UniqueConstraint(
+        name = "uk_account_balance_slots_account_slot", columnNames = {"account_number", "slot_index"}))
+@Data
+@NoArgsConstructor
+public class AccountBalanceSlot {
+
+    @Id
+    @GeneratedValue(generator = "account_balance_slot_seq")
+    @GenericGenerator(name = "account_balance_slot_seq", type = PooledSequenceGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "account_balance_slots_seq"),
+            @Parameter(name = "increment_size", value = "50")
+    })
+    private Long id;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    private int slotIndex;
+
+    /** Minor units of {@link Money#DEFAULT_CURRENCY}, as for {@link Account}'s balance. */
+    @Column(nullable = false)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long balance;
+
+    public AccountBalanceSlot(Long id, String accountNumber, int slotIndex, Money balance) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.slotIndex = slotIndex;
+        setBalance(balance);
+    }
+
+    public Money getBalance() {
+        return Money.ofMinor(balance);
+    }
+
+    public void setBalance(Money balance) {
+        checkCurrency(balance);
+        this.balance = balance.getMinorUnits();
+    }
+
+    public void credit(Money amount) {
+        checkCurrency(amount);
+        this.balance = Math.addExact(balance, amount.getMinorUnits());
+    }
+
+    private static void checkCurrency(Money amount) {
+        if (!Money.DEFAULT_CURRENCY.equals(amount.getCurrency())) {
+            throw new IllegalArgumentException(
+                    "Currency mismatch: " + Money.DEFAULT_CURRENCY + " vs " + amount.getCurrency());
+        }
+    }
+}
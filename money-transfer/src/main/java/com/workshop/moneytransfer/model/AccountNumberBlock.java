@@ -0,0 +1,27 @@
+package com.workshop.moneytransfer.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * High-water mark for account number allocation. Each reservation advances
+ * {@code nextValue} by a whole block that is then handed out from memory.
+ */
+@Entity
+@Table(name = "account_number_blocks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountNumberBlock {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long nextValue;
+}
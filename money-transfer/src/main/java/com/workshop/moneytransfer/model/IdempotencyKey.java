@@ -0,0 +1,71 @@
+package com.workshop.moneytransfer.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed POST /api/transfers, keyed by the client's Idempotency-Key
+ * header. Holds a fingerprint of the request (to reject a key reused for a
+ * different transfer) and the serialised response for replays.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class IdempotencyKey implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private String transactionId;
+
+    @Lob
+    @Column(nullable = false)
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Keys are only ever inserted; skip the merge SELECT on save
+    @Transient
+    private boolean inserted;
+
+    public IdempotencyKey(String key, String requestHash, String transactionId, String response) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.transactionId = transactionId;
+        this.response = response;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PostPersist
+    @PostLoad
+    protected void markInserted() {
+        inserted = true;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !inserted;
+    }
+}
@@ -0,0 +1,26 @@
+package com.workshop.moneytransfer.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps a {@code long} count of minor units onto the existing decimal
+ * balance columns, in {@link Money#DEFAULT_CURRENCY} scale. Used by the
+ * entities whose balances change on every transfer, so their arithmetic
+ * stays on primitives (see {@link Account#debit}).
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minorUnits) {
+        return minorUnits != null ? Money.ofMinor(minorUnits).toBigDecimal() : null;
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal value) {
+        return value != null ? Money.of(value).getMinorUnits() : null;
+    }
+}
@@ -0,0 +1,193 @@
+package com.workshop.moneytransfer.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Immutable monetary amount held as a {@code long} count of the currency's
+ * minor units (cents for USD).
+ *
+ * Arithmetic and comparisons are plain long operations. Balances that change
+ * on every transfer ({@link Account}, {@link AccountBalanceSlot}) are stored
+ * as raw minor units and take Money arguments without creating new ones, so
+ * a funds check, debit and credit allocate nothing; Money instances are made
+ * at the boundaries (requests, responses, reads).
+ *
+ * Rules:
+ * - Overflow: plus/minus use exact arithmetic and throw ArithmeticException
+ *   instead of wrapping.
+ * - Rounding: {@link #of(BigDecimal)} accepts only amounts that are exact in
+ *   minor units and rejects anything finer with IllegalArgumentException.
+ *   Rounding only happens through {@link #of(BigDecimal, Currency, RoundingMode)},
+ *   where the caller picks the mode.
+ * - Currency: amounts in different currencies cannot be added, subtracted or
+ *   compared.
+ *
+ * Persisted as the existing decimal columns through {@link MoneyConverter}
+ * and written to / read from JSON as a plain number ({@link MoneyJson}).
+ */
+@JsonSerialize(using = MoneyJson.Serializer.class)
+@JsonDeserialize(using = MoneyJson.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+    /** The currency this service books in; the currency columns always hold it. */
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    private static final Money DEFAULT_ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L
+    };
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money zero() {
+        return DEFAULT_ZERO;
+    }
+
+    public static Money zero(Currency currency) {
+        return DEFAULT_CURRENCY.equals(currency) ? DEFAULT_ZERO : new Money(0, currency);
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return ofMinor(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, Objects.requireNonNull(currency, "currency"));
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * Exact conversion: fails if the amount has more decimal places than the
+     * currency's minor unit or does not fit in a long.
+     */
+    public static Money of(BigDecimal amount, Currency currency) {
+        try {
+            return of(amount, currency, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format(
+                    "Amount %s is not representable in %s minor units", amount.toPlainString(), currency), e);
+        }
+    }
+
+    /**
+     * Conversion that rounds to the currency's minor unit with the given mode.
+     */
+    public static Money of(BigDecimal amount, Currency currency, RoundingMode rounding) {
+        Objects.requireNonNull(amount, "amount");
+        long minor = amount.setScale(digits(currency), rounding).unscaledValue().longValueExact();
+        return new Money(minor, currency);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, digits(currency));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money other)) {
+            return false;
+        }
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    /**
+     * Plain decimal form without the currency code, e.g. {@code 1234.50}.
+     */
+    @Override
+    public String toString() {
+        int digits = digits(currency);
+        if (digits == 0) {
+            return Long.toString(minorUnits);
+        }
+        long unit = POWERS_OF_TEN[digits];
+        long whole = Math.abs(minorUnits / unit);
+        long fraction = Math.abs(minorUnits % unit);
+        StringBuilder sb = new StringBuilder(24);
+        if (minorUnits < 0) {
+            sb.append('-');
+        }
+        sb.append(whole).append('.');
+        String fractionDigits = Long.toString(fraction);
+        for (int i = fractionDigits.length(); i < digits; i++) {
+            sb.append('0');
+        }
+        return sb.append(fractionDigits).toString();
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException(
+                    "Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    private static int digits(Currency currency) {
+        // Pseudo-currencies (XAU, XXX) report -1; treat them as whole units
+        int digits = currency.getDefaultFractionDigits();
+        return digits < 0 ? 0 : digits;
+    }
+}
@@ -0,0 +1,30 @@
+package com.workshop.moneytransfer.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps {@link Money} onto the existing decimal amount/balance columns, so the
+ * schema is unchanged. Values are read in {@link Money#DEFAULT_CURRENCY};
+ * the currency itself lives in the entity's own currency column.
+ *
+ * Marked immutable so Hibernate's dirty-check snapshot shares the Money
+ * instance instead of copying it.
+ */
+@Converter
+@Immutable
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal value) {
+        return value != null ? Money.of(value) : null;
+    }
+}
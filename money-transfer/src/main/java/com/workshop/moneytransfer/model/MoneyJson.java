@@ -0,0 +1,50 @@
+package com.workshop.moneytransfer.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Jackson mapping for {@link Money}: a plain JSON number such as {@code 125.50},
+ * the same shape the API used when amounts were BigDecimal.
+ */
+public final class MoneyJson {
+
+    private MoneyJson() {
+    }
+
+    public static class Serializer extends StdScalarSerializer<Money> {
+
+        public Serializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toBigDecimal());
+        }
+    }
+
+    public static class Deserializer extends StdScalarDeserializer<Money> {
+
+        public Deserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            BigDecimal value = context.readValue(parser, BigDecimal.class);
+            try {
+                return Money.of(value);
+            } catch (IllegalArgumentException e) {
+                return (Money) context.handleWeirdNumberValue(Money.class, value, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.workshop.moneytransfer.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row table stamped on the primary and read back from the read
+ * replica to measure replication lag
+ * (see {@link com.workshop.moneytransfer.datasource.ReplicaLagMonitor}).
+ */
+@Entity
+@Table(name = "replication_heartbeat")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationHeartbeat {
+
+    @Id
+    private Integer id;
+
+    /** Primary's wall clock at the last beat, epoch milliseconds. */
+    @Column(nullable = false)
+    private long beatMillis;
+}
@@ -1,22 +1,37 @@
 package com.workshop.moneytransfer.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_from_account_date",
+                columnList = "from_account_number, transaction_date, id"),
+        @Index(name = "idx_transactions_to_account_date",
+                columnList = "to_account_number, transaction_date, id"),
+        @Index(name = "idx_transactions_transaction_id",
+                columnList = "transaction_id", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "transaction_seq")
+    @GenericGenerator(name = "transaction_seq", type = PooledSequenceGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "transactions_seq"),
+            @Parameter(name = "increment_size", value = "50")
+    })
+    // Absent from responses while the row is still being written in the background
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Long id;
 
     @Column(nullable = false)
@@ -29,7 +44,8 @@ public class Transaction {
     private String toAccountNumber;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
 
     @Column(nullable = false)
     private String currency;
@@ -48,7 +64,9 @@ public class Transaction {
 
     @PrePersist
     protected void onCreate() {
-        transactionDate = LocalDateTime.now();
+        if (transactionDate == null) {
+            transactionDate = LocalDateTime.now();
+        }
         if (status == null) {
             status = "PENDING";
         }
@@ -0,0 +1,48 @@
+package com.workshop.moneytransfer.repository;
+
+import com.workshop.moneytransfer.model.AccountActivityDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AccountActivityDayRepository extends JpaRepository<AccountActivityDay, Long> {
+
+    @Query("SELECT d FROM AccountActivityDay d "
+            + "WHERE d.accountNumber = :accountNumber AND d.activityDate >= :since "
+            + "ORDER BY d.activityDate DESC")
+    List<AccountActivityDay> findSince(@Param("accountNumber") String accountNumber,
+                                       @Param("since") LocalDate since);
+
+    /** Add to a stripe's bucket for one day; see {@link AccountActivityRepository#add}. */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "MERGE INTO account_activity_days d "
+            + "USING (SELECT CAST(:accountNumber AS VARCHAR(255)) AS account_number, "
+            + "CAST(:activityDate AS DATE) AS activity_date, CAST(:stripe AS INTEGER) AS stripe) s "
+            + "ON d.account_number = s.account_number AND d.activity_date = s.activity_date "
+            + "AND d.stripe = s.stripe "
+            + "WHEN MATCHED THEN UPDATE SET "
+            + "debited = d.debited + :debited, credited = d.credited + :credited, "
+            + "debit_count = d.debit_count + :debits, credit_count = d.credit_count + :credits "
+            + "WHEN NOT MATCHED THEN INSERT (id, account_number, activity_date, stripe, debited, credited, "
+            + "debit_count, credit_count) "
+            + "VALUES (NEXT VALUE FOR account_activity_days_seq, s.account_number, s.activity_date, s.stripe, "
+            + ":debited, :credited, :debits, :credits)")
+    int add(@Param("accountNumber") String accountNumber,
+            @Param("activityDate") LocalDate activityDate,
+            @Param("stripe") int stripe,
+            @Param("debited") BigDecimal debited,
+            @Param("credited") BigDecimal credited,
+            @Param("debits") long debits,
+            @Param("credits") long credits);
+
+    @Modifying
+    @Query("DELETE FROM AccountActivityDay d WHERE d.accountNumber = :accountNumber")
+    int deleteByAccountNumber(@Param("accountNumber") String accountNumber);
+}
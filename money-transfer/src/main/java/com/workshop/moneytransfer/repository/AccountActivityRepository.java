@@ -0,0 +1,49 @@
+package com.workshop.moneytransfer.repository;
+
+import com.workshop.moneytransfer.model.AccountActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AccountActivityRepository extends JpaRepository<AccountActivity, Long> {
+
+    List<AccountActivity> findByAccountNumber(String accountNumber);
+
+    /**
+     * Add to a stripe's totals in one statement, creating the row on first
+     * use. Pending entity changes are flushed first, so the account rows'
+     * locks and version checks order concurrent writers before they reach
+     * the activity row.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "MERGE INTO account_activity a "
+            + "USING (SELECT CAST(:accountNumber AS VARCHAR(255)) AS account_number, "
+            + "CAST(:stripe AS INTEGER) AS stripe) s "
+            + "ON a.account_number = s.account_number AND a.stripe = s.stripe "
+            + "WHEN MATCHED THEN UPDATE SET "
+            + "total_debited = a.total_debited + :debited, total_credited = a.total_credited + :credited, "
+            + "debit_count = a.debit_count + :debits, credit_count = a.credit_count + :credits, "
+            + "last_transaction_at = GREATEST(COALESCE(a.last_transaction_at, :lastAt), :lastAt) "
+            + "WHEN NOT MATCHED THEN INSERT (id, account_number, stripe, total_debited, total_credited, "
+            + "debit_count, credit_count, last_transaction_at) "
+            + "VALUES (NEXT VALUE FOR account_activity_seq, s.account_number, s.stripe, :debited, :credited, "
+            + ":debits, :credits, :lastAt)")
+    int add(@Param("accountNumber") String accountNumber,
+            @Param("stripe") int stripe,
+            @Param("debited") BigDecimal debited,
+            @Param("credited") BigDecimal credited,
+            @Param("debits") long debits,
+            @Param("credits") long credits,
+            @Param("lastAt") LocalDateTime lastAt);
+
+    @Modifying
+    @Query("DELETE FROM AccountActivity a WHERE a.accountNumber = :accountNumber")
+    int deleteByAccountNumber(@Param("accountNumber") String accountNumber);
+}
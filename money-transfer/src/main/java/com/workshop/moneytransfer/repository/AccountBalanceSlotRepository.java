@@ -0,0 +1,40 @@
+package com.workshop.moneytransfer.repository;
+
+import com.workshop.moneytransfer.model.AccountBalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, Long> {
+
+    List<AccountBalanceSlot> findByAccountNumber(String accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountBalanceSlot s "
+            + "WHERE s.accountNumber = :accountNumber AND s.slotIndex = :slotIndex")
+    Optional<AccountBalanceSlot> findForUpdate(
+            @Param("accountNumber") String accountNumber,
+            @Param("slotIndex") int slotIndex);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountBalanceSlot s "
+            + "WHERE s.accountNumber = :accountNumber ORDER BY s.slotIndex")
+    List<AccountBalanceSlot> findAllForUpdate(@Param("accountNumber") String accountNumber);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceSlot s WHERE s.accountNumber = :accountNumber")
+    BigDecimal sumBalance(@Param("accountNumber") String accountNumber);
+
+    /** The account row's balance plus its slots, from one statement and therefore one snapshot. */
+    @Query(value = "SELECT a.balance + COALESCE((SELECT SUM(s.balance) FROM account_balance_slots s "
+            + "WHERE s.account_number = a.account_number), 0) FROM accounts a "
+            + "WHERE a.account_number = :accountNumber", nativeQuery = true)
+    Optional<BigDecimal> totalBalance(@Param("accountNumber") String accountNumber);
+}
@@ -0,0 +1,27 @@
+package com.workshop.moneytransfer.repository;
+
+import com.workshop.moneytransfer.model.AccountNumberBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface AccountNumberBlockRepository extends JpaRepository<AccountNumberBlock, String> {
+
+    /** Create the high-water mark row unless it already exists. */
+    @Modifying
+    @Query(nativeQuery = true, value = "MERGE INTO account_number_blocks b "
+            + "USING (SELECT CAST(:name AS VARCHAR(255)) AS name) s ON b.name = s.name "
+            + "WHEN NOT MATCHED THEN INSERT (name, next_value) VALUES (s.name, :nextValue)")
+    int insertIfAbsent(@Param("name") String name, @Param("nextValue") long nextValue);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AccountNumberBlock b WHERE b.name = :name")
+    Optional<AccountNumberBlock> findByNameForUpdate(@Param("name") String name);
+}
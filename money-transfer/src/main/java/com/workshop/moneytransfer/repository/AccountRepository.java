@@ -1,6 +1,10 @@
 package com.workshop.moneytransfer.repository;
 
+import com.workshop.moneytransfer.dto.AccountSummary;
 import com.workshop.moneytransfer.model.Account;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +12,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,5 +25,34 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
     Optional<Account> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.accountNumber")
+    List<Account> findAllByAccountNumberInForUpdate(
+            @Param("accountNumbers") Collection<String> accountNumbers);
+
     boolean existsByAccountNumber(String accountNumber);
+
+    @Query("SELECT a.accountNumber FROM Account a ORDER BY a.accountNumber")
+    List<String> findAllAccountNumbers();
+
+    @Query(value = "SELECT new com.workshop.moneytransfer.dto.AccountSummary("
+            + "a.accountNumber, a.accountHolderName, a.balance, a.currency, a.status) FROM Account a "
+            + "WHERE (:status IS NULL OR a.status = :status) "
+            + "AND (:currency IS NULL OR a.currency = :currency)",
+            countQuery = "SELECT COUNT(a) FROM Account a "
+                    + "WHERE (:status IS NULL OR a.status = :status) "
+                    + "AND (:currency IS NULL OR a.currency = :currency)")
+    Page<AccountSummary> findSummaries(
+            @Param("status") String status,
+            @Param("currency") String currency,
+            Pageable pageable);
+
+    @Query("SELECT new com.workshop.moneytransfer.dto.AccountSummary("
+            + "a.accountNumber, a.accountHolderName, a.balance, a.currency, a.status) FROM Account a "
+            + "WHERE (:status IS NULL OR a.status = :status) "
+            + "AND (:currency IS NULL OR a.currency = :currency)")
+    Slice<AccountSummary> findSummarySlice(
+            @Param("status") String status,
+            @Param("currency") String currency,
+            Pageable pageable);
 }
\ No newline at end of file
@@ -1,10 +1,20 @@
 package com.workshop.moneytransfer.repository;
 
 import com.workshop.moneytransfer.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -13,7 +23,70 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             String fromAccountNumber,
             String toAccountNumber);
 
+    @Query("SELECT t.transactionId FROM Transaction t WHERE t.transactionId IN :transactionIds")
+    Set<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
+    /**
+     * Transactions sent from an account, oldest first, as a forward-only
+     * cursor in idx_transactions_from_account_date order. Must be consumed
+     * inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.fromAccountNumber = :accountNumber "
+            + "ORDER BY t.transactionDate, t.id")
+    Stream<Transaction> streamOutgoing(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Transactions received by an account, oldest first, in
+     * idx_transactions_to_account_date order.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.toAccountNumber = :accountNumber "
+            + "ORDER BY t.transactionDate, t.id")
+    Stream<Transaction> streamIncoming(@Param("accountNumber") String accountNumber);
+
     List<Transaction> findByFromAccountNumber(String fromAccountNumber);
 
     List<Transaction> findByToAccountNumber(String toAccountNumber);
+
+    /**
+     * Keyset page of transactions sent from an account, newest first, strictly
+     * older than the (beforeDate, beforeId) cursor. Served by
+     * idx_transactions_from_account_date.
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.fromAccountNumber = :accountNumber "
+            + "AND t.transactionDate >= :since AND t.transactionDate < :until "
+            + "AND (t.transactionDate < :beforeDate "
+            + "OR (t.transactionDate = :beforeDate AND t.id < :beforeId)) "
+            + "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findOutgoingBefore(
+            @Param("accountNumber") String accountNumber,
+            @Param("since") LocalDateTime since,
+            @Param("until") LocalDateTime until,
+            @Param("beforeDate") LocalDateTime beforeDate,
+            @Param("beforeId") Long beforeId,
+            Limit limit);
+
+    /**
+     * Keyset page of transactions received by an account, newest first.
+     * Served by idx_transactions_to_account_date.
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.toAccountNumber = :accountNumber "
+            + "AND t.transactionDate >= :since AND t.transactionDate < :until "
+            + "AND (t.transactionDate < :beforeDate "
+            + "OR (t.transactionDate = :beforeDate AND t.id < :beforeId)) "
+            + "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findIncomingBefore(
+            @Param("accountNumber") String accountNumber,
+            @Param("since") LocalDateTime since,
+            @Param("until") LocalDateTime until,
+            @Param("beforeDate") LocalDateTime beforeDate,
+            @Param("beforeId") Long beforeId,
+            Limit limit);
 }
\ No newline at end of file
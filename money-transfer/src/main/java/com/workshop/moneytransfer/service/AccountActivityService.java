@@ -0,0 +1,290 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.dto.AccountActivitySummary;
+import com.workshop.moneytransfer.exception.AccountNotFoundException;
+import com.workshop.moneytransfer.model.AccountActivity;
+import com.workshop.moneytransfer.model.AccountActivityDay;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.AccountActivityDayRepository;
+import com.workshop.moneytransfer.repository.AccountActivityRepository;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Per-account activity aggregates: total debited and credited, counts,
+ * last transaction time and daily buckets.
+ *
+ * The aggregates are maintained incrementally: every write path adds its
+ * successful transfers with {@link #apply} inside the transaction that
+ * records them, so they commit or roll back together. Each added row is a
+ * single MERGE statement, so reading the summary never scans history.
+ * {@link #rebuild} recomputes an account's aggregates from the
+ * {@code transactions} table.
+ */
+@Service
+@Slf4j
+public class AccountActivityService {
+
+    private final AccountActivityRepository activityRepository;
+    private final AccountActivityDayRepository dayRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountLockManager accountLockManager;
+    private final HotAccountLedger hotAccountLedger;
+    private final TransactionOperations transactionOperations;
+    private final EntityManager entityManager;
+    private final int maxDays;
+
+    public AccountActivityService(AccountActivityRepository activityRepository,
+                                  AccountActivityDayRepository dayRepository,
+                                  AccountRepository accountRepository,
+                                  TransactionRepository transactionRepository,
+                                  AccountLockManager accountLockManager,
+                                  HotAccountLedger hotAccountLedger,
+                                  TransactionOperations transactionOperations,
+                                  EntityManager entityManager,
+                                  @Value("${money.transfer.activity.max-days:366}") int maxDays) {
+        this.activityRepository = activityRepository;
+        this.dayRepository = dayRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountLockManager = accountLockManager;
+        this.hotAccountLedger = hotAccountLedger;
+        this.transactionOperations = transactionOperations;
+        this.entityManager = entityManager;
+        this.maxDays = Math.max(1, maxDays);
+    }
+
+    /**
+     * Add collected changes to the aggregates. Must run inside the
+     * transaction that records the transfers. Rows are written in a fixed
+     * order so concurrent writers cannot deadlock on them.
+     */
+    public void apply(Changes changes) {
+        changes.totals.forEach((stripe, delta) -> activityRepository.add(stripe.accountNumber(),
+                stripe.stripe(), delta.debited().toBigDecimal(), delta.credited().toBigDecimal(),
+                delta.debits, delta.credits, delta.lastAt));
+        changes.days.forEach((day, delta) -> dayRepository.add(day.accountNumber(), day.date(),
+                day.stripe(), delta.debited().toBigDecimal(), delta.credited().toBigDecimal(),
+                delta.debits, delta.credits));
+    }
+
+    /**
+     * Totals of an account and its buckets for the last {@code days} days
+     * (today included, at most {@code money.transfer.activity.max-days}).
+     */
+    @Transactional(readOnly = true)
+    public AccountActivitySummary getSummary(String accountNumber, int days) {
+        if (!accountRepository.existsByAccountNumber(accountNumber)) {
+            throw new AccountNotFoundException("Account not found: " + accountNumber);
+        }
+        return summarize(accountNumber, Math.min(Math.max(days, 0), maxDays));
+    }
+
+    private AccountActivitySummary summarize(String accountNumber, int window) {
+        Delta total = new Delta();
+        for (AccountActivity stripe : activityRepository.findByAccountNumber(accountNumber)) {
+            total.add(stripe.getTotalDebited(), stripe.getTotalCredited(),
+                    stripe.getDebitCount(), stripe.getCreditCount(), stripe.getLastTransactionAt());
+        }
+
+        // One bucket per day and stripe; merge each day's stripes, newest day first
+        Map<LocalDate, Delta> byDate = new TreeMap<>(Comparator.reverseOrder());
+        if (window > 0) {
+            LocalDate since = LocalDate.now().minusDays(window - 1L);
+            for (AccountActivityDay day : dayRepository.findSince(accountNumber, since)) {
+                byDate.computeIfAbsent(day.getActivityDate(), date -> new Delta())
+                        .add(day.getDebited(), day.getCredited(), day.getDebitCount(), day.getCreditCount(), null);
+            }
+        }
+        List<AccountActivitySummary.DailyActivity> daily = new ArrayList<>(byDate.size());
+        byDate.forEach((date, delta) -> daily.add(new AccountActivitySummary.DailyActivity(
+                date, delta.debited(), delta.credited(), delta.debits, delta.credits)));
+
+        return new AccountActivitySummary(accountNumber, total.debited(), total.credited(),
+                total.debits, total.credits, total.debits + total.credits, total.lastAt, daily);
+    }
+
+    /**
+     * Recompute an account's aggregates from its SUCCESS rows in the
+     * {@code transactions} table, replacing the current ones.
+     *
+     * The account's in-JVM locks and row lock are held meanwhile, so no
+     * transfer of this instance commits halfway through. Transfers that
+     * reach the table asynchronously (journal projection, sharded engine)
+     * are only counted once they have been written, so run a rebuild when
+     * those have caught up.
+     */
+    public AccountActivitySummary rebuild(String accountNumber) {
+        try (AccountLockManager.Locks ignored = accountLockManager.lock(hotAccountLedger.lockKeys(accountNumber))) {
+            return transactionOperations.execute(status -> {
+                if (accountRepository.findByAccountNumberForUpdate(accountNumber).isEmpty()) {
+                    throw new AccountNotFoundException("Account not found: " + accountNumber);
+                }
+                activityRepository.deleteByAccountNumber(accountNumber);
+                dayRepository.deleteByAccountNumber(accountNumber);
+
+                Changes changes = new Changes();
+                long rows = 0;
+                try (Stream<Transaction> transactions =
+                        TransactionHistoryStream.oldestFirst(transactionRepository, accountNumber)) {
+                    Iterator<Transaction> iterator = transactions.iterator();
+                    while (iterator.hasNext()) {
+                        Transaction transaction = iterator.next();
+                        if ("SUCCESS".equals(transaction.getStatus())) {
+                            changes.add(transaction, accountNumber);
+                            rows++;
+                        }
+                        entityManager.detach(transaction);
+                    }
+                }
+                apply(changes);
+                log.info("Rebuilt activity of account {} from {} transactions", accountNumber, rows);
+                return summarize(accountNumber, maxDays);
+            });
+        }
+    }
+
+    /** Rebuild every account's aggregates, one account per transaction. */
+    public int rebuildAll() {
+        List<String> accountNumbers = transactionOperations.execute(status -> accountRepository.findAllAccountNumbers());
+        for (String accountNumber : accountNumbers) {
+            rebuild(accountNumber);
+        }
+        return accountNumbers.size();
+    }
+
+    /**
+     * Changes to the aggregates collected from one or more successful
+     * transfers, summed per row before anything is written.
+     */
+    public static final class Changes {
+
+        private final Map<Stripe, Delta> totals = new TreeMap<>();
+        private final Map<StripeDay, Delta> days = new TreeMap<>();
+
+        /** Add a transfer to both accounts' first stripe. */
+        public Changes add(Transaction transaction) {
+            return add(transaction, 0);
+        }
+
+        /** Add a transfer whose credit went to the destination's {@code creditStripe}. */
+        public Changes add(Transaction transaction, int creditStripe) {
+            LocalDateTime at = timeOf(transaction);
+            record(transaction.getFromAccountNumber(), 0, at).add(
+                    transaction.getAmount(), null, 1, 0, at);
+            record(transaction.getToAccountNumber(), creditStripe, at).add(
+                    null, transaction.getAmount(), 0, 1, at);
+            return this;
+        }
+
+        /** Add only the side(s) of a transfer that belong to {@code accountNumber}. */
+        Changes add(Transaction transaction, String accountNumber) {
+            LocalDateTime at = timeOf(transaction);
+            if (accountNumber.equals(transaction.getFromAccountNumber())) {
+                record(accountNumber, 0, at).add(transaction.getAmount(), null, 1, 0, at);
+            }
+            if (accountNumber.equals(transaction.getToAccountNumber())) {
+                record(accountNumber, 0, at).add(null, transaction.getAmount(), 0, 1, at);
+            }
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return totals.isEmpty();
+        }
+
+        /** The total and daily deltas for one stripe, updated together. */
+        private DeltaPair record(String accountNumber, int stripe, LocalDateTime at) {
+            return new DeltaPair(
+                    totals.computeIfAbsent(new Stripe(accountNumber, stripe), key -> new Delta()),
+                    days.computeIfAbsent(new StripeDay(accountNumber, at.toLocalDate(), stripe), key -> new Delta()));
+        }
+
+        private static LocalDateTime timeOf(Transaction transaction) {
+            // Journaled transfers are stamped when projected; count them under the time they happened
+            return transaction.getTransactionDate() != null ? transaction.getTransactionDate() : LocalDateTime.now();
+        }
+    }
+
+    private record DeltaPair(Delta total, Delta day) {
+
+        void add(Money debited, Money credited, long debits, long credits, LocalDateTime at) {
+            total.add(debited, credited, debits, credits, at);
+            day.add(debited, credited, debits, credits, at);
+        }
+    }
+
+    private record Stripe(String accountNumber, int stripe) implements Comparable<Stripe> {
+
+        private static final Comparator<Stripe> ORDER = Comparator.comparing(Stripe::accountNumber)
+                .thenComparingInt(Stripe::stripe);
+
+        @Override
+        public int compareTo(Stripe other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record StripeDay(String accountNumber, LocalDate date, int stripe) implements Comparable<StripeDay> {
+
+        private static final Comparator<StripeDay> ORDER = Comparator.comparing(StripeDay::accountNumber)
+                .thenComparing(StripeDay::date)
+                .thenComparingInt(StripeDay::stripe);
+
+        @Override
+        public int compareTo(StripeDay other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Delta {
+
+        private Money debited;
+        private Money credited;
+        private long debits;
+        private long credits;
+        private LocalDateTime lastAt;
+
+        void add(Money debit, Money credit, long debitCount, long creditCount, LocalDateTime at) {
+            if (debit != null) {
+                debited = debited == null ? debit : debited.plus(debit);
+            }
+            if (credit != null) {
+                credited = credited == null ? credit : credited.plus(credit);
+            }
+            debits += debitCount;
+            credits += creditCount;
+            if (at != null && (lastAt == null || at.isAfter(lastAt))) {
+                lastAt = at;
+            }
+        }
+
+        Money debited() {
+            return debited != null ? debited : Money.zero(credited != null ? credited.getCurrency()
+                    : Money.DEFAULT_CURRENCY);
+        }
+
+        Money credited() {
+            return credited != null ? credited : Money.zero(debited != null ? debited.getCurrency()
+                    : Money.DEFAULT_CURRENCY);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.workshop.moneytransfer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.workshop.moneytransfer.model.Account;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * In-process cache of committed account snapshots, keyed by account number.
+ *
+ * Writers hand their locked entities to {@link #refreshOnCommit}; the cache
+ * is only updated after the surrounding transaction commits (and cleared on
+ * rollback), so it never holds uncommitted state. A striped generation
+ * counter is bumped on every write so that a reader which loaded a row
+ * before a commit cannot put that stale row back afterwards, and so that a
+ * writer whose commit was overtaken cannot either (see {@link #publish}).
+ *
+ * With read replicas enabled, rows loaded in a read-only transaction may
+ * come from a lagging replica; they are returned but not cached, so the
+ * cache stays at least as fresh as the primary was at its last write.
+ */
+@Component
+public class AccountCache {
+
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final boolean enabled;
+    private final boolean replicaReads;
+    private final Cache<String, Account> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public AccountCache(MeterRegistry registry,
+                        @Value("${money.account.cache.enabled:true}") boolean enabled,
+                        @Value("${money.account.cache.max-size:100000}") long maxSize,
+                        @Value("${money.account.cache.ttl:30s}") Duration ttl,
+                        @Value("${money.transfer.read-replica.enabled:false}") boolean replicaReads) {
+        this.enabled = enabled;
+        this.replicaReads = replicaReads;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "accounts");
+    }
+
+    /**
+     * Return a copy of the cached account, loading and caching it on a miss.
+     */
+    public Optional<Account> get(String accountNumber, Function<String, Optional<Account>> loader) {
+        if (!enabled) {
+            return loader.apply(accountNumber);
+        }
+
+        Account cached = cache.getIfPresent(accountNumber);
+        if (cached != null) {
+            return Optional.of(cached.snapshot());
+        }
+
+        if (replicaReads && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.apply(accountNumber);
+        }
+
+        long generation = generations.get(stripe(accountNumber));
+        Optional<Account> loaded = loader.apply(accountNumber);
+        loaded.ifPresent(account -> {
+            Account snapshot = account.snapshot();
+            cache.asMap().compute(accountNumber, (key, existing) ->
+                    generations.get(stripe(key)) == generation ? snapshot : existing);
+        });
+        return loaded;
+    }
+
+    /**
+     * Publish the state of the given (locked, managed) accounts once the
+     * current transaction commits; evict them if it rolls back. Without an
+     * active transaction the accounts are evicted immediately.
+     */
+    public void refreshOnCommit(List<Account> accounts) {
+        if (!enabled || accounts.isEmpty()) {
+            return;
+        }
+        accounts.forEach(account -> invalidate(account.getAccountNumber()));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private final long[] committing = new long[accounts.size()];
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                for (int i = 0; i < committing.length; i++) {
+                    committing[i] = generations.get(stripe(accounts.get(i).getAccountNumber()));
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = 0; i < accounts.size(); i++) {
+                    String accountNumber = accounts.get(i).getAccountNumber();
+                    if (status == STATUS_COMMITTED) {
+                        publish(accountNumber, accounts.get(i).snapshot(), committing[i]);
+                    } else {
+                        generations.incrementAndGet(stripe(accountNumber));
+                        cache.invalidate(accountNumber);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Cache a committed snapshot unless a later write may have overtaken it.
+     *
+     * Without the account locks (optimistic transfers) this callback can
+     * run after that of a transfer which committed later. A cached snapshot
+     * with a higher version is therefore always kept. If the stripe's
+     * generation moved since this transaction started committing, another
+     * writer touched the account and may have committed a newer version
+     * that is not published yet, so nothing older is cached and the next
+     * read loads the row.
+     */
+    private void publish(String accountNumber, Account snapshot, long committingGeneration) {
+        // Bump first, so a reader that loaded the row before this commit cannot cache it afterwards
+        boolean overtaken = generations.getAndIncrement(stripe(accountNumber)) != committingGeneration;
+        cache.asMap().compute(accountNumber, (key, existing) -> {
+            if (existing != null && isNewer(existing, snapshot)) {
+                return existing;
+            }
+            return overtaken ? null : snapshot;
+        });
+    }
+
+    private static boolean isNewer(Account candidate, Account than) {
+        return candidate.getVersion() != null && than.getVersion() != null
+                && candidate.getVersion() > than.getVersion();
+    }
+
+    public void invalidate(String accountNumber) {
+        generations.incrementAndGet(stripe(accountNumber));
+        cache.invalidate(accountNumber);
+    }
+
+    private static int stripe(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+}
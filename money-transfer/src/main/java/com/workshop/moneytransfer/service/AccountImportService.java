@@ -0,0 +1,407 @@
+package com.workshop.moneytransfer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.moneytransfer.dto.AccountImportResult;
+import com.workshop.moneytransfer.dto.CreateAccountRequest;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates accounts in bulk from a CSV or NDJSON upload.
+ *
+ * The upload is read one row at a time and never held in memory as a
+ * whole. Each row is checked against the {@link CreateAccountRequest}
+ * constraints, and valid rows are inserted {@code batch-size} at a time,
+ * one transaction per batch, as JDBC insert batches. Account numbers come
+ * from {@link AccountNumberAllocator}'s in-memory blocks and ids from the
+ * pooled sequence, so no row costs a query of its own.
+ *
+ * Rows that cannot be parsed or are invalid are skipped and reported by
+ * line number. A batch the database rejects is retried one row per
+ * transaction, so only the offending rows are lost. Batches already
+ * committed stay committed if the upload breaks off.
+ */
+@Service
+@Slf4j
+public class AccountImportService {
+
+    /** Longest row accepted; the rest of a longer row is skipped without being buffered. */
+    static final int MAX_ROW_CHARS = 64 * 1024;
+
+    private static final String NAME_COLUMN = "accountHolderName";
+    private static final String BALANCE_COLUMN = "initialBalance";
+
+    private final AccountRepository accountRepository;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final TransactionOperations transactionOperations;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransferMetrics metrics;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public AccountImportService(AccountRepository accountRepository,
+                                AccountNumberAllocator accountNumberAllocator,
+                                TransactionOperations transactionOperations,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                TransferMetrics metrics,
+                                @Value("${money.account.import.batch-size:1000}") int batchSize,
+                                @Value("${money.account.import.max-errors:1000}") int maxErrors) {
+        this.accountRepository = accountRepository;
+        this.accountNumberAllocator = accountNumberAllocator;
+        this.transactionOperations = transactionOperations;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrors = Math.max(0, maxErrors);
+    }
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * Import every row of a UTF-8 upload. CSV needs a header row naming the
+     * {@code accountHolderName} and {@code initialBalance} columns (others
+     * are ignored); NDJSON has one {@link CreateAccountRequest} object per
+     * line. Blank lines are skipped in both.
+     *
+     * @throws IllegalArgumentException if the CSV header lacks a required column
+     */
+    @Observed(name = "account.import", contextualName = "import-accounts")
+    public AccountImportResult importAccounts(InputStream in, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        RowReader rows = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+        Report report = new Report(maxErrors);
+        List<PendingAccount> batch = new ArrayList<>(batchSize);
+
+        try {
+            for (Row row = rows.next(); row != null; row = rows.next()) {
+                report.rows++;
+                String error = row.error() != null ? row.error() : check(row.request());
+                if (error != null) {
+                    report.reject(row.line(), error);
+                    continue;
+                }
+                batch.add(new PendingAccount(row.line(), accountNumberAllocator.next(),
+                        row.request().getAccountHolderName(), Money.of(row.request().getInitialBalance())));
+                if (batch.size() == batchSize) {
+                    insert(batch, report);
+                    batch.clear();
+                }
+            }
+            insert(batch, report);
+        } finally {
+            metrics.accountsCreated(report.imported);
+            metrics.importRowsRejected(report.rejected);
+        }
+
+        log.info("Imported {} accounts from {} {} rows ({} rejected)",
+                report.imported, report.rows, format, report.rejected);
+        return report.toResult();
+    }
+
+    /** Why the row cannot become an account, or null if it can. */
+    private String check(CreateAccountRequest request) {
+        if (request == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<CreateAccountRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            Money.of(request.getInitialBalance());
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void insert(List<PendingAccount> batch, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionOperations.executeWithoutResult(status ->
+                    accountRepository.saveAll(batch.stream().map(PendingAccount::toAccount).toList()));
+            report.imported += batch.size();
+            log.debug("Imported batch of {} accounts ending at line {}", batch.size(), batch.get(batch.size() - 1).line());
+        } catch (DataAccessException e) {
+            log.warn("Account import batch of {} rows failed, retrying row by row: {}",
+                    batch.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (PendingAccount pending : batch) {
+                try {
+                    transactionOperations.executeWithoutResult(status -> accountRepository.save(pending.toAccount()));
+                    report.imported++;
+                } catch (DataAccessException rowError) {
+                    report.reject(pending.line(), "Could not be stored: "
+                            + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    /** A valid row with its account number; a fresh entity is built for every insert attempt. */
+    private record PendingAccount(long line, String accountNumber, String accountHolderName, Money balance) {
+
+        Account toAccount() {
+            Account account = new Account();
+            account.setAccountNumber(accountNumber);
+            account.setAccountHolderName(accountHolderName);
+            account.setBalance(balance);
+            account.setCurrency("USD");
+            account.setStatus("ACTIVE");
+            return account;
+        }
+    }
+
+    /** A parsed row, or why it could not be parsed. */
+    private record Row(long line, CreateAccountRequest request, String error) {
+
+        static Row parsed(long line, CreateAccountRequest request) {
+            return new Row(line, request, null);
+        }
+
+        static Row failed(long line, String error) {
+            return new Row(line, null, error);
+        }
+    }
+
+    private interface RowReader {
+
+        /** The next non-blank row, or null at the end of the upload. */
+        Row next() throws IOException;
+    }
+
+    /** One JSON object per line. */
+    private final class NdjsonRows implements RowReader {
+
+        private final BufferedReader reader;
+        private final StringBuilder text = new StringBuilder();
+        private long line;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            while (true) {
+                text.setLength(0);
+                boolean tooLong = false;
+                int c = reader.read();
+                if (c == -1) {
+                    return null;
+                }
+                line++;
+                while (c != -1 && c != '\n') {
+                    if (text.length() < MAX_ROW_CHARS) {
+                        text.append((char) c);
+                    } else {
+                        tooLong = true;
+                    }
+                    c = reader.read();
+                }
+                if (tooLong) {
+                    return Row.failed(line, "Row is longer than " + MAX_ROW_CHARS + " characters");
+                }
+                if (text.toString().isBlank()) {
+                    continue;
+                }
+                try {
+                    return Row.parsed(line, objectMapper.readValue(text.toString(), CreateAccountRequest.class));
+                } catch (JsonProcessingException e) {
+                    return Row.failed(line, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 CSV: fields separated by commas, optionally enclosed in double
+     * quotes, with {@code ""} for a quote inside a quoted field. Quoted
+     * fields may span lines. The first row is the header.
+     */
+    private static final class CsvRows implements RowReader {
+
+        private final BufferedReader reader;
+        private final StringBuilder field = new StringBuilder();
+        private final int nameColumn;
+        private final int balanceColumn;
+        private final int columns;
+        private long line = 1;
+
+        CsvRows(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            Record header;
+            do {
+                header = readRecord();
+            } while (header != null && header.isBlank());
+            if (header == null || header.tooLong()) {
+                throw new IllegalArgumentException("CSV upload needs a header row naming "
+                        + NAME_COLUMN + " and " + BALANCE_COLUMN);
+            }
+            List<String> names = header.fields().stream()
+                    .map(name -> name.replace("\uFEFF", "").trim())
+                    .toList();
+            this.nameColumn = names.indexOf(NAME_COLUMN);
+            this.balanceColumn = names.indexOf(BALANCE_COLUMN);
+            this.columns = names.size();
+            if (nameColumn < 0 || balanceColumn < 0) {
+                throw new IllegalArgumentException("CSV header must name the " + NAME_COLUMN + " and "
+                        + BALANCE_COLUMN + " columns, found: " + String.join(",", names));
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            Record record;
+            do {
+                record = readRecord();
+            } while (record != null && record.isBlank());
+            if (record == null) {
+                return null;
+            }
+            if (record.tooLong()) {
+                return Row.failed(record.line(), "Row is longer than " + MAX_ROW_CHARS + " characters");
+            }
+            List<String> fields = record.fields();
+            if (fields.size() != columns) {
+                return Row.failed(record.line(), "Expected " + columns + " fields but found " + fields.size());
+            }
+            String balance = fields.get(balanceColumn).trim();
+            CreateAccountRequest request = new CreateAccountRequest(fields.get(nameColumn), null);
+            if (!balance.isEmpty()) {
+                try {
+                    request.setInitialBalance(new BigDecimal(balance));
+                } catch (NumberFormatException e) {
+                    return Row.failed(record.line(), "Invalid initial balance: " + balance);
+                }
+            }
+            return Row.parsed(record.line(), request);
+        }
+
+        /** The next record, or null at the end of the upload. */
+        private Record readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            long start = line;
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            int length = 0;
+            boolean quoted = false;
+            while (c != -1) {
+                if (++length > MAX_ROW_CHARS) {
+                    skipRecord(c, quoted);
+                    return new Record(start, fields, true);
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return new Record(start, fields, false);
+        }
+
+        /** Consume the rest of an overlong record, through the end of its last line. */
+        private void skipRecord(int c, boolean quoted) throws IOException {
+            while (c != -1) {
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == '\n') {
+                    line++;
+                    if (!quoted) {
+                        return;
+                    }
+                }
+                c = reader.read();
+            }
+        }
+    }
+
+    private record Record(long line, List<String> fields, boolean tooLong) {
+
+        boolean isBlank() {
+            return !tooLong && fields.size() == 1 && fields.get(0).isBlank();
+        }
+    }
+
+    /** Running counts and the capped list of rejected rows. */
+    private static final class Report {
+
+        private final int maxErrors;
+        private final List<AccountImportResult.RowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long rejected;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new AccountImportResult.RowError(line, message));
+            }
+        }
+
+        AccountImportResult toResult() {
+            return new AccountImportResult(rows, imported, rejected, errors, rejected > errors.size());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.exception.LockTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped in-JVM lock table for account numbers.
+ *
+ * Concurrent transfers touching the same account queue up here instead of
+ * each holding a database connection while blocked on a row lock. Stripes
+ * are always acquired in ascending index order, so two callers locking the
+ * same accounts in opposite directions (A->B and B->A) cannot deadlock.
+ */
+@Component
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+    private final Timer lockWaitTimer;
+
+    public AccountLockManager(MeterRegistry registry,
+                              @Value("${money.transfer.lock.stripes:1024}") int stripeCount,
+                              @Value("${money.transfer.lock.timeout-ms:5000}") long timeoutMillis) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+        this.lockWaitTimer = Timer.builder("money.transfer.lock.wait")
+                .description("Time spent waiting for in-JVM account locks")
+                .tag("type", "transfer")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Lock every given account number. The returned handle must be closed
+     * (try-with-resources) to release the locks.
+     */
+    public Locks lock(String... accountNumbers) {
+        int[] indexes = Arrays.stream(accountNumbers)
+                .mapToInt(this::stripeIndex)
+                .sorted()
+                .distinct()
+                .toArray();
+
+        long start = System.nanoTime();
+        int acquired = 0;
+        try {
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            for (int index : indexes) {
+                long remaining = deadline - System.nanoTime();
+                if (!stripes[index].tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                    throw new LockTimeoutException(
+                            "Timed out waiting for account lock: " + String.join(", ", accountNumbers));
+                }
+                acquired++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LockTimeoutException("Interrupted waiting for account lock", e);
+        } finally {
+            lockWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (acquired < indexes.length) {
+                unlock(indexes, acquired);
+            }
+        }
+        return new Locks(indexes);
+    }
+
+    int stripeIndex(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void unlock(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    /**
+     * Handle for a set of held stripes; closing it releases them in reverse order.
+     */
+    public final class Locks implements AutoCloseable {
+
+        private final int[] indexes;
+        private boolean released;
+
+        private Locks(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                unlock(indexes, indexes.length);
+            }
+        }
+    }
+}
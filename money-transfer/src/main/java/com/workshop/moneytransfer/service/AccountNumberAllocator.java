@@ -0,0 +1,137 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.model.AccountNumberBlock;
+import com.workshop.moneytransfer.repository.AccountNumberBlockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allocates unique 10-digit account numbers: a 9-digit serial followed by a
+ * Luhn check digit.
+ *
+ * Serials are reserved from the database a block at a time (one locked row
+ * update per block, in its own transaction) and handed out lock-free from
+ * memory, so account creation needs no uniqueness query. Numbers left in a
+ * block when the application stops are skipped, never reused.
+ */
+@Component
+@Slf4j
+public class AccountNumberAllocator {
+
+    static final String BLOCK_NAME = "accounts";
+    static final long FIRST_SERIAL = 100_000_000L;
+    static final long MAX_SERIAL = 999_999_999L;
+
+    private final AccountNumberBlockRepository blockRepository;
+    private final TransactionTemplate reservationTransaction;
+    private final int blockSize;
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EXHAUSTED);
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    public AccountNumberAllocator(AccountNumberBlockRepository blockRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${money.account.number.block-size:1000}") int blockSize) {
+        this.blockRepository = blockRepository;
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    public String next() {
+        while (true) {
+            Block block = current.get();
+            long serial = block.next.getAndIncrement();
+            if (serial < block.end) {
+                return format(serial);
+            }
+            refill(block);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Another thread may have refilled while we waited
+            if (current.get() == exhausted) {
+                current.set(reserve());
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private Block reserve() {
+        Block block = reservationTransaction.execute(status -> {
+            blockRepository.insertIfAbsent(BLOCK_NAME, FIRST_SERIAL);
+            AccountNumberBlock row = blockRepository.findByNameForUpdate(BLOCK_NAME)
+                    .orElseThrow(() -> new IllegalStateException("Account number block row missing: " + BLOCK_NAME));
+            long start = row.getNextValue();
+            long end = Math.min(start + blockSize, MAX_SERIAL + 1);
+            if (start > MAX_SERIAL) {
+                throw new IllegalStateException("Account number space exhausted");
+            }
+            row.setNextValue(end);
+            blockRepository.save(row);
+            return new Block(start, end);
+        });
+        log.info("Reserved account number block [{}, {})", block.next.get(), block.end);
+        return block;
+    }
+
+    static String format(long serial) {
+        String digits = String.format("%09d", serial);
+        return digits + checkDigit(digits);
+    }
+
+    /**
+     * Luhn check digit for the given digit string.
+     */
+    static int checkDigit(String digits) {
+        int sum = 0;
+        boolean doubleIt = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubleIt) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleIt = !doubleIt;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    /**
+     * True if the number carries a valid Luhn check digit.
+     */
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() < 2 || !accountNumber.chars().allMatch(Character::isDigit)) {
+            return false;
+        }
+        int last = accountNumber.length() - 1;
+        return checkDigit(accountNumber.substring(0, last)) == accountNumber.charAt(last) - '0';
+    }
+
+    private static final class Block {
+
+        static final Block EXHAUSTED = new Block(0, 0);
+
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -1,78 +1,140 @@
 package com.workshop.moneytransfer.service;
 
+import com.workshop.moneytransfer.dto.AccountPage;
+import com.workshop.moneytransfer.engine.ShardedLedgerEngine;
 import com.workshop.moneytransfer.exception.AccountNotFoundException;
 import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
 import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.service.TransferMetrics.AccountOperation;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AccountService {
 
-    private final AccountRepository accountRepository;
-    private final Random random = new Random();
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(
+            "accountNumber", "accountHolderName", "balance", "currency", "status", "createdAt");
 
-    @Transactional
+    private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+    private final AccountLockManager accountLockManager;
+    private final TransactionOperations transactionOperations;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final HotAccountLedger hotAccountLedger;
+    private final ShardedLedgerEngine ledgerEngine;
+    private final TransferMetrics metrics;
+
+    /**
+     * The account number is allocated before the transaction begins: a
+     * block refill takes a connection of its own, and must not wait for one
+     * while this request already holds another.
+     */
     public Account createAccount(String accountHolderName, BigDecimal initialBalance) {
+        return timed(AccountOperation.CREATE, () -> doCreateAccount(accountHolderName, initialBalance));
+    }
 
-        String accountNumber = generateAccountNumber();
+    private Account doCreateAccount(String accountHolderName, BigDecimal initialBalance) {
+        String accountNumber = accountNumberAllocator.next();
 
         Account account = new Account();
         account.setAccountNumber(accountNumber);
         account.setAccountHolderName(accountHolderName);
-        account.setBalance(initialBalance);
+        account.setBalance(Money.of(initialBalance));
         account.setCurrency("USD");
         account.setStatus("ACTIVE");
 
-        Account savedAccount = accountRepository.save(account);
+        Account savedAccount = transactionOperations.execute(tx -> accountRepository.save(account));
+        metrics.accountCreated();
         log.info("Created new account: {} for {}", accountNumber, accountHolderName);
 
         return savedAccount;
     }
 
+    @Transactional(readOnly = true)
     public Account getAccount(String accountNumber) {
-        return accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountNotFoundException(
-                        "Account not found: " + accountNumber));
+        return timed(AccountOperation.GET, () ->
+                accountCache.get(accountNumber, accountRepository::findByAccountNumber)
+                        .map(hotAccountLedger::withSlotBalances)
+                        .map(ledgerEngine::withLiveBalance)
+                        .orElseThrow(() -> new AccountNotFoundException(
+                                "Account not found: " + accountNumber)));
     }
 
-    public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+    /**
+     * Paged listing of lightweight account projections. In slice mode the
+     * count query is skipped, which keeps infinite scrolling cheap on large
+     * tables. Results are always tie-broken by account number so pages are
+     * stable.
+     */
+    @Transactional(readOnly = true)
+    public AccountPage listAccounts(String status, String currency, Pageable pageable, boolean slice) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort accounts by: " + order.getProperty());
+            }
+        }
+
+        Sort sort = pageable.getSort().getOrderFor("accountNumber") != null
+                ? pageable.getSort()
+                : pageable.getSort().and(Sort.by("accountNumber"));
+        Pageable stablePageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+
+        return AccountPage.of(slice
+                ? accountRepository.findSummarySlice(status, currency, stablePageable)
+                : accountRepository.findSummaries(status, currency, stablePageable));
     }
 
-    public BigDecimal getBalance(String accountNumber) {
+    @Transactional(readOnly = true)
+    public Money getBalance(String accountNumber) {
         Account account = getAccount(accountNumber);
         return account.getBalance();
     }
 
-    @Transactional
     public Account updateAccountStatus(String accountNumber, String status) {
-        Account account = getAccount(accountNumber);
-        account.setStatus(status);
-        return accountRepository.save(account);
+        return timed(AccountOperation.UPDATE_STATUS, () -> doUpdateAccountStatus(accountNumber, status));
     }
 
-    private String generateAccountNumber() {
-        // Generate 10-digit account number
-        StringBuilder accountNumber = new StringBuilder();
-        for (int i = 0; i < 10; i++) {
-            accountNumber.append(random.nextInt(10));
+    private Account doUpdateAccountStatus(String accountNumber, String status) {
+        Account updated;
+        try (AccountLockManager.Locks ignored = accountLockManager.lock(accountNumber)) {
+            updated = transactionOperations.execute(tx -> {
+                Account account = accountRepository.findByAccountNumberForUpdate(accountNumber)
+                        .orElseThrow(() -> new AccountNotFoundException(
+                                "Account not found: " + accountNumber));
+                accountCache.refreshOnCommit(List.of(account));
+                account.setStatus(status);
+                return accountRepository.save(account);
+            });
         }
+        // The sharded engine validates against its own copy of the status
+        ledgerEngine.updateStatus(accountNumber, status);
+        return ledgerEngine.withLiveBalance(updated);
+    }
 
-        // Ensure uniqueness
-        String number = accountNumber.toString();
-        if (accountRepository.existsByAccountNumber(number)) {
-            return generateAccountNumber(); // Recursive call if duplicate
+    private <T> T timed(AccountOperation operation, Supplier<T> action) {
+        Timer.Sample sample = metrics.start();
+        try {
+            T result = action.get();
+            metrics.accountOperationCompleted(sample, operation, null);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.accountOperationCompleted(sample, operation, e);
+            throw e;
         }
-
-        return number;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.workshop.moneytransfer.service;
+
+/**
+ * How single transfers protect the two account rows they update
+ * ({@code money.transfer.concurrency-mode}).
+ */
+public enum ConcurrencyMode {
+
+    /** In-JVM account locks plus SELECT ... FOR UPDATE. Conflicting transfers queue. */
+    PESSIMISTIC,
+
+    /**
+     * Plain reads and a version check on update. Conflicting transfers fail
+     * at commit and are retried by {@link OptimisticTransferRetry}.
+     */
+    OPTIMISTIC
+}
@@ -0,0 +1,58 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for transaction history: the (transactionDate, id)
+ * of the last row returned, base64url-encoded.
+ */
+final class HistoryCursor {
+
+    /** Cursor that sorts after every stored transaction (first page). */
+    static final HistoryCursor START = new HistoryCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private final LocalDateTime transactionDate;
+    private final long id;
+
+    private HistoryCursor(LocalDateTime transactionDate, long id) {
+        this.transactionDate = transactionDate;
+        this.id = id;
+    }
+
+    static HistoryCursor after(Transaction transaction) {
+        return new HistoryCursor(transaction.getTransactionDate(), transaction.getId());
+    }
+
+    static HistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new HistoryCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+        }
+    }
+
+    String encode() {
+        String raw = transactionDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    LocalDateTime getTransactionDate() {
+        return transactionDate;
+    }
+
+    long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,225 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.exception.AccountNotFoundException;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.AccountBalanceSlot;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.repository.AccountBalanceSlotRepository;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Sub-ledger for designated hot accounts (collection/merchant accounts that
+ * receive most incoming credits).
+ *
+ * Credits to a hot account are spread over {@code slots} balance rows, each
+ * with its own lock, instead of all queueing on the account row. The account
+ * row keeps the spendable balance: debits sweep the slots into it when it
+ * runs short, and a background task sweeps them periodically so the account
+ * row (listings, exports) stays close to the true total.
+ */
+@Component
+@Slf4j
+public class HotAccountLedger {
+
+    private final AccountBalanceSlotRepository slotRepository;
+    private final AccountRepository accountRepository;
+    private final AccountLockManager accountLockManager;
+    private final AccountCache accountCache;
+    private final TransactionOperations transactionOperations;
+    private final Set<String> hotAccounts;
+    private final int slotCount;
+    private final Counter debitSweeps;
+    private final Counter rebalanceSweeps;
+
+    public HotAccountLedger(AccountBalanceSlotRepository slotRepository,
+                            AccountRepository accountRepository,
+                            AccountLockManager accountLockManager,
+                            AccountCache accountCache,
+                            TransactionOperations transactionOperations,
+                            MeterRegistry registry,
+                            @Value("${money.transfer.hot-accounts.numbers:}") String hotAccounts,
+                            @Value("${money.transfer.hot-accounts.slots:8}") int slotCount) {
+        this.slotRepository = slotRepository;
+        this.accountRepository = accountRepository;
+        this.accountLockManager = accountLockManager;
+        this.accountCache = accountCache;
+        this.transactionOperations = transactionOperations;
+        this.hotAccounts = Arrays.stream(hotAccounts.split(","))
+                .map(String::trim)
+                .filter(number -> !number.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.slotCount = Math.max(1, slotCount);
+        this.debitSweeps = sweepCounter(registry, "debit");
+        this.rebalanceSweeps = sweepCounter(registry, "rebalance");
+    }
+
+    private static Counter sweepCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("money.transfer.hotaccount.sweeps")
+                .description("Hot account slot balances folded back into the account row")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    public boolean isHot(String accountNumber) {
+        return hotAccounts.contains(accountNumber);
+    }
+
+    public int pickSlot() {
+        return ThreadLocalRandom.current().nextInt(slotCount);
+    }
+
+    /**
+     * Key for the in-JVM lock guarding one slot; distinct from the account
+     * number itself so credits to different slots do not queue behind each other.
+     */
+    public static String slotLockKey(String accountNumber, int slot) {
+        return accountNumber + "#" + slot;
+    }
+
+    /**
+     * The in-JVM lock keys covering every write to an account: the account
+     * itself and, for a hot account, each of its slots.
+     */
+    public String[] lockKeys(String accountNumber) {
+        if (!isHot(accountNumber)) {
+            return new String[] {accountNumber};
+        }
+        return Stream.concat(Stream.of(accountNumber),
+                        IntStream.range(0, slotCount).mapToObj(slot -> slotLockKey(accountNumber, slot)))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Credit one slot of a hot account. Must run inside the transfer's
+     * transaction. Falls back to the account row if the slot is not
+     * provisioned (e.g. slot count was raised at runtime).
+     */
+    public void creditSlot(String accountNumber, int slot, Money amount) {
+        Optional<AccountBalanceSlot> balanceSlot = slotRepository.findForUpdate(accountNumber, slot);
+        if (balanceSlot.isPresent()) {
+            balanceSlot.get().credit(amount);
+            slotRepository.save(balanceSlot.get());
+            return;
+        }
+
+        Account account = accountRepository.findByAccountNumberForUpdate(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(
+                        "Destination account not found: " + accountNumber));
+        accountCache.refreshOnCommit(List.of(account));
+        account.credit(amount);
+        accountRepository.save(account);
+    }
+
+    /**
+     * Before debiting a locked hot account, fold its slots into the account
+     * row if the row alone cannot cover the amount.
+     */
+    public void sweepIfShort(Account account, Money amount) {
+        if (isHot(account.getAccountNumber()) && !account.canCover(amount)
+                && sweep(account)) {
+            debitSweeps.increment();
+        }
+    }
+
+    /**
+     * Copy of the account whose balance includes the slot balances. The
+     * total is read from the database in one statement rather than added to
+     * the given (possibly cached) row: a sweep commits between two separate
+     * reads would count the swept credits twice, or not at all.
+     */
+    public Account withSlotBalances(Account account) {
+        if (!isHot(account.getAccountNumber())) {
+            return account;
+        }
+        Account total = account.snapshot();
+        slotRepository.totalBalance(account.getAccountNumber())
+                .map(Money::of)
+                .ifPresent(total::setBalance);
+        return total;
+    }
+
+    /**
+     * Fold every hot account's slots back into its account row.
+     */
+    @Scheduled(initialDelayString = "${money.transfer.hot-accounts.rebalance-interval-ms:5000}",
+            fixedDelayString = "${money.transfer.hot-accounts.rebalance-interval-ms:5000}")
+    public void rebalance() {
+        for (String accountNumber : hotAccounts) {
+            try (AccountLockManager.Locks ignored = accountLockManager.lock(lockKeys(accountNumber))) {
+                transactionOperations.executeWithoutResult(status ->
+                        accountRepository.findByAccountNumberForUpdate(accountNumber).ifPresent(account -> {
+                            accountCache.refreshOnCommit(List.of(account));
+                            if (sweep(account)) {
+                                rebalanceSweeps.increment();
+                            }
+                        }));
+            } catch (RuntimeException e) {
+                log.warn("Rebalancing hot account {} failed: {}", accountNumber, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Provision missing slot rows for the configured hot accounts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void provisionSlots() {
+        for (String accountNumber : hotAccounts) {
+            transactionOperations.executeWithoutResult(status -> {
+                if (!accountRepository.existsByAccountNumber(accountNumber)) {
+                    log.warn("Hot account {} does not exist; credits will use the account row", accountNumber);
+                    return;
+                }
+                Set<Integer> existing = slotRepository.findByAccountNumber(accountNumber).stream()
+                        .map(AccountBalanceSlot::getSlotIndex)
+                        .collect(Collectors.toSet());
+                List<AccountBalanceSlot> missing = IntStream.range(0, slotCount)
+                        .filter(slot -> !existing.contains(slot))
+                        .mapToObj(slot -> new AccountBalanceSlot(null, accountNumber, slot, Money.zero()))
+                        .toList();
+                slotRepository.saveAll(missing);
+            });
+        }
+        if (!hotAccounts.isEmpty()) {
+            log.info("Hot account sub-ledger enabled for {} with {} slots each", hotAccounts, slotCount);
+        }
+    }
+
+    /**
+     * Move all slot balances of a locked account into its row. Returns
+     * whether anything was moved.
+     */
+    private boolean sweep(Account account) {
+        Money swept = Money.zero();
+        for (AccountBalanceSlot slot : slotRepository.findAllForUpdate(account.getAccountNumber())) {
+            if (slot.getBalance().signum() != 0) {
+                swept = swept.plus(slot.getBalance());
+                slot.setBalance(Money.zero());
+            }
+        }
+        if (swept.signum() == 0) {
+            return false;
+        }
+        account.credit(swept);
+        log.debug("Swept {} from slots into hot account {}", swept, account.getAccountNumber());
+        return true;
+    }
+}
@@ -0,0 +1,175 @@
+package com.workshop.moneytransfer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.workshop.moneytransfer.exception.IdempotencyKeyReusedException;
+import com.workshop.moneytransfer.model.IdempotencyKey;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Two-tier store of completed transfers by Idempotency-Key.
+ *
+ * The database table is authoritative: a key is inserted in the same
+ * transaction as the transfer it belongs to, so it exists exactly when the
+ * transfer committed. A bounded in-memory cache in front of it absorbs
+ * retry storms for recent keys. Rows older than the TTL are deleted by a
+ * scheduled cleanup.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    /** A key plus the fingerprint of the request it was sent with. */
+    public record Request(String key, String requestHash) {
+    }
+
+    private record Completed(String requestHash, Transaction transaction) {
+    }
+
+    private final IdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Cache<String, Completed> recent;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+
+    public IdempotencyStore(IdempotencyKeyRepository repository,
+                            ObjectMapper objectMapper,
+                            MeterRegistry registry,
+                            @Value("${money.transfer.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${money.transfer.idempotency.cache.max-size:100000}") long cacheSize,
+                            @Value("${money.transfer.idempotency.cache.ttl:10m}") Duration cacheTtl) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, recent, "idempotency_keys");
+        this.memoryHits = replayCounter(registry, "memory");
+        this.databaseHits = replayCounter(registry, "database");
+    }
+
+    private static Counter replayCounter(MeterRegistry registry, String tier) {
+        return Counter.builder("money.transfer.idempotency.replays")
+                .description("Transfers answered from the idempotency store instead of executed")
+                .tag("tier", tier)
+                .register(registry);
+    }
+
+    /**
+     * Validate the key and fingerprint the transfer it is sent with.
+     */
+    public static Request request(String key, String fromAccountNumber, String toAccountNumber,
+                                  Money amount, String description) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String canonical = String.join("\u0000", fromAccountNumber, toAccountNumber,
+                amount.toString(), description == null ? "" : description);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return new Request(key, HexFormat.of().formatHex(digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The transaction originally returned for this key, if the transfer
+     * completed. Throws if the key was used for a different transfer.
+     */
+    public Optional<Transaction> find(Request request) {
+        Completed completed = recent.getIfPresent(request.key());
+        if (completed != null) {
+            memoryHits.increment();
+            return Optional.of(verified(request, completed));
+        }
+
+        Optional<Completed> stored = repository.findById(request.key()).map(this::fromRow);
+        stored.ifPresent(row -> {
+            databaseHits.increment();
+            recent.put(request.key(), row);
+        });
+        return stored.map(row -> verified(request, row));
+    }
+
+    /**
+     * Insert the key in the current transaction; it becomes visible to the
+     * in-memory tier only once that transaction commits.
+     */
+    public void save(Request request, Transaction transaction) {
+        repository.save(new IdempotencyKey(request.key(), request.requestHash(),
+                transaction.getTransactionId(), toJson(transaction)));
+
+        Completed completed = new Completed(request.requestHash(), transaction);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recent.put(request.key(), completed);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recent.put(request.key(), completed);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${money.transfer.idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private static Transaction verified(Request request, Completed completed) {
+        if (!completed.requestHash().equals(request.requestHash())) {
+            throw new IdempotencyKeyReusedException(
+                    "Idempotency-Key " + request.key() + " was already used for a different transfer");
+        }
+        return completed.transaction();
+    }
+
+    private Completed fromRow(IdempotencyKey row) {
+        try {
+            return new Completed(row.getRequestHash(), objectMapper.readValue(row.getResponse(), Transaction.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable stored response for idempotency key " + row.getKey(), e);
+        }
+    }
+
+    private String toJson(Transaction transaction) {
+        try {
+            return objectMapper.writeValueAsString(transaction);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise transaction " + transaction.getTransactionId(), e);
+        }
+    }
+}
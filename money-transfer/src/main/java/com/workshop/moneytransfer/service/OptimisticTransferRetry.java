@@ -0,0 +1,133 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Retry loop for optimistic transfers.
+ *
+ * An attempt that loses a version check is retried after a full-jitter
+ * exponential backoff, up to {@code max-attempts} per transfer. Retries
+ * are also limited by a shared token bucket: every conflict costs one
+ * token, every successful transfer earns back {@code token-ratio}, and
+ * retries stop while the bucket is below half full. Under a sustained
+ * hot-account storm this turns retries off instead of multiplying load.
+ */
+@Component
+public class OptimisticTransferRetry {
+
+    /** Tokens are kept in thousandths so the ratio can be fractional. */
+    private static final int SCALE = 1000;
+
+    private final int maxAttempts;
+    private final long backoffBaseNanos;
+    private final long backoffMaxNanos;
+    private final int maxTokens;
+    private final int tokenRatio;
+    private final AtomicInteger tokens;
+
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter attemptsExhausted;
+    private final Counter budgetExhausted;
+    private final DistributionSummary attemptsPerTransfer;
+
+    public OptimisticTransferRetry(MeterRegistry registry,
+                                   @Value("${money.transfer.optimistic.max-attempts:5}") int maxAttempts,
+                                   @Value("${money.transfer.optimistic.backoff-base-ms:1}") long backoffBaseMillis,
+                                   @Value("${money.transfer.optimistic.backoff-max-ms:50}") long backoffMaxMillis,
+                                   @Value("${money.transfer.optimistic.retry-budget.max-tokens:100}") int maxTokens,
+                                   @Value("${money.transfer.optimistic.retry-budget.token-ratio:0.1}") double tokenRatio) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseNanos = TimeUnit.MILLISECONDS.toNanos(backoffBaseMillis);
+        this.backoffMaxNanos = TimeUnit.MILLISECONDS.toNanos(backoffMaxMillis);
+        this.maxTokens = maxTokens * SCALE;
+        this.tokenRatio = (int) Math.round(tokenRatio * SCALE);
+        this.tokens = new AtomicInteger(this.maxTokens);
+
+        this.conflicts = Counter.builder("money.transfer.optimistic.conflicts")
+                .description("Optimistic transfer attempts that lost a version check")
+                .register(registry);
+        this.retries = Counter.builder("money.transfer.optimistic.retries")
+                .description("Optimistic transfer attempts retried after a conflict")
+                .register(registry);
+        this.attemptsExhausted = exhaustedCounter(registry, "attempts");
+        this.budgetExhausted = exhaustedCounter(registry, "budget");
+        this.attemptsPerTransfer = DistributionSummary.builder("money.transfer.optimistic.attempts")
+                .description("Attempts needed per optimistic transfer")
+                .register(registry);
+        registry.gauge("money.transfer.optimistic.retry.budget", tokens, t -> (double) t.get() / SCALE);
+    }
+
+    private static Counter exhaustedCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("money.transfer.optimistic.exhausted")
+                .description("Optimistic transfers given up after conflicts")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * Run {@code attempt} (one complete database transaction) until it
+     * commits without a version conflict, or the attempt limit or retry
+     * budget runs out.
+     */
+    public <T> T execute(Supplier<T> attempt) {
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                T result = attempt.get();
+                attemptsPerTransfer.record(attemptNumber);
+                deposit();
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                boolean withinBudget = withdraw();
+                if (attemptNumber >= maxAttempts) {
+                    attemptsExhausted.increment();
+                    attemptsPerTransfer.record(attemptNumber);
+                    throw new ConcurrentUpdateException(
+                            "Transfer conflicted with concurrent updates " + attemptNumber + " times", e);
+                }
+                if (!withinBudget) {
+                    budgetExhausted.increment();
+                    attemptsPerTransfer.record(attemptNumber);
+                    throw new ConcurrentUpdateException(
+                            "Transfer conflicted with a concurrent update; retry budget exhausted", e);
+                }
+                retries.increment();
+                backoff(attemptNumber);
+            }
+        }
+    }
+
+    private void deposit() {
+        tokens.updateAndGet(t -> Math.min(maxTokens, t + tokenRatio));
+    }
+
+    /** Take one token for a conflict; returns whether retrying is still allowed. */
+    private boolean withdraw() {
+        return tokens.updateAndGet(t -> Math.max(0, t - SCALE)) > maxTokens / 2;
+    }
+
+    private void backoff(int attemptNumber) {
+        long ceiling = Math.min(backoffMaxNanos, backoffBaseNanos << Math.min(attemptNumber - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while backing off a transfer retry", e);
+        }
+    }
+}
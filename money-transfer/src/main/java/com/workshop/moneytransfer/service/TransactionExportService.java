@@ -0,0 +1,145 @@
+package com.workshop.moneytransfer.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Streams an account's full transaction history straight to an output
+ * stream. Rows are read through index-ordered JDBC cursors (see
+ * {@link TransactionHistoryStream}) and detached as soon as they are
+ * written, so heap usage does not depend on the size of the history.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExportService {
+
+    private static final String CSV_HEADER = "transactionId,fromAccountNumber,toAccountNumber,amount,"
+            + "currency,status,description,failureReason,transactionDate";
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Observed(name = "transfer.history.export", contextualName = "export-transaction-history")
+    public long export(String accountNumber, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long rows = 0;
+
+        try (Stream<Transaction> transactions =
+                TransactionHistoryStream.oldestFirst(transactionRepository, accountNumber)) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            // The generator writes into the buffered writer; only the final flush reaches the response
+            JsonGenerator generator = format == Format.NDJSON
+                    ? objectMapper.getFactory().createGenerator(writer)
+                            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                            .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                    : null;
+
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                if (generator != null) {
+                    objectMapper.writeValue(generator, transaction);
+                    generator.writeRaw('\n');
+                } else {
+                    writeCsvRow(writer, transaction);
+                }
+                entityManager.detach(transaction);
+                rows++;
+            }
+
+            if (generator != null) {
+                generator.flush();
+            }
+        }
+
+        writer.flush();
+        log.info("Exported {} transactions for account {} as {}", rows, accountNumber, format);
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, Transaction transaction) throws IOException {
+        writer.write(csv(transaction.getTransactionId()));
+        writer.write(',');
+        writer.write(csv(transaction.getFromAccountNumber()));
+        writer.write(',');
+        writer.write(csv(transaction.getToAccountNumber()));
+        writer.write(',');
+        writer.write(transaction.getAmount().toString());
+        writer.write(',');
+        writer.write(csv(transaction.getCurrency()));
+        writer.write(',');
+        writer.write(csv(transaction.getStatus()));
+        writer.write(',');
+        writer.write(csv(transaction.getDescription()));
+        writer.write(',');
+        writer.write(csv(transaction.getFailureReason()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getTransactionDate()));
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,84 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An account's full transaction history, oldest first, merged from its
+ * outgoing and incoming cursors. Each side is read in the order of its
+ * (account, transactionDate, id) index, so the database never has to sort
+ * the history and only one row per side is held ahead of the caller.
+ */
+final class TransactionHistoryStream implements Iterator<Transaction> {
+
+    private static final Comparator<Transaction> OLDEST_FIRST = Comparator
+            .comparing(Transaction::getTransactionDate)
+            .thenComparing(Transaction::getId);
+
+    private final Iterator<Transaction> outgoing;
+    private final Iterator<Transaction> incoming;
+    private Transaction nextOutgoing;
+    private Transaction nextIncoming;
+
+    private TransactionHistoryStream(Iterator<Transaction> outgoing, Iterator<Transaction> incoming) {
+        this.outgoing = outgoing;
+        this.incoming = incoming;
+        this.nextOutgoing = advance(outgoing);
+        this.nextIncoming = advance(incoming);
+    }
+
+    /** Must be consumed inside a transaction and closed by the caller. */
+    static Stream<Transaction> oldestFirst(TransactionRepository transactionRepository, String accountNumber) {
+        Stream<Transaction> outgoing = transactionRepository.streamOutgoing(accountNumber);
+        Stream<Transaction> incoming;
+        try {
+            incoming = transactionRepository.streamIncoming(accountNumber);
+        } catch (RuntimeException e) {
+            outgoing.close();
+            throw e;
+        }
+        Iterator<Transaction> merged = new TransactionHistoryStream(outgoing.iterator(), incoming.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(outgoing::close)
+                .onClose(incoming::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextOutgoing != null || nextIncoming != null;
+    }
+
+    @Override
+    public Transaction next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Transaction next;
+        if (nextIncoming == null
+                || (nextOutgoing != null && OLDEST_FIRST.compare(nextOutgoing, nextIncoming) <= 0)) {
+            next = nextOutgoing;
+            nextOutgoing = advance(outgoing);
+        } else {
+            next = nextIncoming;
+            nextIncoming = advance(incoming);
+        }
+        // Transfers to self appear on both sides
+        if (nextIncoming != null && nextIncoming.getId().equals(next.getId())) {
+            nextIncoming = advance(incoming);
+        }
+        return next;
+    }
+
+    private static Transaction advance(Iterator<Transaction> side) {
+        return side.hasNext() ? side.next() : null;
+    }
+}
@@ -0,0 +1,272 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.exception.AccountInactiveException;
+import com.workshop.moneytransfer.exception.AccountNotFoundException;
+import com.workshop.moneytransfer.exception.ConcurrentUpdateException;
+import com.workshop.moneytransfer.exception.InsufficientFundsException;
+import com.workshop.moneytransfer.exception.LockTimeoutException;
+import com.workshop.moneytransfer.exception.TransferPendingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters recorded by {@link TransferService}, {@link AccountService} and
+ * {@link AccountImportService}.
+ *
+ * Every single transfer is timed once in {@code money.transfer.duration},
+ * tagged with its {@link Outcome}, and its time inside the database
+ * transaction is split into {@link Phase}s in {@code money.transfer.phase}.
+ * Time spent queueing for the in-JVM account locks, before the transaction
+ * starts, is {@code money.transfer.lock.wait} (see {@link AccountLockManager}).
+ * All timers publish Prometheus histogram buckets, so percentiles can be
+ * aggregated across instances.
+ *
+ * Account operations are timed in {@code money.account.duration}. Bulk
+ * imports add to {@code money.account.created} and count the rows they
+ * reject in {@code money.account.import.rejected}.
+ *
+ * Tags are low-cardinality: {@code type} on every meter, plus
+ * {@code outcome}, {@code phase} or {@code operation} from the fixed sets
+ * below.
+ */
+@Component
+public class TransferMetrics {
+
+    public enum Outcome {
+        SUCCESS, INSUFFICIENT_FUNDS, NOT_FOUND, INACTIVE, INVALID, CONFLICT, TIMEOUT, ERROR;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Steps of a transfer's database transaction. Hibernate defers the
+     * UPDATE and INSERT statements until the activity aggregates are
+     * updated, so UPDATE is mostly in-memory work and the SQL writes land
+     * in LEDGER_INSERT; COMMIT covers any remaining flush and the commit.
+     */
+    public enum Phase {
+        ACCOUNT_LOAD, VALIDATION, UPDATE, LEDGER_INSERT, COMMIT;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public enum AccountOperation {
+        CREATE, GET, UPDATE_STATUS;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Duration TRANSFER_MIN = Duration.ofMillis(1);
+    private static final Duration TRANSFER_MAX = Duration.ofSeconds(10);
+    private static final Duration PHASE_MIN = Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(50));
+    private static final Duration PHASE_MAX = Duration.ofSeconds(5);
+
+    private final MeterRegistry registry;
+    private final Counter transfers;
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter accountsCreated;
+    private final Counter importRowsRejected;
+    private final Map<Outcome, Timer> durations = new EnumMap<>(Outcome.class);
+    private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+    private final Map<AccountOperation, Map<Outcome, Timer>> accountTimers = new EnumMap<>(AccountOperation.class);
+
+    public TransferMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.transfers = Counter.builder("money.transfer.count")
+                .description("Total number of money transfers")
+                .tag("type", "transfer")
+                .register(registry);
+        this.succeeded = Counter.builder("money.transfer.success")
+                .description("Successful money transfers")
+                .tag("type", "transfer")
+                .tag("status", "success")
+                .register(registry);
+        this.failed = Counter.builder("money.transfer.failure")
+                .description("Failed money transfers")
+                .tag("type", "transfer")
+                .tag("status", "failure")
+                .register(registry);
+        this.accountsCreated = Counter.builder("money.account.created")
+                .description("Total accounts created")
+                .tag("type", "account")
+                .register(registry);
+        this.importRowsRejected = Counter.builder("money.account.import.rejected")
+                .description("Bulk account import rows rejected as invalid or unstorable")
+                .tag("type", "account")
+                .register(registry);
+        for (Outcome outcome : Outcome.values()) {
+            durations.put(outcome, Timer.builder("money.transfer.duration")
+                    .description("Money transfer processing time")
+                    .tag("type", "transfer")
+                    .tag("outcome", outcome.tag())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(TRANSFER_MIN)
+                    .maximumExpectedValue(TRANSFER_MAX)
+                    .register(registry));
+        }
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, Timer.builder("money.transfer.phase")
+                    .description("Time spent in one step of a transfer's database transaction")
+                    .tag("type", "transfer")
+                    .tag("phase", phase.tag())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(PHASE_MIN)
+                    .maximumExpectedValue(PHASE_MAX)
+                    .register(registry));
+        }
+        for (AccountOperation operation : AccountOperation.values()) {
+            Map<Outcome, Timer> timers = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : List.of(Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.ERROR)) {
+                timers.put(outcome, Timer.builder("money.account.duration")
+                        .description("Account service operation time")
+                        .tag("type", "account")
+                        .tag("operation", operation.tag())
+                        .tag("outcome", outcome.tag())
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(PHASE_MIN)
+                        .maximumExpectedValue(TRANSFER_MAX)
+                        .register(registry));
+            }
+            accountTimers.put(operation, timers);
+        }
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /** Count a finished transfer and record its duration under its outcome. */
+    public void transferCompleted(Timer.Sample sample, Outcome outcome) {
+        sample.stop(durations.get(outcome));
+        counted(outcome == Outcome.SUCCESS);
+    }
+
+    /** Count one item of a batch; batch items are not timed individually. */
+    public void batchItemCompleted(boolean success) {
+        counted(success);
+    }
+
+    private void counted(boolean success) {
+        transfers.increment();
+        (success ? succeeded : failed).increment();
+    }
+
+    public static Outcome outcomeOf(Throwable error) {
+        if (error instanceof InsufficientFundsException) {
+            return Outcome.INSUFFICIENT_FUNDS;
+        }
+        if (error instanceof AccountNotFoundException) {
+            return Outcome.NOT_FOUND;
+        }
+        if (error instanceof AccountInactiveException) {
+            return Outcome.INACTIVE;
+        }
+        if (error instanceof IllegalArgumentException) {
+            return Outcome.INVALID;
+        }
+        if (error instanceof ConcurrentUpdateException) {
+            return Outcome.CONFLICT;
+        }
+        if (error instanceof LockTimeoutException || error instanceof TransferPendingException) {
+            return Outcome.TIMEOUT;
+        }
+        return Outcome.ERROR;
+    }
+
+    /** Start timing the phases of one transfer. */
+    public Laps laps() {
+        return new Laps(this, System.nanoTime());
+    }
+
+    /**
+     * Record the flush and commit of the current transaction as
+     * {@link Phase#COMMIT}. Does nothing outside a Spring-managed transaction.
+     */
+    public void timeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long start;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                start = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                if (start != 0) {
+                    phases.get(Phase.COMMIT).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        });
+    }
+
+    public void accountCreated() {
+        accountsCreated.increment();
+    }
+
+    public void accountsCreated(long count) {
+        accountsCreated.increment(count);
+    }
+
+    public void importRowsRejected(long count) {
+        importRowsRejected.increment(count);
+    }
+
+    /**
+     * Record one {@link AccountService} operation; {@code error} is null on
+     * success. Outcomes other than NOT_FOUND are reported as ERROR.
+     */
+    public void accountOperationCompleted(Timer.Sample sample, AccountOperation operation, Throwable error) {
+        Outcome outcome = error == null ? Outcome.SUCCESS
+                : error instanceof AccountNotFoundException ? Outcome.NOT_FOUND
+                : Outcome.ERROR;
+        sample.stop(accountTimers.get(operation).get(outcome));
+    }
+
+    /**
+     * Stopwatch for consecutive phases: each {@link #lap} records the time
+     * since the previous one. {@link #NONE} records nothing.
+     */
+    public static final class Laps {
+
+        public static final Laps NONE = new Laps(null, 0);
+
+        private final TransferMetrics metrics;
+        private long last;
+
+        private Laps(TransferMetrics metrics, long start) {
+            this.metrics = metrics;
+            this.last = start;
+        }
+
+        public void lap(Phase phase) {
+            if (metrics == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            metrics.phases.get(phase).record(now - last, TimeUnit.NANOSECONDS);
+            last = now;
+        }
+    }
+}
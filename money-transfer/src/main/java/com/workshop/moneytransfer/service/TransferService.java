@@ -1,29 +1,78 @@
 package com.workshop.moneytransfer.service;
 
+import com.workshop.moneytransfer.audit.FailedTransferAuditWriter;
+import com.workshop.moneytransfer.dto.TransactionPage;
+import com.workshop.moneytransfer.dto.TransferRequest;
+import com.workshop.moneytransfer.dto.TransferResult;
+import com.workshop.moneytransfer.engine.PendingTransfer;
+import com.workshop.moneytransfer.engine.ShardedLedgerEngine;
+import com.workshop.moneytransfer.exception.AccountInactiveException;
 import com.workshop.moneytransfer.exception.AccountNotFoundException;
 import com.workshop.moneytransfer.exception.InsufficientFundsException;
+import com.workshop.moneytransfer.exception.LockTimeoutException;
+import com.workshop.moneytransfer.exception.TransferPendingException;
+import com.workshop.moneytransfer.journal.TransferJournal;
 import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
 import com.workshop.moneytransfer.model.Transaction;
 import com.workshop.moneytransfer.repository.AccountRepository;
 import com.workshop.moneytransfer.repository.TransactionRepository;
 
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TransferService {
 
+        private static final LocalDateTime HISTORY_MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+        private static final Comparator<Transaction> NEWEST_FIRST = Comparator
+                        .comparing(Transaction::getTransactionDate, Comparator.reverseOrder())
+                        .thenComparing(Transaction::getId, Comparator.reverseOrder());
+
         private final AccountRepository accountRepository;
         private final TransactionRepository transactionRepository;
+        private final AccountLockManager accountLockManager;
+        private final AccountCache accountCache;
+        private final TransactionOperations transactionOperations;
+        private final HotAccountLedger hotAccountLedger;
+        private final TransferJournal transferJournal;
+        private final IdempotencyStore idempotencyStore;
+        private final OptimisticTransferRetry optimisticRetry;
+        private final ShardedLedgerEngine ledgerEngine;
+        private final TransferMetrics transferMetrics;
+        private final FailedTransferAuditWriter failureAudit;
+        private final AccountActivityService accountActivity;
+
+        @Value("${money.transfer.concurrency-mode:pessimistic}")
+        private ConcurrencyMode concurrencyMode = ConcurrencyMode.PESSIMISTIC;
+
+        @Value("${money.transfer.batch.chunk-size:500}")
+        private int batchChunkSize = 500;
+
+        @Value("${money.transfer.history.max-page-size:200}")
+        private int historyMaxPageSize = 200;
 
         /**
          * Transfer money between accounts
@@ -34,89 +83,515 @@ public class TransferService {
          * 4. Credit to destination account
          * 5. Update both accounts
          * 6. Record transaction
+         *
+         * The in-JVM account locks are taken before the database transaction
+         * starts, so waiters on a hot account do not hold pooled connections.
+         * Credits to a designated hot account go to one of its balance slots
+         * (see {@link HotAccountLedger}) instead of locking the account row.
+         *
+         * In {@link ConcurrencyMode#OPTIMISTIC} mode no locks are taken; the
+         * accounts' version columns detect concurrent writers at commit and the
+         * whole transaction is retried (see {@link OptimisticTransferRetry}).
+         *
+         * With the sharded engine enabled the transfer is executed in memory
+         * by {@link ShardedLedgerEngine} and persisted asynchronously; none of
+         * the above applies.
+         *
+         * Each execution is timed by outcome, and its database transaction
+         * by phase (see {@link TransferMetrics}).
+         *
+         * A transfer rejected for insufficient funds rolls back; its FAILED
+         * record is written afterwards by {@link FailedTransferAuditWriter}.
+         * A successful one updates both accounts' activity aggregates in its
+         * own transaction (see {@link AccountActivityService}).
+         */
+        @Observed(name = "transfer.execute", contextualName = "execute-transfer")
+        public Transaction transfer(String fromAccountNumber, String toAccountNumber,
+                        Money amount, String description) {
+                return executeTransfer(fromAccountNumber, toAccountNumber, amount, description, null);
+        }
+
+        /**
+         * Transfer with a client-supplied idempotency key. A key whose transfer
+         * already completed returns the original transaction without locking
+         * or touching any account. The key is recorded in the transfer's own
+         * database transaction, so it exists exactly when the transfer committed.
          */
-        @Transactional
         @Observed(name = "transfer.execute", contextualName = "execute-transfer")
         public Transaction transfer(String fromAccountNumber, String toAccountNumber,
-                        BigDecimal amount, String description) {
+                        Money amount, String description, String idempotencyKey) {
+
+                if (idempotencyKey == null) {
+                        return executeTransfer(fromAccountNumber, toAccountNumber, amount, description, null);
+                }
+
+                IdempotencyStore.Request idempotency = IdempotencyStore.request(
+                                idempotencyKey, fromAccountNumber, toAccountNumber, amount, description);
+                Optional<Transaction> completed = idempotencyStore.find(idempotency);
+                if (completed.isPresent()) {
+                        log.info("Replaying transfer {} for Idempotency-Key {}",
+                                        completed.get().getTransactionId(), idempotencyKey);
+                        return completed.get();
+                }
+
+                try {
+                        return executeTransfer(fromAccountNumber, toAccountNumber, amount, description, idempotency);
+                } catch (DataIntegrityViolationException e) {
+                        // A concurrent request with the same key (but other accounts) committed first
+                        return idempotencyStore.find(idempotency).orElseThrow(() -> e);
+                }
+        }
+
+        private Transaction executeTransfer(String fromAccountNumber, String toAccountNumber,
+                        Money amount, String description, IdempotencyStore.Request idempotency) {
+
+                Timer.Sample sample = transferMetrics.start();
+                try {
+                        Transaction transaction = dispatchTransfer(
+                                        fromAccountNumber, toAccountNumber, amount, description, idempotency);
+                        transferMetrics.transferCompleted(sample, TransferMetrics.Outcome.SUCCESS);
+                        return transaction;
+                } catch (RuntimeException e) {
+                        transferMetrics.transferCompleted(sample, TransferMetrics.outcomeOf(e));
+                        throw e;
+                }
+        }
+
+        private Transaction dispatchTransfer(String fromAccountNumber, String toAccountNumber,
+                        Money amount, String description, IdempotencyStore.Request idempotency) {
+
+                if (ledgerEngine.isEnabled()) {
+                        return ledgerEngine.transfer(fromAccountNumber, toAccountNumber, amount, description, idempotency);
+                }
+
+                if (hotAccountLedger.isHot(toAccountNumber) && !hotAccountLedger.isHot(fromAccountNumber)) {
+                        return transferToSlot(fromAccountNumber, toAccountNumber, amount, description, idempotency);
+                }
+
+                if (concurrencyMode == ConcurrencyMode.OPTIMISTIC) {
+                        return optimisticRetry.execute(() -> transactionOperations.execute(status -> doTransfer(
+                                        fromAccountNumber, toAccountNumber, amount, description, idempotency, false)));
+                }
+
+                try (AccountLockManager.Locks ignored =
+                                accountLockManager.lock(fromAccountNumber, toAccountNumber)) {
+                        return transactionOperations.execute(status -> doTransfer(
+                                        fromAccountNumber, toAccountNumber, amount, description, idempotency, true));
+                }
+        }
+
+        private Transaction doTransfer(String fromAccountNumber, String toAccountNumber,
+                        Money amount, String description, IdempotencyStore.Request idempotency,
+                        boolean lockRows) {
+
+                // A request with the same key may have completed while this one waited for the locks
+                Optional<Transaction> completed = findCompleted(idempotency);
+                if (completed.isPresent()) {
+                        return completed.get();
+                }
 
-                log.info("Starting transfer: {} -> {}, amount: {}",
+                log.debug("Starting transfer: {} -> {}, amount: {}",
                                 fromAccountNumber, toAccountNumber, amount);
+                TransferMetrics.Laps laps = transferMetrics.laps();
 
-                // Step 1: Load Account 1 (from account)
-                Account fromAccount = accountRepository.findByAccountNumber(fromAccountNumber)
-                                .orElseThrow(() -> new AccountNotFoundException(
-                                                "Source account not found: " + fromAccountNumber));
+                // Step 1 & 2: Load and row-lock both accounts in canonical order
+                // so concurrent A->B and B->A transfers cannot deadlock in the database.
+                // Optimistic mode reads without locks; the version check on update
+                // rejects the commit if either row changed in the meantime.
+                Account fromAccount;
+                Account toAccount;
+                if (fromAccountNumber.compareTo(toAccountNumber) <= 0) {
+                        fromAccount = loadSource(fromAccountNumber, lockRows);
+                        toAccount = loadDestination(toAccountNumber, lockRows);
+                } else {
+                        toAccount = loadDestination(toAccountNumber, lockRows);
+                        fromAccount = loadSource(fromAccountNumber, lockRows);
+                }
+                accountCache.refreshOnCommit(List.of(fromAccount, toAccount));
+                hotAccountLedger.sweepIfShort(fromAccount, amount);
+                laps.lap(TransferMetrics.Phase.ACCOUNT_LOAD);
+
+                Transaction transaction = applyOrRecordFailure(fromAccount, toAccount, amount, description, laps);
+
+                // Step 5: Update both accounts
+                accountRepository.save(fromAccount);
+                accountRepository.save(toAccount);
+                laps.lap(TransferMetrics.Phase.UPDATE);
+
+                // Step 6: Record successful transaction
+                Transaction savedTransaction = recordTransaction(transaction, fromAccount);
+                accountActivity.apply(new AccountActivityService.Changes().add(savedTransaction));
+                saveCompleted(idempotency, savedTransaction);
+                laps.lap(TransferMetrics.Phase.LEDGER_INSERT);
+                transferMetrics.timeCommit();
 
-                // Step 2: Load Account 2 (to account)
-                Account toAccount = accountRepository.findByAccountNumber(toAccountNumber)
+                log.info("Transfer completed successfully. Transaction ID: {}",
+                                savedTransaction.getTransactionId());
+
+                return savedTransaction;
+        }
+
+        private Transaction transferToSlot(String fromAccountNumber, String toAccountNumber,
+                        Money amount, String description, IdempotencyStore.Request idempotency) {
+
+                int slot = hotAccountLedger.pickSlot();
+                try (AccountLockManager.Locks ignored = accountLockManager.lock(
+                                fromAccountNumber, HotAccountLedger.slotLockKey(toAccountNumber, slot))) {
+                        return transactionOperations.execute(status -> doTransferToSlot(
+                                        fromAccountNumber, toAccountNumber, slot, amount, description, idempotency));
+                }
+        }
+
+        private Transaction doTransferToSlot(String fromAccountNumber, String toAccountNumber, int slot,
+                        Money amount, String description, IdempotencyStore.Request idempotency) {
+
+                Optional<Transaction> completed = findCompleted(idempotency);
+                if (completed.isPresent()) {
+                        return completed.get();
+                }
+
+                log.debug("Starting transfer: {} -> {} (slot {}), amount: {}",
+                                fromAccountNumber, toAccountNumber, slot, amount);
+                TransferMetrics.Laps laps = transferMetrics.laps();
+
+                Account fromAccount = loadSource(fromAccountNumber, true);
+                // The hot account row is only read for validation; the credit goes to the slot
+                Account toAccount = accountCache.get(toAccountNumber, accountRepository::findByAccountNumber)
+                                .map(Account::snapshot)
                                 .orElseThrow(() -> new AccountNotFoundException(
                                                 "Destination account not found: " + toAccountNumber));
+                accountCache.refreshOnCommit(List.of(fromAccount));
+                laps.lap(TransferMetrics.Phase.ACCOUNT_LOAD);
+
+                Transaction transaction = applyOrRecordFailure(fromAccount, toAccount, amount, description, laps);
+
+                hotAccountLedger.creditSlot(toAccountNumber, slot, amount);
+                accountRepository.save(fromAccount);
+                laps.lap(TransferMetrics.Phase.UPDATE);
+                Transaction savedTransaction = recordTransaction(transaction, fromAccount);
+                // Credits to the hot account's slot n are counted in its activity stripe n + 1
+                accountActivity.apply(new AccountActivityService.Changes().add(savedTransaction, slot + 1));
+                saveCompleted(idempotency, savedTransaction);
+                laps.lap(TransferMetrics.Phase.LEDGER_INSERT);
+                transferMetrics.timeCommit();
+
+                log.info("Transfer completed successfully. Transaction ID: {}",
+                                savedTransaction.getTransactionId());
+
+                return savedTransaction;
+        }
+
+        /**
+         * Execute a batch of transfers in chunked transactions.
+         * Each chunk locks all of its accounts once (in canonical order), applies
+         * the transfers in memory and lets Hibernate flush the account updates and
+         * transaction inserts as JDBC batches on commit. Rejected items are
+         * reported per index and do not roll back the rest of the chunk.
+         * With the sharded engine all items are queued at once and collected
+         * in order.
+         */
+        @Observed(name = "transfer.batch", contextualName = "execute-transfer-batch")
+        public List<TransferResult> transferBatch(List<TransferRequest> requests) {
+                if (ledgerEngine.isEnabled()) {
+                        return transferBatchInEngine(requests);
+                }
+                List<TransferResult> results = new ArrayList<>(requests.size());
+                for (int start = 0; start < requests.size(); start += batchChunkSize) {
+                        List<TransferRequest> chunk = requests.subList(
+                                        start, Math.min(start + batchChunkSize, requests.size()));
+                        results.addAll(transferChunk(chunk, start));
+                }
+                countBatchItems(results);
+                return results;
+        }
+
+        private List<TransferResult> transferBatchInEngine(List<TransferRequest> requests) {
+                // Once a shard's queue stays full, the rest of the batch is not submitted
+                List<PendingTransfer> submitted = new ArrayList<>(requests.size());
+                LockTimeoutException queueFull = null;
+                for (TransferRequest request : requests) {
+                        try {
+                                submitted.add(ledgerEngine.submit(request.getFromAccountNumber(),
+                                                request.getToAccountNumber(), request.getAmount(),
+                                                request.getDescription(), null));
+                        } catch (LockTimeoutException e) {
+                                queueFull = e;
+                                break;
+                        }
+                }
+
+                List<TransferResult> results = new ArrayList<>(requests.size());
+                for (int index = 0; index < requests.size(); index++) {
+                        if (index >= submitted.size()) {
+                                results.add(TransferResult.failure(index, null, "LOCK_TIMEOUT", queueFull.getMessage()));
+                                continue;
+                        }
+                        try {
+                                Transaction transaction = ledgerEngine.await(submitted.get(index));
+                                results.add("FAILED".equals(transaction.getStatus())
+                                                ? TransferResult.failure(index, transaction.getTransactionId(),
+                                                                "INSUFFICIENT_FUNDS", transaction.getFailureReason())
+                                                : TransferResult.success(index, transaction.getTransactionId()));
+                        } catch (AccountNotFoundException e) {
+                                results.add(TransferResult.failure(index, null, "ACCOUNT_NOT_FOUND", e.getMessage()));
+                        } catch (IllegalStateException e) {
+                                results.add(TransferResult.failure(index, null, "INVALID_STATE", e.getMessage()));
+                        } catch (IllegalArgumentException e) {
+                                results.add(TransferResult.failure(index, null, "INVALID_REQUEST", e.getMessage()));
+                        } catch (LockTimeoutException e) {
+                                results.add(TransferResult.failure(index, null, "LOCK_TIMEOUT", e.getMessage()));
+                        } catch (TransferPendingException e) {
+                                results.add(TransferResult.pending(index, e.getTransactionId(), e.getMessage()));
+                        }
+                }
+                countBatchItems(results);
+                return results;
+        }
+
+        private void countBatchItems(List<TransferResult> results) {
+                for (TransferResult result : results) {
+                        transferMetrics.batchItemCompleted("SUCCESS".equals(result.getStatus()));
+                }
+        }
+
+        private List<TransferResult> transferChunk(List<TransferRequest> chunk, int offset) {
+                String[] accountNumbers = chunk.stream()
+                                .flatMap(request -> Stream.of(
+                                                request.getFromAccountNumber(), request.getToAccountNumber()))
+                                .distinct()
+                                .sorted()
+                                .toArray(String[]::new);
+
+                try (AccountLockManager.Locks ignored = accountLockManager.lock(accountNumbers)) {
+                        return transactionOperations.execute(status -> doTransferChunk(
+                                        chunk, offset, Arrays.asList(accountNumbers)));
+                }
+        }
+
+        private List<TransferResult> doTransferChunk(List<TransferRequest> chunk, int offset,
+                        List<String> accountNumbers) {
+
+                Map<String, Account> accounts = new HashMap<>();
+                List<Account> lockedAccounts = accountRepository.findAllByAccountNumberInForUpdate(accountNumbers);
+                for (Account account : lockedAccounts) {
+                        accounts.put(account.getAccountNumber(), account);
+                }
+                accountCache.refreshOnCommit(lockedAccounts);
+
+                List<TransferResult> results = new ArrayList<>(chunk.size());
+                List<Transaction> transactions = new ArrayList<>(chunk.size());
+
+                for (int i = 0; i < chunk.size(); i++) {
+                        TransferRequest request = chunk.get(i);
+                        int index = offset + i;
+                        Account fromAccount = accounts.get(request.getFromAccountNumber());
+                        Account toAccount = accounts.get(request.getToAccountNumber());
+
+                        if (fromAccount == null) {
+                                results.add(TransferResult.failure(index, null, "ACCOUNT_NOT_FOUND",
+                                                "Source account not found: " + request.getFromAccountNumber()));
+                                continue;
+                        }
+                        if (toAccount == null) {
+                                results.add(TransferResult.failure(index, null, "ACCOUNT_NOT_FOUND",
+                                                "Destination account not found: " + request.getToAccountNumber()));
+                                continue;
+                        }
+
+                        try {
+                                hotAccountLedger.sweepIfShort(fromAccount, request.getAmount());
+                                Transaction transaction = applyTransfer(fromAccount, toAccount,
+                                                request.getAmount(), request.getDescription(),
+                                                TransferMetrics.Laps.NONE);
+                                transactions.add(transaction);
+                                results.add(TransferResult.success(index, transaction.getTransactionId()));
+                        } catch (InsufficientFundsException e) {
+                                Transaction failedTransaction = createTransaction(
+                                                request.getFromAccountNumber(), request.getToAccountNumber(),
+                                                request.getAmount(), request.getDescription(),
+                                                "FAILED", e.getMessage());
+                                transactions.add(failedTransaction);
+                                results.add(TransferResult.failure(index, failedTransaction.getTransactionId(),
+                                                "INSUFFICIENT_FUNDS", e.getMessage()));
+                        } catch (IllegalStateException e) {
+                                results.add(TransferResult.failure(index, null, "INVALID_STATE", e.getMessage()));
+                        } catch (IllegalArgumentException e) {
+                                results.add(TransferResult.failure(index, null, "INVALID_REQUEST", e.getMessage()));
+                        }
+                }
+
+                // Managed accounts and inserts are flushed as JDBC batches ahead of the activity update
+                transactionRepository.saveAll(transactions);
+                AccountActivityService.Changes activity = new AccountActivityService.Changes();
+                transactions.stream()
+                                .filter(transaction -> "SUCCESS".equals(transaction.getStatus()))
+                                .forEach(activity::add);
+                accountActivity.apply(activity);
+
+                log.info("Batch chunk completed: {} transfers, {} accounts",
+                                chunk.size(), accounts.size());
+
+                return results;
+        }
+
+        private Transaction applyOrRecordFailure(Account fromAccount, Account toAccount,
+                        Money amount, String description, TransferMetrics.Laps laps) {
+                try {
+                        return applyTransfer(fromAccount, toAccount, amount, description, laps);
+                } catch (InsufficientFundsException e) {
+                        // Recorded outside this transaction, which rolls back with the exception
+                        failureAudit.record(createTransaction(
+                                        fromAccount.getAccountNumber(), toAccount.getAccountNumber(), amount,
+                                        description, "FAILED", e.getMessage()));
+
+                        throw e;
+                }
+        }
+
+        private Optional<Transaction> findCompleted(IdempotencyStore.Request idempotency) {
+                return idempotency != null ? idempotencyStore.find(idempotency) : Optional.empty();
+        }
+
+        private void saveCompleted(IdempotencyStore.Request idempotency, Transaction transaction) {
+                if (idempotency != null) {
+                        idempotencyStore.save(idempotency, transaction);
+                }
+        }
+
+        /**
+         * Persist a transfer record. With the journal enabled it is appended
+         * (and projected into the transactions table in the background)
+         * instead of inserted here, so the returned record has no id yet.
+         */
+        private Transaction recordTransaction(Transaction transaction, Account fromAccount) {
+                if (transferJournal.isEnabled()) {
+                        transferJournal.append(transaction, fromAccount);
+                        return transaction;
+                }
+                return transactionRepository.save(transaction);
+        }
+
+        /**
+         * Validate and apply a transfer to already-locked accounts.
+         * Returns the (unsaved) SUCCESS transaction, or throws without touching
+         * either balance.
+         */
+        private Transaction applyTransfer(Account fromAccount, Account toAccount,
+                        Money amount, String description, TransferMetrics.Laps laps) {
+
+                String fromAccountNumber = fromAccount.getAccountNumber();
+                String toAccountNumber = toAccount.getAccountNumber();
 
                 // Validate accounts are active
                 if (!"ACTIVE".equals(fromAccount.getStatus())) {
-                        throw new IllegalStateException("Source account is not active");
+                        throw new AccountInactiveException("Source account is not active");
                 }
 
                 if (!"ACTIVE".equals(toAccount.getStatus())) {
-                        throw new IllegalStateException("Destination account is not active");
+                        throw new AccountInactiveException("Destination account is not active");
                 }
 
                 // Validate amount
-                if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+                if (!amount.isPositive()) {
                         throw new IllegalArgumentException("Transfer amount must be positive");
                 }
 
                 // Check sufficient funds
-                if (fromAccount.getBalance().compareTo(amount) < 0) {
-                        String errorMsg = String.format(
+                if (!fromAccount.canCover(amount)) {
+                        throw new InsufficientFundsException(String.format(
                                         "Insufficient funds in account %s. Balance: %s, Required: %s",
-                                        fromAccountNumber, fromAccount.getBalance(), amount);
-
-                        // Record failed transaction
-                        Transaction failedTransaction = createTransaction(
-                                        fromAccountNumber, toAccountNumber, amount,
-                                        description, "FAILED", errorMsg);
-                        transactionRepository.save(failedTransaction);
-
-                        throw new InsufficientFundsException(errorMsg);
+                                        fromAccountNumber, fromAccount.getBalance(), amount));
                 }
+                laps.lap(TransferMetrics.Phase.VALIDATION);
 
                 // Step 3: Debit from source account
                 fromAccount.debit(amount);
-                log.info("Debited {} from account {}", amount, fromAccountNumber);
+                log.debug("Debited {} from account {}", amount, fromAccountNumber);
 
                 // Step 4: Credit to destination account
                 toAccount.credit(amount);
-                log.info("Credited {} to account {}", amount, toAccountNumber);
+                log.debug("Credited {} to account {}", amount, toAccountNumber);
 
-                // Step 5: Update both accounts
-                accountRepository.save(fromAccount);
-                accountRepository.save(toAccount);
-
-                // Step 6: Record successful transaction
-                Transaction transaction = createTransaction(
+                return createTransaction(
                                 fromAccountNumber, toAccountNumber, amount,
                                 description, "SUCCESS", null);
+        }
 
-                Transaction savedTransaction = transactionRepository.save(transaction);
+        private Account loadSource(String accountNumber, boolean forUpdate) {
+                return loadAccount(accountNumber, forUpdate)
+                                .orElseThrow(() -> new AccountNotFoundException(
+                                                "Source account not found: " + accountNumber));
+        }
 
-                log.info("Transfer completed successfully. Transaction ID: {}",
-                                savedTransaction.getTransactionId());
+        private Account loadDestination(String accountNumber, boolean forUpdate) {
+                return loadAccount(accountNumber, forUpdate)
+                                .orElseThrow(() -> new AccountNotFoundException(
+                                                "Destination account not found: " + accountNumber));
+        }
 
-                return savedTransaction;
+        private Optional<Account> loadAccount(String accountNumber, boolean forUpdate) {
+                return forUpdate
+                                ? accountRepository.findByAccountNumberForUpdate(accountNumber)
+                                : accountRepository.findByAccountNumber(accountNumber);
         }
 
         @Observed(name = "transfer.history", contextualName = "get-transaction-history")
+        @Transactional(readOnly = true)
         public List<Transaction> getTransactionHistory(String accountNumber) {
                 return transactionRepository.findByFromAccountNumberOrToAccountNumber(
                                 accountNumber, accountNumber);
         }
 
+        /**
+         * Keyset-paginated transaction history, newest first.
+         * Outgoing and incoming sides are read through their own
+         * (account, transactionDate, id) index and merged, so each page costs
+         * two bounded index range scans regardless of history size.
+         */
+        @Observed(name = "transfer.history.page", contextualName = "get-transaction-history-page")
+        @Transactional(readOnly = true)
+        public TransactionPage getTransactionHistoryPage(String accountNumber, String cursor, int size,
+                        LocalDateTime since, LocalDateTime until) {
+
+                int pageSize = Math.max(1, Math.min(size, historyMaxPageSize));
+                HistoryCursor before = HistoryCursor.decode(cursor);
+                LocalDateTime lowerBound = since != null ? since : HISTORY_MIN_DATE;
+                LocalDateTime upperBound = until != null ? until : HistoryCursor.START.getTransactionDate();
+                Limit limit = Limit.of(pageSize + 1);
+
+                List<Transaction> outgoing = transactionRepository.findOutgoingBefore(accountNumber,
+                                lowerBound, upperBound, before.getTransactionDate(), before.getId(), limit);
+                List<Transaction> incoming = transactionRepository.findIncomingBefore(accountNumber,
+                                lowerBound, upperBound, before.getTransactionDate(), before.getId(), limit);
+
+                List<Transaction> merged = new ArrayList<>(outgoing.size() + incoming.size());
+                int i = 0;
+                int j = 0;
+                while (merged.size() <= pageSize && (i < outgoing.size() || j < incoming.size())) {
+                        Transaction next;
+                        if (j >= incoming.size()
+                                        || (i < outgoing.size() && NEWEST_FIRST.compare(outgoing.get(i), incoming.get(j)) <= 0)) {
+                                next = outgoing.get(i++);
+                        } else {
+                                next = incoming.get(j++);
+                        }
+                        // Transfers to self appear on both sides
+                        if (merged.isEmpty() || !merged.get(merged.size() - 1).getId().equals(next.getId())) {
+                                merged.add(next);
+                        }
+                }
+
+                boolean hasMore = merged.size() > pageSize;
+                List<Transaction> items = hasMore ? merged.subList(0, pageSize) : merged;
+                String nextCursor = hasMore ? HistoryCursor.after(items.get(items.size() - 1)).encode() : null;
+
+                return new TransactionPage(new ArrayList<>(items), nextCursor, hasMore);
+        }
+
         @Observed(name = "transfer.transaction", contextualName = "get-transaction-by-id")
-        private Transaction createTransaction(String fromAccountNumber,
+        Transaction createTransaction(String fromAccountNumber,
                         String toAccountNumber,
-                        BigDecimal amount,
+                        Money amount,
                         String description,
                         String status,
                         String failureReason) {
@@ -125,7 +600,7 @@ public class TransferService {
                 transaction.setFromAccountNumber(fromAccountNumber);
                 transaction.setToAccountNumber(toAccountNumber);
                 transaction.setAmount(amount);
-                transaction.setCurrency("USD");
+                transaction.setCurrency(amount.getCurrency().getCurrencyCode());
                 transaction.setDescription(description);
                 transaction.setStatus(status);
                 transaction.setFailureReason(failureReason);
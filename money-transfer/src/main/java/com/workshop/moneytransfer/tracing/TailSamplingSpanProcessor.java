@@ -0,0 +1,318 @@
+package com.workshop.moneytransfer.tracing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Span processor that holds each trace's ended spans in memory and decides
+ * once per trace whether to pass them on to the exporting processor.
+ *
+ * A trace is decided when its local root span ends, or after
+ * {@code decisionWait} if the root never arrives. It is kept if any span
+ * ended with an error status (a transfer that threw, e.g. insufficient funds
+ * or an unknown account), if it took at least {@code latencyThreshold}, or
+ * otherwise with probability {@code sampleRate}, chosen from the trace id so
+ * every service makes the same choice. Spans that end after the decision
+ * follow it while the trace id is still remembered.
+ *
+ * The buffer is bounded in traces, in spans per trace and in spans overall.
+ * Spans that do not fit are dropped and counted; a dropped span that errored
+ * or was slow on its own is exported directly instead.
+ */
+@Slf4j
+public class TailSamplingSpanProcessor implements SpanProcessor, MeterBinder {
+
+    /** Why a trace was exported or not; also the {@code decision} tag. */
+    enum Decision {
+        ERROR, SLOW, SAMPLED, DROPPED;
+
+        boolean keep() {
+            return this != DROPPED;
+        }
+    }
+
+    private static final class TraceBuffer {
+
+        final long createdNanos = System.nanoTime();
+        final List<ReadableSpan> spans = new ArrayList<>();
+        boolean error;
+        boolean slow;
+        boolean closed;
+    }
+
+    private final SpanProcessor delegate;
+    private final boolean enabled;
+    private final long sampleBound;
+    private final long latencyThresholdNanos;
+    private final long decisionWaitNanos;
+    private final int maxTraces;
+    private final int maxSpansPerTrace;
+    private final int maxSpans;
+
+    private final ConcurrentHashMap<String, TraceBuffer> traces = new ConcurrentHashMap<>();
+    private final Cache<String, Decision> decided;
+    private final AtomicInteger bufferedTraces = new AtomicInteger();
+    private final AtomicInteger bufferedSpans = new AtomicInteger();
+    private final LongAdder[] decisions = new LongAdder[Decision.values().length];
+    private final LongAdder droppedBufferFull = new LongAdder();
+    private final LongAdder droppedTraceLimit = new LongAdder();
+    private final ScheduledExecutorService sweeper;
+
+    public TailSamplingSpanProcessor(SpanProcessor delegate, boolean enabled, double sampleRate,
+                                     Duration latencyThreshold, Duration decisionWait,
+                                     int maxTraces, int maxSpansPerTrace, int maxSpans) {
+        this.delegate = delegate;
+        this.enabled = enabled;
+        double rate = Math.max(0, Math.min(1, sampleRate));
+        this.sampleBound = rate >= 1 ? Long.MAX_VALUE : (long) (rate * Long.MAX_VALUE);
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.decisionWaitNanos = decisionWait.toNanos();
+        this.maxTraces = maxTraces;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.maxSpans = maxSpans;
+        this.decided = Caffeine.newBuilder()
+                .maximumSize(maxTraces)
+                .expireAfterWrite(decisionWait)
+                .build();
+        for (Decision decision : Decision.values()) {
+            decisions[decision.ordinal()] = new LongAdder();
+        }
+        if (enabled) {
+            long sweepMillis = Math.max(100, decisionWait.toMillis() / 10);
+            sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "trace-tail-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(this::decideExpired, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        } else {
+            sweeper = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (!enabled) {
+            delegate.onEnd(span);
+            return;
+        }
+        String traceId = span.getSpanContext().getTraceId();
+        SpanContext parent = span.getParentSpanContext();
+        boolean localRoot = !parent.isValid() || parent.isRemote();
+        while (true) {
+            Decision decision = decided.getIfPresent(traceId);
+            if (decision != null) {
+                if (decision.keep()) {
+                    delegate.onEnd(span);
+                }
+                return;
+            }
+            TraceBuffer buffer = traces.computeIfAbsent(traceId, id -> reserveTrace() ? new TraceBuffer() : null);
+            if (buffer == null) {
+                dropUnbuffered(span, droppedBufferFull);
+                return;
+            }
+            synchronized (buffer) {
+                if (buffer.closed) {
+                    // Decided by another thread since the lookup above; follow that decision
+                    continue;
+                }
+                buffer.error = buffer.error || isError(span);
+                buffer.slow = buffer.slow || span.getLatencyNanos() >= latencyThresholdNanos;
+                if (buffer.spans.size() >= maxSpansPerTrace) {
+                    dropUnbuffered(span, droppedTraceLimit);
+                } else if (reserveSpan()) {
+                    buffer.spans.add(span);
+                } else {
+                    dropUnbuffered(span, droppedBufferFull);
+                }
+                if (localRoot) {
+                    decide(traceId, buffer);
+                }
+            }
+            return;
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /** Decide every buffered trace now, then flush the exporting processor. */
+    @Override
+    public CompletableResultCode forceFlush() {
+        decideAll();
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        decideAll();
+        return delegate.shutdown();
+    }
+
+    int getBufferedTraces() {
+        return bufferedTraces.get();
+    }
+
+    int getBufferedSpans() {
+        return bufferedSpans.get();
+    }
+
+    long getDecisions(Decision decision) {
+        return decisions[decision.ordinal()].sum();
+    }
+
+    long getDroppedSpans() {
+        return droppedBufferFull.sum() + droppedTraceLimit.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tracing.tail.buffered.traces", this, TailSamplingSpanProcessor::getBufferedTraces)
+                .description("Traces waiting for a sampling decision")
+                .register(registry);
+        Gauge.builder("tracing.tail.buffered.spans", this, TailSamplingSpanProcessor::getBufferedSpans)
+                .description("Ended spans held until their trace is decided")
+                .register(registry);
+        for (Decision decision : Decision.values()) {
+            FunctionCounter.builder("tracing.tail.traces", this, p -> p.getDecisions(decision))
+                    .description("Traces decided by the tail sampler")
+                    .tag("decision", decision.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        FunctionCounter.builder("tracing.tail.spans.dropped", droppedBufferFull, LongAdder::sum)
+                .description("Spans discarded for lack of tail-sampling buffer space")
+                .tag("reason", "buffer-full")
+                .register(registry);
+        FunctionCounter.builder("tracing.tail.spans.dropped", droppedTraceLimit, LongAdder::sum)
+                .description("Spans discarded for lack of tail-sampling buffer space")
+                .tag("reason", "trace-limit")
+                .register(registry);
+    }
+
+    /** Caller holds the buffer's lock. */
+    private void decide(String traceId, TraceBuffer buffer) {
+        Decision decision;
+        if (buffer.error) {
+            decision = Decision.ERROR;
+        } else if (buffer.slow || System.nanoTime() - buffer.createdNanos >= latencyThresholdNanos) {
+            decision = Decision.SLOW;
+        } else if (sampled(traceId)) {
+            decision = Decision.SAMPLED;
+        } else {
+            decision = Decision.DROPPED;
+        }
+        decided.put(traceId, decision);
+        buffer.closed = true;
+        traces.remove(traceId, buffer);
+        bufferedTraces.decrementAndGet();
+        bufferedSpans.addAndGet(-buffer.spans.size());
+        decisions[decision.ordinal()].increment();
+        if (decision.keep()) {
+            buffer.spans.forEach(delegate::onEnd);
+        }
+        buffer.spans.clear();
+    }
+
+    private void decideExpired() {
+        try {
+            long now = System.nanoTime();
+            traces.forEach((traceId, buffer) -> {
+                if (now - buffer.createdNanos >= decisionWaitNanos) {
+                    decideIfOpen(traceId, buffer);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Tail sampling sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private void decideAll() {
+        traces.forEach(this::decideIfOpen);
+    }
+
+    private void decideIfOpen(String traceId, TraceBuffer buffer) {
+        synchronized (buffer) {
+            if (!buffer.closed) {
+                decide(traceId, buffer);
+            }
+        }
+    }
+
+    /** A span with no room in the buffer is still exported if it stands out on its own. */
+    private void dropUnbuffered(ReadableSpan span, LongAdder reason) {
+        if (isError(span) || span.getLatencyNanos() >= latencyThresholdNanos) {
+            delegate.onEnd(span);
+        } else {
+            reason.increment();
+        }
+    }
+
+    private boolean reserveTrace() {
+        if (bufferedTraces.incrementAndGet() > maxTraces) {
+            bufferedTraces.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean reserveSpan() {
+        if (bufferedSpans.incrementAndGet() > maxSpans) {
+            bufferedSpans.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /** Same test as the SDK's trace-id ratio sampler, on the low 64 bits of the id. */
+    private boolean sampled(String traceId) {
+        long random = Long.parseUnsignedLong(traceId, 16, 32, 16);
+        return Math.abs(random) < sampleBound;
+    }
+
+    private static boolean isError(ReadableSpan span) {
+        // ReadableSpan has no status accessor in this SDK version
+        return span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR;
+    }
+}
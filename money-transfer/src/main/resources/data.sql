@@ -1,14 +1,15 @@
 -- Demo accounts for testing transfers and tracing
 -- Must include created_at and updated_at since they are NOT NULL
-INSERT INTO accounts (account_number, account_holder_name, balance, currency, status, created_at, updated_at) 
+-- Ids come from the pooled accounts_seq sequence (no IDENTITY column)
+INSERT INTO accounts (id, account_number, account_holder_name, balance, currency, status, created_at, updated_at, version) 
 VALUES 
-  ('ACC001', 'Alice Smith', 5000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-  ('ACC002', 'Bob Jones', 3000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-  ('ACC003', 'Charlie Brown', 7500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-  ('ACC004', 'Diana Prince', 2000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-  ('ACC005', 'Eve Davis', 10000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-  ('ACC006', 'Frank Miller', 4500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-  ('ACC007', 'Grace Lee', 6000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-  ('ACC008', 'Henry Ford', 8500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-  ('ACC009', 'Ivy Chen', 1500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-  ('ACC010', 'Jack Ryan', 9500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
\ No newline at end of file
+  (NEXT VALUE FOR accounts_seq, 'ACC001', 'Alice Smith', 5000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+  (NEXT VALUE FOR accounts_seq, 'ACC002', 'Bob Jones', 3000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+  (NEXT VALUE FOR accounts_seq, 'ACC003', 'Charlie Brown', 7500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+  (NEXT VALUE FOR accounts_seq, 'ACC004', 'Diana Prince', 2000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+  (NEXT VALUE FOR accounts_seq, 'ACC005', 'Eve Davis', 10000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+  (NEXT VALUE FOR accounts_seq, 'ACC006', 'Frank Miller', 4500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+  (NEXT VALUE FOR accounts_seq, 'ACC007', 'Grace Lee', 6000.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+  (NEXT VALUE FOR accounts_seq, 'ACC008', 'Henry Ford', 8500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+  (NEXT VALUE FOR accounts_seq, 'ACC009', 'Ivy Chen', 1500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0),
+  (NEXT VALUE FOR accounts_seq, 'ACC010', 'Jack Ryan', 9500.00, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0);
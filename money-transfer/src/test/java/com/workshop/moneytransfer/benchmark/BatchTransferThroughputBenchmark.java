@@ -0,0 +1,103 @@
+package com.workshop.moneytransfer.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.moneytransfer.dto.BatchTransferRequest;
+import com.workshop.moneytransfer.dto.TransferRequest;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.service.AccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Throughput comparison of POST /api/transfers against POST /api/transfers/batch.
+ * Run with: mvn test -Pbenchmark -Dtest=BatchTransferThroughputBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.com.workshop.moneytransfer=WARN",
+        "management.tracing.sampling.probability=0.0"
+})
+@AutoConfigureMockMvc
+class BatchTransferThroughputBenchmark {
+
+        private static final int ACCOUNTS = 100;
+        private static final int TRANSFERS = 5_000;
+        private static final int WARMUP = 1_000;
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private AccountService accountService;
+
+        @Test
+        void compareSingleAndBatchThroughput() throws Exception {
+                List<String> accountNumbers = new ArrayList<>();
+                for (int i = 0; i < ACCOUNTS; i++) {
+                        Account account = accountService.createAccount(
+                                        "Benchmark " + i, new BigDecimal("1000000.00"));
+                        accountNumbers.add(account.getAccountNumber());
+                }
+
+                runSingle(transfers(accountNumbers, WARMUP));
+                runBatch(transfers(accountNumbers, WARMUP));
+
+                double singleRate = runSingle(transfers(accountNumbers, TRANSFERS));
+                double batchRate = runBatch(transfers(accountNumbers, TRANSFERS));
+
+                System.out.printf("%n=== Batch transfer benchmark (%d transfers, %d accounts) ===%n",
+                                TRANSFERS, ACCOUNTS);
+                System.out.printf("single endpoint: %10.0f transfers/s%n", singleRate);
+                System.out.printf("batch endpoint:  %10.0f transfers/s (x%.1f)%n",
+                                batchRate, batchRate / singleRate);
+        }
+
+        private double runSingle(List<TransferRequest> transfers) throws Exception {
+                long start = System.nanoTime();
+                for (TransferRequest transfer : transfers) {
+                        mockMvc.perform(post("/api/transfers")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(transfer)))
+                                        .andExpect(status().isCreated());
+                }
+                return transfers.size() / ((System.nanoTime() - start) / 1e9);
+        }
+
+        private double runBatch(List<TransferRequest> transfers) throws Exception {
+                long start = System.nanoTime();
+                mockMvc.perform(post("/api/transfers/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new BatchTransferRequest(transfers))))
+                                .andExpect(status().isOk());
+                return transfers.size() / ((System.nanoTime() - start) / 1e9);
+        }
+
+        private List<TransferRequest> transfers(List<String> accountNumbers, int count) {
+                List<TransferRequest> transfers = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                        String from = accountNumbers.get(i % ACCOUNTS);
+                        String to = accountNumbers.get((i * 7 + 1) % ACCOUNTS);
+                        transfers.add(new TransferRequest(from, to, Money.of("1.00"), "Benchmark"));
+                }
+                return transfers;
+        }
+}
@@ -0,0 +1,187 @@
+package com.workshop.moneytransfer.benchmark;
+
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.service.AccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop latency/throughput of POST /api/transfers and
+ * GET /api/accounts/{n}/balance over real HTTP with many concurrent clients.
+ *
+ * Compare execution modes by running it twice on a Java 21 JVM
+ * (see benchmark-execution-modes.sh):
+ *
+ *   mvn test -Pbenchmark -Dtest=ExecutionModeBenchmark
+ *   mvn test -Pbenchmark -Dtest=ExecutionModeBenchmark -Dspring.profiles.active=virtual-threads
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.com.workshop.moneytransfer=WARN",
+        "management.tracing.sampling.probability=0.0"
+})
+class ExecutionModeBenchmark {
+
+        private static final int ACCOUNTS = 2_000;
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private AccountService accountService;
+
+        @Value("${spring.threads.virtual.enabled:false}")
+        private boolean virtualThreads;
+
+        @Value("${benchmark.clients:1000}")
+        private int clients;
+
+        @Value("${benchmark.duration-seconds:20}")
+        private int durationSeconds;
+
+        private final HttpClient httpClient = HttpClient.newBuilder()
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+
+        @Test
+        void measureTransferAndBalanceLatency() {
+                List<String> accountNumbers = new ArrayList<>(ACCOUNTS);
+                for (int i = 0; i < ACCOUNTS; i++) {
+                        Account account = accountService.createAccount(
+                                        "Benchmark " + i, new BigDecimal("1000000.00"));
+                        accountNumbers.add(account.getAccountNumber());
+                }
+
+                Supplier<HttpRequest> transfer = () -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        String from = accountNumbers.get(random.nextInt(ACCOUNTS));
+                        String to = accountNumbers.get(random.nextInt(ACCOUNTS));
+                        String body = "{\"fromAccountNumber\":\"" + from + "\",\"toAccountNumber\":\"" + to
+                                        + "\",\"amount\":1.00,\"description\":\"Benchmark\"}";
+                        return HttpRequest.newBuilder(uri("/api/transfers"))
+                                        .header("Content-Type", "application/json")
+                                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                                        .build();
+                };
+                Supplier<HttpRequest> balance = () -> HttpRequest.newBuilder(uri("/api/accounts/"
+                                + accountNumbers.get(ThreadLocalRandom.current().nextInt(ACCOUNTS)) + "/balance"))
+                                .GET()
+                                .build();
+
+                // Warm up both paths before measuring
+                run(transfer, Math.min(clients, 100), 5);
+                run(balance, Math.min(clients, 100), 5);
+
+                String mode = virtualThreads ? "virtual" : "platform";
+                System.out.printf("%n=== Execution mode benchmark: %s threads, Java %s, %d clients, %ds ===%n",
+                                mode, System.getProperty("java.specification.version"), clients, durationSeconds);
+                report("POST /api/transfers", run(transfer, clients, durationSeconds));
+                report("GET  /api/accounts/{n}/balance", run(balance, clients, durationSeconds));
+        }
+
+        private Result run(Supplier<HttpRequest> requests, int concurrency, int seconds) {
+                long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+                ConcurrentLinkedQueue<long[]> samples = new ConcurrentLinkedQueue<>();
+                AtomicLong errors = new AtomicLong();
+                AtomicLong succeeded = new AtomicLong();
+                long start = System.nanoTime();
+
+                CompletableFuture<?>[] loops = new CompletableFuture<?>[concurrency];
+                for (int i = 0; i < concurrency; i++) {
+                        long[] latencies = new long[1 << 16];
+                        long[] count = new long[1];
+                        loops[i] = loop(requests, deadline, latencies, count, errors)
+                                        .thenRun(() -> {
+                                                succeeded.addAndGet(count[0]);
+                                                samples.add(Arrays.copyOf(latencies, (int) Math.min(count[0], latencies.length)));
+                                        });
+                }
+                CompletableFuture.allOf(loops).join();
+                double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+                long[] all = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+                return new Result(all, succeeded.get(), elapsedSeconds, errors.get());
+        }
+
+        private CompletableFuture<Void> loop(Supplier<HttpRequest> requests, long deadline,
+                        long[] latencies, long[] count, AtomicLong errors) {
+                if (System.nanoTime() >= deadline) {
+                        return CompletableFuture.completedFuture(null);
+                }
+                long sent = System.nanoTime();
+                return httpClient.sendAsync(requests.get(), HttpResponse.BodyHandlers.discarding())
+                                .handle((response, failure) -> {
+                                        if (failure != null || response.statusCode() >= 300) {
+                                                errors.incrementAndGet();
+                                                return null;
+                                        }
+                                        // Only successes are sampled; the first 64k per client are kept
+                                        if (count[0] < latencies.length) {
+                                                latencies[(int) count[0]] = System.nanoTime() - sent;
+                                        }
+                                        count[0]++;
+                                        return null;
+                                })
+                                .thenCompose(ignored -> loop(requests, deadline, latencies, count, errors));
+        }
+
+        private void report(String name, Result result) {
+                long[] latencies = result.latencies;
+                System.out.printf("%-32s %8.0f req/s  p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms  errors %d%n",
+                                name,
+                                result.succeeded / result.elapsedSeconds,
+                                percentile(latencies, 0.50),
+                                percentile(latencies, 0.99),
+                                percentile(latencies, 1.0),
+                                result.errors);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+                if (sorted.length == 0) {
+                        return 0;
+                }
+                int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+                return sorted[Math.max(0, index)] / 1e6;
+        }
+
+        private URI uri(String path) {
+                return URI.create("http://localhost:" + port + path);
+        }
+
+        private static final class Result {
+
+                final long[] latencies;
+                final long succeeded;
+                final double elapsedSeconds;
+                final long errors;
+
+                Result(long[] latencies, long succeeded, double elapsedSeconds, long errors) {
+                        this.latencies = latencies;
+                        this.succeeded = succeeded;
+                        this.elapsedSeconds = elapsedSeconds;
+                        this.errors = errors;
+                }
+        }
+}
@@ -0,0 +1,100 @@
+package com.workshop.moneytransfer.benchmark;
+
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inserts/sec into the transactions table.
+ *
+ * "row-at-a-time" forces a JDBC batch size of 1 and flushes after every
+ * entity, which is what the previous IDENTITY ids amounted to (one
+ * synchronous INSERT round trip per row). "batched" uses the pooled
+ * sequence ids with the configured hibernate.jdbc.batch_size.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=TransactionInsertBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "management.tracing.sampling.probability=0.0"
+})
+class TransactionInsertBenchmark {
+
+        private static final int ROWS = 50_000;
+        private static final int CHUNK = 1_000;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Autowired
+        private EntityManager entityManager;
+
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+
+        @Test
+        void compareInsertThroughput() {
+                insert(ROWS / 5, false);
+                insert(ROWS / 5, true);
+
+                double rowAtATime = insert(ROWS, false);
+                double batched = insert(ROWS, true);
+
+                System.out.printf("%n=== Transaction insert benchmark (%d rows) ===%n", ROWS);
+                System.out.printf("row-at-a-time: %10.0f inserts/s%n", rowAtATime);
+                System.out.printf("batched:       %10.0f inserts/s (x%.1f)%n",
+                                batched, batched / rowAtATime);
+        }
+
+        private double insert(int rows, boolean batched) {
+                long start = System.nanoTime();
+                for (int done = 0; done < rows; done += CHUNK) {
+                        List<Transaction> chunk = transactions(Math.min(CHUNK, rows - done));
+                        transactionTemplate.executeWithoutResult(status -> {
+                                Session session = entityManager.unwrap(Session.class);
+                                if (batched) {
+                                        transactionRepository.saveAll(chunk);
+                                } else {
+                                        session.setJdbcBatchSize(1);
+                                        for (Transaction transaction : chunk) {
+                                                transactionRepository.save(transaction);
+                                                session.flush();
+                                        }
+                                }
+                                session.flush();
+                                session.clear();
+                        });
+                }
+                return rows / ((System.nanoTime() - start) / 1e9);
+        }
+
+        private List<Transaction> transactions(int count) {
+                List<Transaction> transactions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                        Transaction transaction = new Transaction();
+                        transaction.setTransactionId(UUID.randomUUID().toString());
+                        transaction.setFromAccountNumber("ACC001");
+                        transaction.setToAccountNumber("ACC002");
+                        transaction.setAmount(Money.of("1.00"));
+                        transaction.setCurrency("USD");
+                        transaction.setStatus("SUCCESS");
+                        transaction.setDescription("Insert benchmark");
+                        transactions.add(transaction);
+                }
+                return transactions;
+        }
+}
@@ -0,0 +1,201 @@
+package com.workshop.moneytransfer.controller;
+
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.repository.AccountActivityRepository;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.service.AccountService;
+import com.workshop.moneytransfer.service.TransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Tag("integration")
+@SpringBootTest
+@AutoConfigureMockMvc
+class AccountControllerIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private TransferService transferService;
+
+        @Autowired
+        private AccountActivityRepository activityRepository;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        private String accountNumber;
+
+        @BeforeEach
+        void setUp() {
+                Account account = accountService.createAccount("Listing Test", new BigDecimal("250.00"));
+                accountNumber = account.getAccountNumber();
+        }
+
+        @Test
+        void testListAccountsReturnsCountedPage() throws Exception {
+                mockMvc.perform(get("/api/accounts")
+                                .param("size", "5")
+                                .param("sort", "accountNumber,asc"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content.length()").value(5))
+                                .andExpect(jsonPath("$.content[0].accountNumber").exists())
+                                .andExpect(jsonPath("$.content[0].createdAt").doesNotExist())
+                                .andExpect(jsonPath("$.hasNext").value(true))
+                                .andExpect(jsonPath("$.totalElements").isNumber());
+        }
+
+        @Test
+        void testListAccountsSliceModeSkipsCount() throws Exception {
+                mockMvc.perform(get("/api/accounts")
+                                .param("slice", "true")
+                                .param("status", "ACTIVE")
+                                .param("currency", "USD")
+                                .param("size", "500"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[?(@.accountNumber == '" + accountNumber + "')]").exists())
+                                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        }
+
+        @Test
+        void testListAccountsRejectsUnknownSortProperty() throws Exception {
+                mockMvc.perform(get("/api/accounts").param("sort", "accountHolderName.secret"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void testActivitySummaryIsMaintainedAndRebuilt() throws Exception {
+                String other = accountService.createAccount("Summary Test", new BigDecimal("100.00"))
+                                .getAccountNumber();
+                transferService.transfer(accountNumber, other, Money.of("40.00"), "first");
+                transferService.transfer(accountNumber, other, Money.of("10.00"), "second");
+                transferService.transfer(other, accountNumber, Money.of("5.25"), "back");
+
+                mockMvc.perform(get("/api/accounts/" + accountNumber + "/summary"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.totalDebited").value(50.00))
+                                .andExpect(jsonPath("$.totalCredited").value(5.25))
+                                .andExpect(jsonPath("$.debitCount").value(2))
+                                .andExpect(jsonPath("$.creditCount").value(1))
+                                .andExpect(jsonPath("$.transactionCount").value(3))
+                                .andExpect(jsonPath("$.lastTransactionAt").exists())
+                                .andExpect(jsonPath("$.days.length()").value(1))
+                                .andExpect(jsonPath("$.days[0].debited").value(50.00));
+
+                // Lose the aggregates, then recompute them from the transactions table
+                activityRepository.deleteAll(activityRepository.findByAccountNumber(other));
+                mockMvc.perform(get("/api/accounts/" + other + "/summary"))
+                                .andExpect(jsonPath("$.transactionCount").value(0));
+
+                mockMvc.perform(post("/api/accounts/" + other + "/summary/rebuild"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.totalDebited").value(5.25))
+                                .andExpect(jsonPath("$.totalCredited").value(50.00))
+                                .andExpect(jsonPath("$.transactionCount").value(3))
+                                .andExpect(jsonPath("$.days[0].credited").value(50.00));
+        }
+
+        @Test
+        void testActivitySummaryOfUnknownAccountIsNotFound() throws Exception {
+                mockMvc.perform(get("/api/accounts/0000000000/summary"))
+                                .andExpect(status().isNotFound());
+        }
+
+        @Test
+        void testCsvImportStreamsValidRowsAndReportsInvalidOnes() throws Exception {
+                String csv = "\uFEFFpartnerRef,initialBalance,accountHolderName\r\n"
+                                + "P-1,100.50,Csv Import One\r\n"
+                                + "P-2,0,\"Import, \"\"Quoted\"\" Two\"\n"
+                                + "\n"
+                                + "P-3,-5.00,Csv Import Negative\n"
+                                + "P-4,abc,Csv Import Bad Number\n"
+                                + "P-5,1.005,Csv Import Fraction\n"
+                                + "P-6,10.00,\"Multi\nLine\"\n"
+                                + "P-7,10.00\n"
+                                + "P-8,,\n"
+                                + "P-9,7.00,Csv Import Last";
+
+                mockMvc.perform(post("/api/accounts/import")
+                                .contentType("text/csv")
+                                .content(csv))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.rows").value(9))
+                                .andExpect(jsonPath("$.imported").value(4))
+                                .andExpect(jsonPath("$.rejected").value(5))
+                                .andExpect(jsonPath("$.errorsTruncated").value(false))
+                                .andExpect(jsonPath("$.errors[0].line").value(5))
+                                .andExpect(jsonPath("$.errors[0].message").value("Initial balance cannot be negative"))
+                                .andExpect(jsonPath("$.errors[1].line").value(6))
+                                .andExpect(jsonPath("$.errors[1].message").value("Invalid initial balance: abc"))
+                                .andExpect(jsonPath("$.errors[2].line").value(7))
+                                .andExpect(jsonPath("$.errors[3].line").value(10))
+                                .andExpect(jsonPath("$.errors[3].message").value("Expected 3 fields but found 2"))
+                                .andExpect(jsonPath("$.errors[4].line").value(11))
+                                .andExpect(jsonPath("$.errors[4].message").value(
+                                                "Account holder name is required; Initial balance is required"));
+
+                List<Account> imported = accountRepository.findAll().stream()
+                                .filter(account -> account.getAccountHolderName().startsWith("Csv Import")
+                                                || account.getAccountHolderName().startsWith("Import, ")
+                                                || account.getAccountHolderName().equals("Multi\nLine"))
+                                .toList();
+                assertEquals(4, imported.size());
+                Account quoted = imported.stream()
+                                .filter(account -> account.getAccountHolderName().equals("Import, \"Quoted\" Two"))
+                                .findFirst().orElseThrow();
+                mockMvc.perform(get("/api/accounts/" + quoted.getAccountNumber()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.balance").value(0.00))
+                                .andExpect(jsonPath("$.currency").value("USD"))
+                                .andExpect(jsonPath("$.status").value("ACTIVE"));
+        }
+
+        @Test
+        void testNdjsonImportReportsMalformedAndInvalidLines() throws Exception {
+                String ndjson = "{\"accountHolderName\":\"Ndjson Import One\",\"initialBalance\":25.00}\n"
+                                + "{\"accountHolderName\":\"Ndjson Import Broken\",\n"
+                                + "\n"
+                                + "{\"accountHolderName\":\"" + "x".repeat(256) + "\",\"initialBalance\":1}\n"
+                                + "{\"accountHolderName\":\"Ndjson Import Two\",\"initialBalance\":\"3.50\"}\n";
+                long before = accountRepository.count();
+
+                mockMvc.perform(post("/api/accounts/import")
+                                .contentType(MediaType.valueOf("application/x-ndjson"))
+                                .content(ndjson))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.rows").value(4))
+                                .andExpect(jsonPath("$.imported").value(2))
+                                .andExpect(jsonPath("$.errors[0].line").value(2))
+                                .andExpect(jsonPath("$.errors[1].line").value(4))
+                                .andExpect(jsonPath("$.errors[1].message").value(
+                                                "Account holder name must be at most 255 characters"));
+                assertEquals(before + 2, accountRepository.count());
+        }
+
+        @Test
+        void testCsvImportWithoutRequiredHeaderIsRejected() throws Exception {
+                mockMvc.perform(post("/api/accounts/import")
+                                .contentType("text/csv")
+                                .content("name,balance\nSomeone,1.00\n"))
+                                .andExpect(status().isBadRequest());
+        }
+}
@@ -0,0 +1,113 @@
+package com.workshop.moneytransfer.controller;
+
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.repository.AccountBalanceSlotRepository;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.service.AccountService;
+import com.workshop.moneytransfer.service.HotAccountLedger;
+import com.workshop.moneytransfer.service.TransferService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Tag("integration")
+@SpringBootTest(properties = {
+                "spring.datasource.url=jdbc:h2:mem:hotaccounts",
+                "money.transfer.hot-accounts.numbers=ACC005",
+                "money.transfer.hot-accounts.slots=4",
+                "money.transfer.hot-accounts.rebalance-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class HotAccountIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private TransferService transferService;
+
+        @Autowired
+        private HotAccountLedger hotAccountLedger;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private AccountBalanceSlotRepository slotRepository;
+
+        @Test
+        void testConcurrentCreditsLandInSlotsAndDebitSweepsThem() throws Exception {
+                Money startBalance = balanceOf("ACC005");
+                List<String> payers = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                        payers.add(accountService.createAccount("Payer " + i, new BigDecimal("100.00")).getAccountNumber());
+                }
+
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+                try {
+                        List<Future<?>> futures = new ArrayList<>();
+                        for (String payer : payers) {
+                                futures.add(executor.submit(() -> {
+                                        for (int i = 0; i < 5; i++) {
+                                                transferService.transfer(payer, "ACC005", Money.of("10.00"), "Collection");
+                                        }
+                                }));
+                        }
+                        for (Future<?> future : futures) {
+                                future.get();
+                        }
+                } finally {
+                        executor.shutdown();
+                }
+
+                Money expected = startBalance.plus(Money.of("400.00"));
+                assertEquals(0, expected.compareTo(balanceOf("ACC005")));
+                assertEquals(0, new BigDecimal("400.00").compareTo(slotRepository.sumBalance("ACC005")));
+
+                mockMvc.perform(get("/api/accounts/ACC005/balance"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.balance").value(expected.toBigDecimal().doubleValue()));
+
+                // More than the account row alone holds: the debit has to sweep the slots
+                String payee = payers.get(0);
+                transferService.transfer("ACC005", payee, expected.minus(Money.of("1.00")), "Payout");
+
+                assertEquals(0, BigDecimal.ZERO.compareTo(slotRepository.sumBalance("ACC005")));
+                assertEquals(0, Money.of("1.00").compareTo(balanceOf("ACC005")));
+        }
+
+        @Test
+        void testRebalanceFoldsSlotsIntoAccountRow() {
+                String payer = accountService.createAccount("Payer", new BigDecimal("100.00")).getAccountNumber();
+                transferService.transfer(payer, "ACC005", Money.of("25.00"), "Collection");
+                Money total = balanceOf("ACC005");
+
+                hotAccountLedger.rebalance();
+
+                Account row = accountRepository.findByAccountNumber("ACC005").orElseThrow();
+                assertEquals(0, total.compareTo(row.getBalance()));
+                assertEquals(0, BigDecimal.ZERO.compareTo(slotRepository.sumBalance("ACC005")));
+        }
+
+        private Money balanceOf(String accountNumber) {
+                return accountService.getBalance(accountNumber);
+        }
+}
@@ -0,0 +1,89 @@
+package com.workshop.moneytransfer.controller;
+
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.service.AccountService;
+import com.workshop.moneytransfer.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("integration")
+@SpringBootTest(properties = {
+                "spring.datasource.url=jdbc:h2:mem:optimistic",
+                "money.transfer.concurrency-mode=optimistic",
+                "money.account.cache.enabled=true",
+                "money.transfer.optimistic.max-attempts=100",
+                "money.transfer.optimistic.retry-budget.max-tokens=100000"
+})
+class OptimisticTransferIntegrationTest {
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private TransferService transferService;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @Test
+        void testConcurrentTransfersOnTheSameAccountsAreRetriedUntilApplied() throws Exception {
+                String first = accountService.createAccount("Optimistic A", new BigDecimal("1000.00")).getAccountNumber();
+                String second = accountService.createAccount("Optimistic B", new BigDecimal("1000.00")).getAccountNumber();
+                accountService.getAccount(first);
+                accountService.getAccount(second);
+                int threads = 8;
+                int transfersPerThread = 10;
+
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                        List<Future<?>> futures = new ArrayList<>();
+                        for (int t = 0; t < threads; t++) {
+                                boolean forward = t % 2 == 0;
+                                futures.add(executor.submit(() -> {
+                                        for (int i = 0; i < transfersPerThread; i++) {
+                                                transferService.transfer(forward ? first : second,
+                                                                forward ? second : first, Money.of("1.00"), "Optimistic");
+                                        }
+                                }));
+                        }
+                        for (Future<?> future : futures) {
+                                future.get();
+                        }
+                } finally {
+                        executor.shutdown();
+                }
+
+                // Equal traffic in both directions: every transfer applied exactly once
+                assertEquals(Money.of("1000.00"), accountRepository.findByAccountNumber(first).orElseThrow().getBalance());
+                assertEquals(Money.of("1000.00"), accountRepository.findByAccountNumber(second).orElseThrow().getBalance());
+                assertEquals(threads * transfersPerThread,
+                                meterRegistry.get("money.transfer.optimistic.attempts").summary().count());
+                assertEquals(threads * transfersPerThread,
+                                accountRepository.findByAccountNumber(first).orElseThrow().getVersion());
+
+                // Commit callbacks ran out of order without locks; the cache still serves the last commit
+                for (String accountNumber : List.of(first, second)) {
+                        Account stored = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+                        Account cached = accountService.getAccount(accountNumber);
+                        assertEquals(stored.getVersion(), cached.getVersion());
+                        assertEquals(stored.getBalance(), cached.getBalance());
+                }
+        }
+}
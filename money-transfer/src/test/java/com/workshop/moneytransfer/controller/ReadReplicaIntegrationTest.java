@@ -0,0 +1,235 @@
+package com.workshop.moneytransfer.controller;
+
+import com.workshop.moneytransfer.datasource.ReplicaLagMonitor;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.service.AccountService;
+import com.workshop.moneytransfer.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Tag("integration")
+@SpringBootTest(properties = {
+                "spring.datasource.url=jdbc:h2:mem:replicaprimary",
+                "money.transfer.read-replica.enabled=true",
+                "money.transfer.read-replica.url=" + ReadReplicaIntegrationTest.REPLICA_URL,
+                "money.transfer.read-replica.max-staleness=2s",
+                "money.transfer.read-replica.heartbeat-interval=100ms"
+})
+@AutoConfigureMockMvc
+class ReadReplicaIntegrationTest {
+
+        static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+        /**
+         * Stands in for database replication: every 100ms copies all of the
+         * primary's tables into the replica, from one snapshot and in one
+         * replica transaction, so the replica is a consistent older copy.
+         */
+        static class ReplicationStandIn implements SmartLifecycle {
+
+                private final DataSource primary;
+                private final ReentrantLock copying = new ReentrantLock();
+                private ScheduledExecutorService scheduler;
+                private boolean schemaCreated;
+
+                ReplicationStandIn(DataSource primary) {
+                        this.primary = primary;
+                }
+
+                void pause() {
+                        copying.lock();
+                }
+
+                void resume() {
+                        copying.unlock();
+                }
+
+                private void copyQuietly() {
+                        if (!copying.tryLock()) {
+                                return;
+                        }
+                        try {
+                                copy();
+                        } catch (SQLException e) {
+                                // Retried on the next tick
+                        } finally {
+                                copying.unlock();
+                        }
+                }
+
+                private void copy() throws SQLException {
+                        try (Connection source = primary.getConnection();
+                                        Connection target = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+                                source.setAutoCommit(false);
+                                source.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                                target.setAutoCommit(false);
+                                if (!schemaCreated) {
+                                        for (String ddl : column(source, "SCRIPT NODATA NOPASSWORDS NOSETTINGS")) {
+                                                if (!ddl.startsWith("--")) {
+                                                        execute(target, ddl);
+                                                }
+                                        }
+                                        schemaCreated = true;
+                                }
+                                for (String table : column(source, "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                                                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'")) {
+                                        copyTable(source, target, table);
+                                }
+                                target.commit();
+                                source.commit();
+                        }
+                }
+
+                private static void copyTable(Connection source, Connection target, String table) throws SQLException {
+                        execute(target, "DELETE FROM \"" + table + "\"");
+                        try (Statement select = source.createStatement();
+                                        ResultSet rows = select.executeQuery("SELECT * FROM \"" + table + "\"")) {
+                                int columns = rows.getMetaData().getColumnCount();
+                                String placeholders = String.join(", ", Collections.nCopies(columns, "?"));
+                                try (PreparedStatement insert = target.prepareStatement(
+                                                "INSERT INTO \"" + table + "\" VALUES (" + placeholders + ")")) {
+                                        while (rows.next()) {
+                                                for (int i = 1; i <= columns; i++) {
+                                                        insert.setObject(i, rows.getObject(i));
+                                                }
+                                                insert.addBatch();
+                                        }
+                                        insert.executeBatch();
+                                }
+                        }
+                }
+
+                private static List<String> column(Connection connection, String sql) throws SQLException {
+                        List<String> values = new ArrayList<>();
+                        try (Statement statement = connection.createStatement();
+                                        ResultSet rows = statement.executeQuery(sql)) {
+                                while (rows.next()) {
+                                        values.add(rows.getString(1));
+                                }
+                        }
+                        return values;
+                }
+
+                private static void execute(Connection connection, String sql) throws SQLException {
+                        try (Statement statement = connection.createStatement()) {
+                                statement.execute(sql);
+                        }
+                }
+
+                @Override
+                public void start() {
+                        scheduler = Executors.newSingleThreadScheduledExecutor();
+                        scheduler.scheduleWithFixedDelay(this::copyQuietly, 0, 100, TimeUnit.MILLISECONDS);
+                }
+
+                @Override
+                public void stop() {
+                        scheduler.shutdownNow();
+                        scheduler = null;
+                }
+
+                @Override
+                public boolean isRunning() {
+                        return scheduler != null;
+                }
+        }
+
+        @TestConfiguration
+        static class ReplicationConfig {
+
+                @Bean
+                ReplicationStandIn replicationStandIn(@Qualifier("primaryDataSource") DataSource primary) {
+                        return new ReplicationStandIn(primary);
+                }
+        }
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private TransferService transferService;
+
+        @Autowired
+        private ReplicaLagMonitor replicaLagMonitor;
+
+        @Autowired
+        private ReplicationStandIn replication;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @Test
+        void readOnlyTransactionsUseTheReplicaWithinTheStalenessBound() throws Exception {
+                String from = accountService.createAccount("Replica From", new BigDecimal("100.00")).getAccountNumber();
+                String to = accountService.createAccount("Replica To", new BigDecimal("0.00")).getAccountNumber();
+                await(() -> replicaLagMonitor.isFresh(), 10_000);
+
+                replication.pause();
+                try {
+                        transferService.transfer(from, to, Money.of("10.00"), "not yet replicated");
+
+                        // The write went to the primary; a read within the bound sees the replica's older copy
+                        assertTrue(replicaLagMonitor.isFresh());
+                        mockMvc.perform(get("/api/transfers/history/" + from))
+                                        .andExpect(status().isOk())
+                                        .andExpect(jsonPath("$.length()").value(0));
+
+                        // Past the bound, reads fall back to the primary
+                        await(() -> !replicaLagMonitor.isFresh(), 10_000);
+                        mockMvc.perform(get("/api/transfers/history/" + from))
+                                        .andExpect(jsonPath("$.length()").value(1));
+                        assertTrue(meterRegistry.get("money.datasource.replica.fallbacks")
+                                        .tag("reason", "stale").functionCounter().count() >= 1);
+                } finally {
+                        replication.resume();
+                }
+
+                // Caught up again: back on the replica, which now has the transfer
+                await(() -> replicaLagMonitor.isFresh(), 10_000);
+                double replicaReads = meterRegistry.get("money.datasource.replica.reads").functionCounter().count();
+                mockMvc.perform(get("/api/transfers/history/" + from))
+                                .andExpect(jsonPath("$.length()").value(1));
+                assertTrue(meterRegistry.get("money.datasource.replica.reads").functionCounter().count() > replicaReads);
+        }
+
+        private static void await(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+                long deadline = System.currentTimeMillis() + timeoutMillis;
+                while (!condition.getAsBoolean()) {
+                        assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the replica");
+                        Thread.sleep(20);
+                }
+        }
+}
@@ -0,0 +1,182 @@
+package com.workshop.moneytransfer.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.moneytransfer.dto.TransferRequest;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import com.workshop.moneytransfer.service.AccountService;
+import com.workshop.moneytransfer.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Tag("integration")
+@SpringBootTest(properties = {
+                "spring.datasource.url=jdbc:h2:mem:sharded",
+                "money.transfer.engine.type=sharded",
+                "money.transfer.engine.shards=4",
+                "money.transfer.engine.ring-size=1024"
+})
+@AutoConfigureMockMvc
+class ShardedLedgerIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private TransferService transferService;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @Test
+        void testConcurrentTransfersConserveMoneyAndArePersisted() throws Exception {
+                List<String> accounts = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                        accounts.add(accountService.createAccount("Sharded " + i, new BigDecimal("1000.00"))
+                                        .getAccountNumber());
+                }
+                int threads = 8;
+                int transfersPerThread = 200;
+
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                List<String> transactionIds = new ArrayList<>();
+                try {
+                        List<Future<List<String>>> futures = new ArrayList<>();
+                        for (int t = 0; t < threads; t++) {
+                                futures.add(executor.submit(() -> {
+                                        List<String> ids = new ArrayList<>();
+                                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                                        for (int i = 0; i < transfersPerThread; i++) {
+                                                String from = accounts.get(random.nextInt(accounts.size()));
+                                                String to = accounts.get(random.nextInt(accounts.size()));
+                                                ids.add(transferService.transfer(from, to, Money.of("1.00"), "Sharded")
+                                                                .getTransactionId());
+                                        }
+                                        return ids;
+                                }));
+                        }
+                        for (Future<List<String>> future : futures) {
+                                transactionIds.addAll(future.get());
+                        }
+                } finally {
+                        executor.shutdown();
+                }
+
+                assertEquals(Money.of("8000.00"), accounts.stream()
+                                .map(accountService::getBalance)
+                                .reduce(Money.zero(), Money::plus));
+                assertTrue(meterRegistry.get("money.transfer.engine.cross.shard").counter().count() > 0);
+
+                // The database catches up with the in-memory balances
+                long deadline = System.currentTimeMillis() + 30_000;
+                while (!persisted(accounts, transactionIds) && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(20);
+                }
+                for (String account : accounts) {
+                        assertEquals(accountService.getBalance(account),
+                                        accountRepository.findByAccountNumber(account).orElseThrow().getBalance());
+                }
+                assertEquals(threads * transfersPerThread,
+                                transactionRepository.findExistingTransactionIds(transactionIds).size());
+        }
+
+        @Test
+        void testRejectedTransfersLeaveBalancesUnchanged() throws Exception {
+                String from = accountService.createAccount("Sharded Poor", new BigDecimal("10.00")).getAccountNumber();
+                String to = accountService.createAccount("Sharded Payee", new BigDecimal("0.00")).getAccountNumber();
+
+                mockMvc.perform(post("/api/transfers")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                                new TransferRequest(from, to, Money.of("50.00"), "Too much"))))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.code").value("INSUFFICIENT_FUNDS"));
+
+                // Missing destinations on other shards are credited back to the source
+                for (int i = 0; i < 8; i++) {
+                        mockMvc.perform(post("/api/transfers")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(
+                                                        new TransferRequest(from, "MISSING-" + i, Money.of("5.00"), "Nowhere"))))
+                                        .andExpect(status().isNotFound())
+                                        .andExpect(jsonPath("$.code").value("ACCOUNT_NOT_FOUND"));
+                }
+
+                Transaction transaction = transferService.transfer(from, to, Money.of("10.00"), "Everything");
+                assertEquals("SUCCESS", transaction.getStatus());
+                assertEquals(Money.zero(), accountService.getBalance(from));
+                assertEquals(Money.of("10.00"), accountService.getBalance(to));
+        }
+
+        @Test
+        void testUnstorableTransactionIsDroppedWithoutStallingTheLedger() throws Exception {
+                String from = accountService.createAccount("Sharded Long", new BigDecimal("100.00")).getAccountNumber();
+                String to = accountService.createAccount("Sharded Short", new BigDecimal("0.00")).getAccountNumber();
+
+                // The service does not validate descriptions, so this row is too long for its column
+                String unstorable = transferService.transfer(from, to, Money.of("1.00"), "x".repeat(300))
+                                .getTransactionId();
+                List<String> stored = new ArrayList<>();
+                for (int i = 0; i < 5; i++) {
+                        stored.add(transferService.transfer(from, to, Money.of("1.00"), "After " + i).getTransactionId());
+                }
+
+                long deadline = System.currentTimeMillis() + 30_000;
+                while (!persisted(List.of(from, to), stored) && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(20);
+                }
+                assertEquals(5, transactionRepository.findExistingTransactionIds(stored).size());
+                assertTrue(transactionRepository.findExistingTransactionIds(List.of(unstorable)).isEmpty());
+                assertEquals(Money.of("94.00"), accountRepository.findByAccountNumber(from).orElseThrow().getBalance());
+                assertEquals(1, meterRegistry.get("money.transfer.engine.persist.dropped").counter().count());
+        }
+
+        @Test
+        void testOverlongDescriptionIsRejected() throws Exception {
+                String from = accountService.createAccount("Sharded Verbose", new BigDecimal("10.00")).getAccountNumber();
+
+                mockMvc.perform(post("/api/transfers")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                                new TransferRequest(from, from, Money.of("1.00"), "x".repeat(256)))))
+                                .andExpect(status().isBadRequest());
+        }
+
+        private boolean persisted(List<String> accounts, List<String> transactionIds) {
+                return transactionRepository.findExistingTransactionIds(transactionIds).size() == transactionIds.size()
+                                && accounts.stream().allMatch(account -> accountService.getBalance(account).equals(
+                                                accountRepository.findByAccountNumber(account).orElseThrow().getBalance()));
+        }
+}
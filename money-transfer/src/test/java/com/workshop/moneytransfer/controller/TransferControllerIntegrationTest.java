@@ -1,8 +1,13 @@
 package com.workshop.moneytransfer.controller;
 
+import com.workshop.moneytransfer.dto.BatchTransferRequest;
 import com.workshop.moneytransfer.dto.TransferRequest;
 import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.TransactionRepository;
 import com.workshop.moneytransfer.service.AccountService;
+import com.workshop.moneytransfer.service.TransferService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -14,7 +19,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -32,6 +44,12 @@ class TransferControllerIntegrationTest {
         @Autowired
         private AccountService accountService;
 
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Autowired
+        private TransferService transferService;
+
         private String fromAccountNumber;
         private String toAccountNumber;
 
@@ -50,7 +68,7 @@ class TransferControllerIntegrationTest {
                 TransferRequest request = new TransferRequest(
                                 fromAccountNumber,
                                 toAccountNumber,
-                                new BigDecimal("300.00"),
+                                Money.of("300.00"),
                                 "Integration test transfer");
 
                 mockMvc.perform(post("/api/transfers")
@@ -64,11 +82,47 @@ class TransferControllerIntegrationTest {
         }
 
         @Test
-        void testTransferWithInsufficientFunds() throws Exception {
+        void testOpposingConcurrentTransfersConserveTotalBalance() throws Exception {
+                int threads = 8;
+                int transfersPerThread = 25;
+
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                        List<Future<?>> futures = new ArrayList<>();
+                        for (int t = 0; t < threads; t++) {
+                                boolean forward = t % 2 == 0;
+                                futures.add(executor.submit(() -> {
+                                        for (int i = 0; i < transfersPerThread; i++) {
+                                                if (forward) {
+                                                        transferService.transfer(fromAccountNumber, toAccountNumber,
+                                                                        Money.of("3.00"), "A to B");
+                                                } else {
+                                                        transferService.transfer(toAccountNumber, fromAccountNumber,
+                                                                        Money.of("2.00"), "B to A");
+                                                }
+                                        }
+                                }));
+                        }
+                        for (Future<?> future : futures) {
+                                future.get();
+                        }
+                } finally {
+                        executor.shutdown();
+                }
+
+                Money from = accountService.getBalance(fromAccountNumber);
+                Money to = accountService.getBalance(toAccountNumber);
+                assertEquals(Money.of("900.00"), from);
+                assertEquals(Money.of("600.00"), to);
+                assertEquals(Money.of("1500.00"), from.plus(to));
+        }
+
+        @Test
+        void testTransferWithInsufficientFundsIsAudited() throws Exception {
                 TransferRequest request = new TransferRequest(
                                 fromAccountNumber,
                                 toAccountNumber,
-                                new BigDecimal("2000.00"),
+                                Money.of("2000.00"),
                                 "Insufficient funds test");
 
                 mockMvc.perform(post("/api/transfers")
@@ -76,6 +130,24 @@ class TransferControllerIntegrationTest {
                                 .content(objectMapper.writeValueAsString(request)))
                                 .andExpect(status().isBadRequest())
                                 .andExpect(jsonPath("$.code").value("INSUFFICIENT_FUNDS"));
+
+                // The FAILED record survives the rolled-back transfer, written in the background
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (failedTransactions().isEmpty() && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(20);
+                }
+                List<Transaction> failed = failedTransactions();
+                assertEquals(1, failed.size());
+                assertEquals(Money.of("2000.00"), failed.get(0).getAmount());
+                assertEquals("Insufficient funds test", failed.get(0).getDescription());
+                assertEquals(Money.of("1000.00"), accountService.getBalance(fromAccountNumber));
+        }
+
+        private List<Transaction> failedTransactions() {
+                return transactionRepository.findByFromAccountNumberOrToAccountNumber(
+                                fromAccountNumber, fromAccountNumber).stream()
+                                .filter(transaction -> "FAILED".equals(transaction.getStatus()))
+                                .toList();
         }
 
         @Test
@@ -83,7 +155,7 @@ class TransferControllerIntegrationTest {
                 TransferRequest request = new TransferRequest(
                                 "9999999999",
                                 toAccountNumber,
-                                new BigDecimal("100.00"),
+                                Money.of("100.00"),
                                 "Invalid account test");
 
                 mockMvc.perform(post("/api/transfers")
@@ -99,7 +171,7 @@ class TransferControllerIntegrationTest {
                 TransferRequest request = new TransferRequest(
                                 fromAccountNumber,
                                 toAccountNumber,
-                                new BigDecimal("100.00"),
+                                Money.of("100.00"),
                                 "History test transfer");
 
                 mockMvc.perform(post("/api/transfers")
@@ -113,4 +185,118 @@ class TransferControllerIntegrationTest {
                                 .andExpect(jsonPath("$").isArray())
                                 .andExpect(jsonPath("$[0].fromAccountNumber").value(fromAccountNumber));
         }
-}
\ No newline at end of file
+
+        @Test
+        void testBatchTransferReportsPerItemResults() throws Exception {
+                BatchTransferRequest request = new BatchTransferRequest(List.of(
+                                new TransferRequest(fromAccountNumber, toAccountNumber,
+                                                Money.of("100.00"), "Batch item 1"),
+                                new TransferRequest(fromAccountNumber, "9999999999",
+                                                Money.of("100.00"), "Batch item 2"),
+                                new TransferRequest(toAccountNumber, fromAccountNumber,
+                                                Money.of("5000.00"), "Batch item 3")));
+
+                mockMvc.perform(post("/api/transfers/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.total").value(3))
+                                .andExpect(jsonPath("$.succeeded").value(1))
+                                .andExpect(jsonPath("$.results[0].status").value("SUCCESS"))
+                                .andExpect(jsonPath("$.results[1].code").value("ACCOUNT_NOT_FOUND"))
+                                .andExpect(jsonPath("$.results[2].code").value("INSUFFICIENT_FUNDS"));
+
+                mockMvc.perform(get("/api/accounts/" + fromAccountNumber + "/balance"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.balance").value(900.00));
+        }
+
+        @Test
+        void testGetTransactionHistoryPageFollowsCursor() throws Exception {
+                for (int i = 0; i < 3; i++) {
+                        TransferRequest request = new TransferRequest(
+                                        fromAccountNumber,
+                                        toAccountNumber,
+                                        Money.of("10.00"),
+                                        "Page test transfer " + i);
+
+                        mockMvc.perform(post("/api/transfers")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(objectMapper.writeValueAsString(request)))
+                                        .andExpect(status().isCreated());
+                }
+
+                String body = mockMvc.perform(get("/api/transfers/history/" + fromAccountNumber + "/page")
+                                .param("size", "2"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(2))
+                                .andExpect(jsonPath("$.items[0].description").value("Page test transfer 2"))
+                                .andExpect(jsonPath("$.hasMore").value(true))
+                                .andReturn().getResponse().getContentAsString();
+
+                String cursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+                mockMvc.perform(get("/api/transfers/history/" + fromAccountNumber + "/page")
+                                .param("size", "2")
+                                .param("cursor", cursor))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items.length()").value(1))
+                                .andExpect(jsonPath("$.items[0].description").value("Page test transfer 0"))
+                                .andExpect(jsonPath("$.hasMore").value(false));
+        }
+
+        @Test
+        void testExportTransactionHistoryAsCsv() throws Exception {
+                TransferRequest request = new TransferRequest(
+                                fromAccountNumber,
+                                toAccountNumber,
+                                Money.of("42.50"),
+                                "Export, with comma");
+
+                mockMvc.perform(post("/api/transfers")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isCreated());
+
+                mockMvc.perform(get("/api/transfers/history/" + toAccountNumber + "/export")
+                                .param("format", "csv"))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                                .andExpect(content().string(containsString(
+                                                fromAccountNumber + "," + toAccountNumber + ",42.50,USD,SUCCESS,\"Export, with comma\"")));
+        }
+
+        @Test
+        void testRetriedTransferWithIdempotencyKeyIsAppliedOnce() throws Exception {
+                String body = objectMapper.writeValueAsString(new TransferRequest(
+                                fromAccountNumber, toAccountNumber, Money.of("100.00"), "Idempotent"));
+                String key = "retry-" + fromAccountNumber;
+
+                String first = mockMvc.perform(post("/api/transfers")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isCreated())
+                                .andReturn().getResponse().getContentAsString();
+                String transactionId = objectMapper.readTree(first).get("transactionId").asText();
+
+                mockMvc.perform(post("/api/transfers")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.transactionId").value(transactionId));
+
+                mockMvc.perform(get("/api/accounts/" + fromAccountNumber + "/balance"))
+                                .andExpect(jsonPath("$.balance").value(900.00));
+
+                // Same key, different transfer
+                mockMvc.perform(post("/api/transfers")
+                                .header("Idempotency-Key", key)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new TransferRequest(
+                                                fromAccountNumber, toAccountNumber, Money.of("5.00"), "Other"))))
+                                .andExpect(status().isUnprocessableEntity())
+                                .andExpect(jsonPath("$.code").value("IDEMPOTENCY_KEY_REUSED"));
+        }
+}
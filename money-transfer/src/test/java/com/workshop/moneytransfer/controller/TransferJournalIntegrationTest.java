@@ -0,0 +1,76 @@
+package com.workshop.moneytransfer.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.moneytransfer.dto.TransferRequest;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import com.workshop.moneytransfer.service.AccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@Tag("integration")
+@SpringBootTest(properties = {
+                "spring.datasource.url=jdbc:h2:mem:journal",
+                "money.transfer.journal.enabled=true",
+                "money.transfer.journal.dir=target/journal-it/${random.uuid}",
+                "money.transfer.journal.segment-size=1MB"
+})
+@AutoConfigureMockMvc
+class TransferJournalIntegrationTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Test
+        void testJournaledTransferIsProjectedIntoTransactions() throws Exception {
+                String from = accountService.createAccount("Journal From", new BigDecimal("100.00")).getAccountNumber();
+                String to = accountService.createAccount("Journal To", new BigDecimal("0.00")).getAccountNumber();
+
+                String body = mockMvc.perform(post("/api/transfers")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                                new TransferRequest(from, to, Money.of("40.00"), "Journaled"))))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.status").value("SUCCESS"))
+                                .andExpect(jsonPath("$.id").doesNotExist())
+                                .andReturn().getResponse().getContentAsString();
+                JsonNode response = objectMapper.readTree(body);
+                String transactionId = response.get("transactionId").asText();
+
+                assertEquals(0, Money.of("60.00").compareTo(accountService.getBalance(from)));
+                assertNotNull(accountRepository.findByAccountNumber(from).orElseThrow().getLastJournalSeq());
+
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (transactionRepository.findExistingTransactionIds(Set.of(transactionId)).isEmpty()
+                                && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(20);
+                }
+                assertEquals(Set.of(transactionId), transactionRepository.findExistingTransactionIds(Set.of(transactionId)));
+        }
+}
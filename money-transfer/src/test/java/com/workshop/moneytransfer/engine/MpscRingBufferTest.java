@@ -0,0 +1,76 @@
+package com.workshop.moneytransfer.engine;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class MpscRingBufferTest {
+
+        @Test
+        void testOfferFailsWhenFullAndSlotsAreReusedAfterPoll() {
+                MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(3);
+
+                assertEquals(4, ring.capacity());
+                for (int i = 0; i < 4; i++) {
+                        assertTrue(ring.offer(i));
+                }
+                assertFalse(ring.offer(4));
+
+                assertEquals(0, ring.poll());
+                assertTrue(ring.offer(4));
+                for (int i = 1; i <= 4; i++) {
+                        assertEquals(i, ring.poll());
+                }
+                assertNull(ring.poll());
+                assertTrue(ring.isEmpty());
+        }
+
+        @Test
+        void testConcurrentProducersDeliverEveryElementOnceInPerProducerOrder() throws Exception {
+                MpscRingBuffer<long[]> ring = new MpscRingBuffer<>(64);
+                int producers = 4;
+                int perProducer = 10_000;
+
+                ExecutorService executor = Executors.newFixedThreadPool(producers);
+                try {
+                        List<Future<?>> futures = new ArrayList<>();
+                        for (int p = 0; p < producers; p++) {
+                                long producer = p;
+                                futures.add(executor.submit(() -> {
+                                        for (long i = 0; i < perProducer; i++) {
+                                                long[] element = {producer, i};
+                                                while (!ring.offer(element)) {
+                                                        Thread.yield();
+                                                }
+                                        }
+                                }));
+                        }
+
+                        long[] next = new long[producers];
+                        int received = 0;
+                        while (received < producers * perProducer) {
+                                long[] element = ring.poll();
+                                if (element == null) {
+                                        Thread.yield();
+                                        continue;
+                                }
+                                assertEquals(next[(int) element[0]]++, element[1]);
+                                received++;
+                        }
+                        for (Future<?> future : futures) {
+                                future.get();
+                        }
+                        assertNull(ring.poll());
+                } finally {
+                        executor.shutdown();
+                }
+        }
+}
@@ -0,0 +1,130 @@
+package com.workshop.moneytransfer.engine;
+
+import com.workshop.moneytransfer.exception.LockTimeoutException;
+import com.workshop.moneytransfer.exception.TransferPendingException;
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import com.workshop.moneytransfer.service.AccountActivityService;
+import com.workshop.moneytransfer.service.AccountCache;
+import com.workshop.moneytransfer.service.IdempotencyStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@Tag("unit")
+class ShardedLedgerEngineTest {
+
+        private final ShardedLedgerEngine engine = new ShardedLedgerEngine(null, null, null, null, null, null,
+                        new SimpleMeterRegistry(), EngineType.SHARDED, 1, 16, 10, Duration.ofMillis(20));
+
+        @Test
+        void testTimedOutTransferNotYetStartedIsWithdrawn() {
+                PendingTransfer pending = new PendingTransfer();
+
+                assertThrows(LockTimeoutException.class, () -> engine.await(pending));
+                assertTrue(pending.isCancelled());
+                // The shard skips it when it finally gets there
+                assertFalse(pending.start());
+        }
+
+        @Test
+        void testTimedOutTransferAlreadyStartedIsReportedPending() {
+                PendingTransfer pending = new PendingTransfer();
+                assertTrue(pending.start());
+
+                TransferPendingException e = assertThrows(TransferPendingException.class, () -> engine.await(pending));
+                assertEquals(pending.transactionId(), e.getTransactionId());
+                assertFalse(pending.isDone());
+
+                Transaction transaction = new Transaction();
+                transaction.setTransactionId(pending.transactionId());
+                pending.complete(transaction);
+                assertSame(transaction, engine.await(pending));
+        }
+
+        @Test
+        void testSameShardCreditOverflowLeavesSourceUntouched() {
+                AccountRepository accountRepository = mock(AccountRepository.class);
+                when(accountRepository.findByAccountNumber("A")).thenReturn(Optional.of(account("A", 10_000)));
+                when(accountRepository.findByAccountNumber("B")).thenReturn(Optional.of(account("B", Long.MAX_VALUE - 50)));
+                ShardedLedgerEngine running = new ShardedLedgerEngine(accountRepository,
+                                mock(TransactionRepository.class), TransactionOperations.withoutTransaction(),
+                                mock(IdempotencyStore.class), mock(AccountCache.class), mock(AccountActivityService.class),
+                                new SimpleMeterRegistry(), EngineType.SHARDED, 1, 16, 10, Duration.ofSeconds(5));
+                running.start();
+                try {
+                        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                                        () -> running.transfer("A", "B", Money.of("1.00"), "overflow", null));
+                        assertEquals("Destination balance would overflow", e.getMessage());
+                        assertEquals(Money.of("100.00"), running.withLiveBalance(account("A", 0)).getBalance());
+                } finally {
+                        running.stop();
+                }
+                verify(accountRepository, never()).findAllByAccountNumberInForUpdate(any());
+        }
+
+        @Test
+        void testSubmitGivesUpWhenShardQueueStaysFull() {
+                LedgerShard shard = new LedgerShard(0, 2, accountNumber -> Optional.empty(), null, null, null);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20);
+                int queued = 0;
+                while (shard.submit(transfer("A", "B"), deadline)) {
+                        queued++;
+                }
+
+                assertEquals(queued, shard.queueDepth());
+                assertTrue(System.nanoTime() - deadline >= 0);
+        }
+
+        @Test
+        void testShardHoldsTransfersBackWhilePersisterIsBehind() throws Exception {
+                LedgerPersister persister = new LedgerPersister(null, null, null, null, null, null, 4, 10, null, null);
+                while (!persister.isBehind()) {
+                        persister.record(LedgerPersister.Change.transaction(new Transaction(), null));
+                }
+                Counter behind = new SimpleMeterRegistry().counter("behind");
+                LedgerShard shard = new LedgerShard(0, 16, accountNumber -> Optional.empty(), persister, null, behind);
+                shard.start(new LedgerShard[] {shard});
+                try {
+                        LedgerCommand.Transfer transfer = transfer("A", "B");
+                        shard.submit(transfer);
+                        TimeUnit.MILLISECONDS.sleep(50);
+                        assertFalse(transfer.result().isDone());
+
+                        // The caller gives up; the shard skips the transfer and carries on
+                        assertTrue(transfer.result().withdraw());
+                        CompletableFuture<Void> done = new CompletableFuture<>();
+                        shard.submit(new LedgerCommand.StatusChange("A", "FROZEN", done));
+                        done.get(5, TimeUnit.SECONDS);
+                        assertEquals(1.0, behind.count());
+                } finally {
+                        shard.stop(1000);
+                }
+        }
+
+        private static LedgerCommand.Transfer transfer(String from, String to) {
+                return new LedgerCommand.Transfer(from, to, Money.of("1.00"), null, null, new PendingTransfer());
+        }
+
+        private static Account account(String accountNumber, long minorUnits) {
+                Account account = new Account();
+                account.setAccountNumber(accountNumber);
+                account.setBalance(Money.ofMinor(minorUnits));
+                account.setStatus("ACTIVE");
+                return account;
+        }
+}
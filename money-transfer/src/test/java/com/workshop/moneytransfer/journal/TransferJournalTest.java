@@ -0,0 +1,181 @@
+package com.workshop.moneytransfer.journal;
+
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import com.workshop.moneytransfer.service.ConcurrencyMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class TransferJournalTest {
+
+        @TempDir
+        Path dir;
+
+        @Mock
+        private AccountRepository accountRepository;
+
+        @Mock
+        private TransactionRepository transactionRepository;
+
+        private final List<Transaction> projected = new CopyOnWriteArrayList<>();
+        private TransferJournal journal;
+
+        @AfterEach
+        void tearDown() {
+                if (journal != null) {
+                        journal.stop();
+                }
+        }
+
+        @Test
+        void testRecordRoundTripAndTornTail() {
+                Transaction transaction = transaction("A", "B", "12.34");
+                ByteBuffer buffer = ByteBuffer.allocate(1024);
+                assertTrue(JournalRecord.entry(7, transaction).writeTo(buffer));
+                int end = buffer.position();
+                assertTrue(JournalRecord.outcome(8, true, 7).writeTo(buffer));
+                // Corrupt the second record: reading stops after the first
+                buffer.put(end + JournalRecord.HEADER_SIZE, (byte) 0x55);
+
+                ByteBuffer view = buffer.duplicate().position(0);
+                JournalRecord read = JournalRecord.readFrom(view);
+                assertNotNull(read);
+                assertEquals(7, read.seq);
+                assertEquals(transaction.getTransactionId(), read.transaction.getTransactionId());
+                assertEquals(Money.of("12.34"), read.transaction.getAmount());
+                assertNull(read.transaction.getFailureReason());
+                assertEquals(transaction.getTransactionDate(), read.transaction.getTransactionDate());
+                assertNull(JournalRecord.readFrom(view));
+        }
+
+        @Test
+        void testConcurrentAppendsAreProjectedAndSegmentsRoll() throws Exception {
+                stubProjection();
+                journal = start(DataSize.ofKilobytes(4));
+
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+                for (int i = 0; i < 200; i++) {
+                        executor.submit(() -> journal.append(transaction("A", "B", "1.00"), new Account()));
+                }
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+                awaitProjected(200);
+                assertEquals(200, projected.stream().map(Transaction::getTransactionId).distinct().count());
+        }
+
+        @Test
+        void testReplayProjectsCommittedAndResolvesInDoubtEntries() throws Exception {
+                Transaction committed = transaction("A", "B", "5.00");
+                Transaction aborted = transaction("A", "B", "6.00");
+                Transaction inDoubtCommitted = transaction("C", "D", "7.00");
+                Transaction inDoubtLost = transaction("E", "F", "8.00");
+
+                // A crashed run: segment written but nothing projected
+                JournalSegment segment = JournalSegment.create(dir, 1, 4096);
+                JournalRecord.entry(1, committed).writeTo(segment.buffer);
+                JournalRecord.entry(2, aborted).writeTo(segment.buffer);
+                JournalRecord.outcome(3, true, 1).writeTo(segment.buffer);
+                JournalRecord.outcome(4, false, 2).writeTo(segment.buffer);
+                JournalRecord.entry(5, inDoubtCommitted).writeTo(segment.buffer);
+                JournalRecord.entry(6, inDoubtLost).writeTo(segment.buffer);
+                segment.force();
+
+                Account c = new Account();
+                c.setLastJournalSeq(5L);
+                Account e = new Account();
+                e.setLastJournalSeq(1L);
+                when(accountRepository.findByAccountNumber("C")).thenReturn(Optional.of(c));
+                when(accountRepository.findByAccountNumber("E")).thenReturn(Optional.of(e));
+                when(transactionRepository.findExistingTransactionIds(anyCollection()))
+                                .thenReturn(Set.of(committed.getTransactionId()));
+                stubProjection();
+
+                journal = start(DataSize.ofKilobytes(64));
+
+                awaitProjected(1);
+                journal.stop();
+                assertEquals(List.of(inDoubtCommitted.getTransactionId()),
+                                projected.stream().map(Transaction::getTransactionId).toList());
+
+                // Second start: everything is behind the checkpoint
+                projected.clear();
+                journal = start(DataSize.ofKilobytes(64));
+                journal.append(transaction("A", "B", "1.00"), new Account());
+                awaitProjected(1);
+                assertEquals(1, projected.size());
+        }
+
+        private void stubProjection() {
+                when(transactionRepository.saveAll(any())).thenAnswer(invocation -> {
+                        Iterable<Transaction> rows = invocation.getArgument(0);
+                        rows.forEach(projected::add);
+                        return rows;
+                });
+        }
+
+        @Test
+        void testRefusesOptimisticConcurrencyMode() {
+                assertThrows(IllegalStateException.class, () -> new TransferJournal(accountRepository,
+                                transactionRepository, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(),
+                                true, ConcurrencyMode.OPTIMISTIC, dir, DataSize.ofMegabytes(1), 50));
+        }
+
+        private TransferJournal start(DataSize segmentSize) {
+                TransferJournal started = new TransferJournal(accountRepository, transactionRepository,
+                                TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(),
+                                true, ConcurrencyMode.PESSIMISTIC, dir, segmentSize, 50);
+                started.start();
+                return started;
+        }
+
+        private void awaitProjected(int count) throws InterruptedException {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (projected.size() < count && System.nanoTime() < deadline) {
+                        Thread.sleep(10);
+                }
+                assertTrue(projected.size() >= count, "projected " + projected.size() + " of " + count);
+        }
+
+        private static Transaction transaction(String from, String to, String amount) {
+                Transaction transaction = new Transaction();
+                transaction.setTransactionId(UUID.randomUUID().toString());
+                transaction.setFromAccountNumber(from);
+                transaction.setToAccountNumber(to);
+                transaction.setAmount(Money.of(amount));
+                transaction.setCurrency("USD");
+                transaction.setStatus("SUCCESS");
+                transaction.setTransactionDate(LocalDateTime.now());
+                return transaction;
+        }
+}
@@ -0,0 +1,132 @@
+package com.workshop.moneytransfer.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class BoundedAsyncAppenderTest {
+
+        private final LoggerContext context = new LoggerContext();
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<ILoggingEvent> written = new CopyOnWriteArrayList<>();
+        private BoundedAsyncAppender appender;
+
+        /** Downstream appender that holds the worker until released, so the queue fills up. */
+        private class GatedAppender extends AppenderBase<ILoggingEvent> {
+                @Override
+                protected void append(ILoggingEvent event) {
+                        try {
+                                release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                        }
+                        written.add(event);
+                }
+        }
+
+        @BeforeEach
+        void setUp() {
+                context.setMDCAdapter(new LogbackMDCAdapter());
+                GatedAppender downstream = new GatedAppender();
+                downstream.setContext(context);
+                downstream.start();
+
+                appender = new BoundedAsyncAppender();
+                appender.setContext(context);
+                appender.setName("TEST");
+                appender.setQueueSize(10);
+                appender.setDiscardThreshold(5);
+                appender.addAppender(downstream);
+        }
+
+        @AfterEach
+        void tearDown() {
+                release.countDown();
+                appender.stop();
+        }
+
+        @Test
+        void testInfoIsDroppedBeforeWarnWhenTheQueueIsNearlyFull() throws Exception {
+                appender.setOverflowPolicy("drop");
+                appender.start();
+
+                appender.doAppend(event(Level.INFO, "taken by the worker"));
+                awaitQueued(0);
+                for (int i = 0; i < 6; i++) {
+                        appender.doAppend(event(Level.INFO, "queued " + i));
+                }
+                // Fewer than five slots left: INFO is discarded, WARN still queued until the queue is full
+                appender.doAppend(event(Level.INFO, "dropped"));
+                appender.doAppend(event(Level.DEBUG, "dropped"));
+                for (int i = 0; i < 5; i++) {
+                        appender.doAppend(event(Level.WARN, "warn " + i));
+                }
+
+                assertEquals(10, appender.getQueuedEvents());
+                assertEquals(1, appender.getDroppedEvents(Level.INFO));
+                assertEquals(1, appender.getDroppedEvents(Level.DEBUG));
+                assertEquals(1, appender.getDroppedEvents(Level.WARN));
+
+                release.countDown();
+                appender.stop();
+                assertEquals(11, written.size());
+                assertEquals("taken by the worker", written.get(0).getFormattedMessage());
+                assertEquals("warn 3", written.get(10).getFormattedMessage());
+        }
+
+        @Test
+        void testBlockPolicyWaitsForRoomInsteadOfDroppingWarnings() throws Exception {
+                appender.setOverflowPolicy("BLOCK");
+                appender.start();
+
+                appender.doAppend(event(Level.INFO, "taken by the worker"));
+                awaitQueued(0);
+                for (int i = 0; i < 10; i++) {
+                        appender.doAppend(event(Level.WARN, "warn " + i));
+                }
+                Thread producer = new Thread(() -> appender.doAppend(event(Level.ERROR, "blocked")));
+                producer.start();
+                producer.join(200);
+                assertTrue(producer.isAlive());
+
+                release.countDown();
+                producer.join(5000);
+                appender.stop();
+                assertEquals(12, written.size());
+                assertEquals(0, appender.getDroppedEvents(Level.ERROR));
+        }
+
+        private void awaitQueued(int expected) throws InterruptedException {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (appender.getQueuedEvents() != expected && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(5);
+                }
+                assertEquals(expected, appender.getQueuedEvents());
+        }
+
+        private LoggingEvent event(Level level, String message) {
+                LoggingEvent event = new LoggingEvent();
+                event.setLevel(level);
+                event.setMessage(message);
+                event.setLoggerName("test");
+                event.setLoggerContext(context);
+                event.setThreadName(Thread.currentThread().getName());
+                event.setTimeStamp(System.currentTimeMillis());
+                return event;
+        }
+}
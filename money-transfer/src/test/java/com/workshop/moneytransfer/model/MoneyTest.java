@@ -0,0 +1,81 @@
+package com.workshop.moneytransfer.model;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class MoneyTest {
+
+        @Test
+        void testExactConversionRoundTrips() {
+                Money money = Money.of(new BigDecimal("1234.5"));
+
+                assertEquals(123450, money.getMinorUnits());
+                assertEquals(new BigDecimal("1234.50"), money.toBigDecimal());
+                assertEquals("1234.50", money.toString());
+                assertEquals("-0.05", Money.ofMinor(-5).toString());
+        }
+
+        @Test
+        void testFinerThanMinorUnitIsRejectedUnlessRoundingIsExplicit() {
+                assertThrows(IllegalArgumentException.class, () -> Money.of("10.005"));
+
+                Money rounded = Money.of(new BigDecimal("10.005"), Money.DEFAULT_CURRENCY, RoundingMode.HALF_EVEN);
+                assertEquals(1000, rounded.getMinorUnits());
+        }
+
+        @Test
+        void testOverflowThrowsInsteadOfWrapping() {
+                Money max = Money.ofMinor(Long.MAX_VALUE);
+
+                assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+                assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+        }
+
+        @Test
+        void testCurrenciesDoNotMix() {
+                Money eur = Money.of(new BigDecimal("1.00"), Currency.getInstance("EUR"));
+
+                assertThrows(IllegalArgumentException.class, () -> Money.of("1.00").plus(eur));
+                assertThrows(IllegalArgumentException.class, () -> Money.of("1.00").compareTo(eur));
+                assertEquals(100, Money.of(new BigDecimal("100"), Currency.getInstance("JPY")).getMinorUnits());
+        }
+
+        @Test
+        void testAccountBalanceArithmeticKeepsMinorUnitsAndCurrencyRules() throws Exception {
+                Account account = new Account();
+                account.setBalance(Money.of("10.00"));
+
+                assertTrue(account.canCover(Money.of("10.00")));
+                assertFalse(account.canCover(Money.of("10.01")));
+                account.debit(Money.of("2.50"));
+                account.credit(Money.of("0.05"));
+                assertEquals(Money.of("7.55"), account.getBalance());
+                assertEquals("USD", account.getCurrency());
+
+                Money euros = Money.of(new BigDecimal("1.00"), Currency.getInstance("EUR"));
+                assertThrows(IllegalArgumentException.class, () -> account.debit(euros));
+                assertThrows(IllegalArgumentException.class, () -> account.canCover(euros));
+                assertThrows(ArithmeticException.class, () -> account.credit(Money.ofMinor(Long.MAX_VALUE)));
+
+                assertTrue(new ObjectMapper().findAndRegisterModules().writeValueAsString(account)
+                                .contains("\"balance\":7.55"));
+        }
+
+        @Test
+        void testJsonIsAPlainNumber() throws Exception {
+                ObjectMapper mapper = new ObjectMapper();
+
+                assertEquals("125.50", mapper.writeValueAsString(Money.of("125.5")));
+                assertEquals(Money.of("125.50"), mapper.readValue("125.5", Money.class));
+                assertThrows(JsonMappingException.class, () -> mapper.readValue("1.001", Money.class));
+        }
+}
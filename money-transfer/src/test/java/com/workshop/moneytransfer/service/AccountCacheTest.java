@@ -0,0 +1,167 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class AccountCacheTest {
+
+        private AccountCache accountCache;
+        private Account account;
+        private AtomicInteger loads;
+
+        @BeforeEach
+        void setUp() {
+                accountCache = new AccountCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1), false);
+                account = new Account();
+                account.setAccountNumber("ACC001");
+                account.setBalance(Money.of("100.00"));
+                account.setStatus("ACTIVE");
+                account.setVersion(1L);
+                loads = new AtomicInteger();
+        }
+
+        @AfterEach
+        void tearDown() {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.clearSynchronization();
+                }
+        }
+
+        @Test
+        void testSecondReadIsServedFromCacheAsCopy() {
+                Account first = accountCache.get("ACC001", this::load).orElseThrow();
+                Account second = accountCache.get("ACC001", this::load).orElseThrow();
+
+                assertEquals(1, loads.get());
+                assertNotSame(first, second);
+                assertEquals(Money.of("100.00"), second.getBalance());
+        }
+
+        @Test
+        void testCommittedWriteReplacesCachedSnapshot() {
+                accountCache.get("ACC001", this::load);
+
+                TransactionSynchronizationManager.initSynchronization();
+                accountCache.refreshOnCommit(List.of(account));
+                account.debit(Money.of("40.00"));
+                completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+                Account cached = accountCache.get("ACC001", this::load).orElseThrow();
+                assertEquals(Money.of("60.00"), cached.getBalance());
+                assertEquals(1, loads.get());
+        }
+
+        @Test
+        void testRolledBackWriteIsNeverCached() {
+                TransactionSynchronizationManager.initSynchronization();
+                accountCache.refreshOnCommit(List.of(account));
+                account.debit(Money.of("40.00"));
+                completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+                account.credit(Money.of("40.00"));
+                Account reloaded = accountCache.get("ACC001", this::load).orElseThrow();
+                assertEquals(Money.of("100.00"), reloaded.getBalance());
+                assertEquals(1, loads.get());
+        }
+
+        @Test
+        void testReaderRacingACommitDoesNotCacheStaleRow() {
+                Account stale = account.snapshot();
+
+                // The reader loads the pre-commit row, but the write commits before it caches it
+                accountCache.get("ACC001", number -> {
+                        TransactionSynchronizationManager.initSynchronization();
+                        accountCache.refreshOnCommit(List.of(account));
+                        account.debit(Money.of("40.00"));
+                        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+                        return Optional.of(stale);
+                });
+
+                Account cached = accountCache.get("ACC001", this::load).orElseThrow();
+                assertEquals(Money.of("60.00"), cached.getBalance());
+        }
+
+        @Test
+        void testLateCommitCallbackDoesNotReplaceNewerSnapshot() {
+                // Optimistic transfers hold no locks: T1 commits first but its callback runs last
+                Account first = account.snapshot();
+                TransactionSynchronizationManager.initSynchronization();
+                accountCache.refreshOnCommit(List.of(first));
+                first.debit(Money.of("40.00"));
+                first.setVersion(2L);
+                List<TransactionSynchronization> lateCommit = beforeCommit();
+                TransactionSynchronizationManager.clearSynchronization();
+
+                Account second = first.snapshot();
+                TransactionSynchronizationManager.initSynchronization();
+                accountCache.refreshOnCommit(List.of(second));
+                second.debit(Money.of("10.00"));
+                second.setVersion(3L);
+                completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+                lateCommit.forEach(synchronization ->
+                                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+                Account cached = accountCache.get("ACC001", this::load).orElseThrow();
+                assertEquals(Money.of("50.00"), cached.getBalance());
+                assertEquals(3L, cached.getVersion());
+                assertEquals(0, loads.get());
+        }
+
+        @Test
+        void testOvertakenCommitIsEvictedRatherThanCached() {
+                Account first = account.snapshot();
+                TransactionSynchronizationManager.initSynchronization();
+                accountCache.refreshOnCommit(List.of(first));
+                first.debit(Money.of("40.00"));
+                first.setVersion(2L);
+                List<TransactionSynchronization> lateCommit = beforeCommit();
+                TransactionSynchronizationManager.clearSynchronization();
+
+                // A later writer has started on the account but not published yet
+                TransactionSynchronizationManager.initSynchronization();
+                accountCache.refreshOnCommit(List.of(first.snapshot()));
+                TransactionSynchronizationManager.clearSynchronization();
+
+                lateCommit.forEach(synchronization ->
+                                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+                accountCache.get("ACC001", this::load);
+                assertEquals(1, loads.get());
+        }
+
+        private Optional<Account> load(String accountNumber) {
+                loads.incrementAndGet();
+                return Optional.of(account.snapshot());
+        }
+
+        private void completeTransaction(int status) {
+                List<TransactionSynchronization> synchronizations = status == TransactionSynchronization.STATUS_COMMITTED
+                                ? beforeCommit()
+                                : TransactionSynchronizationManager.getSynchronizations();
+                TransactionSynchronizationManager.clearSynchronization();
+                synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        }
+
+        private List<TransactionSynchronization> beforeCommit() {
+                List<TransactionSynchronization> synchronizations =
+                                TransactionSynchronizationManager.getSynchronizations();
+                synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+                return synchronizations;
+        }
+}
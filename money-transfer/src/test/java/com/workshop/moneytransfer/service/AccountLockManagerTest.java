@@ -0,0 +1,134 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.exception.LockTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class AccountLockManagerTest {
+
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        private final AccountLockManager lockManager = new AccountLockManager(registry, 64, 50);
+        private final ExecutorService other = Executors.newSingleThreadExecutor();
+
+        @AfterEach
+        void tearDown() {
+                other.shutdownNow();
+        }
+
+        @Test
+        void testStripeCountIsRoundedUpToAPowerOfTwo() {
+                AccountLockManager rounded = new AccountLockManager(registry, 100, 50);
+
+                int highest = IntStream.range(0, 10_000)
+                                .map(i -> rounded.stripeIndex("ACC" + i))
+                                .max()
+                                .orElseThrow();
+                assertEquals(127, highest);
+        }
+
+        @Test
+        void testHeldAccountTimesOutForOtherThreads() throws Exception {
+                try (AccountLockManager.Locks ignored = lockManager.lock("ACC001")) {
+                        assertFalse(lockElsewhere("ACC001"));
+                }
+                assertTrue(lockElsewhere("ACC001"));
+                assertEquals(3, registry.get("money.transfer.lock.wait").timer().count());
+        }
+
+        @Test
+        void testRepeatedAndCollidingAccountsAreLockedOnceAndFullyReleased() throws Exception {
+                String[] colliding = collidingPair();
+
+                AccountLockManager.Locks locks = lockManager.lock(colliding[0], colliding[1], colliding[0]);
+                assertFalse(lockElsewhere(colliding[1]));
+                locks.close();
+                locks.close();
+
+                assertTrue(lockElsewhere(colliding[0]));
+                assertTrue(lockElsewhere(colliding[1]));
+        }
+
+        @Test
+        void testTimedOutCallReleasesTheStripesItAcquired() throws Exception {
+                String[] ordered = orderedPair();
+
+                // The other thread takes the lower stripe, then times out on the higher one held here
+                try (AccountLockManager.Locks ignored = lockManager.lock(ordered[1])) {
+                        assertFalse(lockElsewhere(ordered[1], ordered[0]));
+                        try (AccountLockManager.Locks lower = lockManager.lock(ordered[0])) {
+                                assertNotNull(lower);
+                        }
+                }
+                assertTrue(lockElsewhere(ordered[0], ordered[1]));
+        }
+
+        @Test
+        void testOpposingLockOrdersDoNotDeadlock() throws Exception {
+                AccountLockManager patient = new AccountLockManager(registry, 64, 10_000);
+                String[] ordered = orderedPair();
+                ExecutorService executor = Executors.newFixedThreadPool(4);
+                try {
+                        List<Future<?>> futures = new ArrayList<>();
+                        for (int t = 0; t < 4; t++) {
+                                boolean forward = t % 2 == 0;
+                                futures.add(executor.submit(() -> {
+                                        for (int i = 0; i < 10_000; i++) {
+                                                try (AccountLockManager.Locks ignored = forward
+                                                                ? patient.lock(ordered[0], ordered[1])
+                                                                : patient.lock(ordered[1], ordered[0])) {
+                                                        Thread.onSpinWait();
+                                                }
+                                        }
+                                }));
+                        }
+                        for (Future<?> future : futures) {
+                                future.get();
+                        }
+                } finally {
+                        executor.shutdown();
+                }
+        }
+
+        /** Whether another thread can lock the accounts within the timeout (locks are reentrant). */
+        private boolean lockElsewhere(String... accountNumbers) throws Exception {
+                return other.submit(() -> {
+                        try (AccountLockManager.Locks ignored = lockManager.lock(accountNumbers)) {
+                                return true;
+                        } catch (LockTimeoutException e) {
+                                return false;
+                        }
+                }).get();
+        }
+
+        private String[] collidingPair() {
+                for (int i = 1; ; i++) {
+                        String candidate = "ACC" + i;
+                        if (lockManager.stripeIndex(candidate) == lockManager.stripeIndex("ACC0")) {
+                                return new String[] {"ACC0", candidate};
+                        }
+                }
+        }
+
+        /** Two accounts on different stripes, the lower stripe first. */
+        private String[] orderedPair() {
+                for (int i = 1; ; i++) {
+                        String candidate = "ACC" + i;
+                        int compare = Integer.compare(lockManager.stripeIndex("ACC0"), lockManager.stripeIndex(candidate));
+                        if (compare != 0) {
+                                return compare < 0 ? new String[] {"ACC0", candidate} : new String[] {candidate, "ACC0"};
+                        }
+                }
+        }
+}
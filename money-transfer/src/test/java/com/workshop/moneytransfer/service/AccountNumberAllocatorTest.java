@@ -0,0 +1,100 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.model.AccountNumberBlock;
+import com.workshop.moneytransfer.repository.AccountNumberBlockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class AccountNumberAllocatorTest {
+
+        @Mock
+        private AccountNumberBlockRepository blockRepository;
+
+        @Mock
+        private PlatformTransactionManager transactionManager;
+
+        private AccountNumberBlock row;
+
+        @BeforeEach
+        void setUp() {
+                row = new AccountNumberBlock(AccountNumberAllocator.BLOCK_NAME, AccountNumberAllocator.FIRST_SERIAL);
+                when(blockRepository.findByNameForUpdate(AccountNumberAllocator.BLOCK_NAME))
+                                .thenAnswer(invocation -> Optional.of(row));
+                when(blockRepository.save(any(AccountNumberBlock.class)))
+                                .thenAnswer(invocation -> invocation.getArgument(0));
+        }
+
+        @Test
+        void testNumbersAreTenDigitsWithValidCheckDigit() {
+                AccountNumberAllocator allocator = new AccountNumberAllocator(blockRepository, transactionManager, 10);
+
+                String number = allocator.next();
+
+                assertEquals(10, number.length());
+                assertTrue(AccountNumberAllocator.isValid(number));
+                assertFalse(AccountNumberAllocator.isValid(number.substring(0, 9)
+                                + ((number.charAt(9) - '0' + 1) % 10)));
+        }
+
+        @Test
+        void testOneReservationPerBlock() {
+                AccountNumberAllocator allocator = new AccountNumberAllocator(blockRepository, transactionManager, 100);
+
+                for (int i = 0; i < 250; i++) {
+                        allocator.next();
+                }
+
+                verify(blockRepository, times(3)).findByNameForUpdate(AccountNumberAllocator.BLOCK_NAME);
+                assertEquals(AccountNumberAllocator.FIRST_SERIAL + 300, row.getNextValue());
+        }
+
+        @Test
+        void testCreatesBlockRowBeforeLockingIt() {
+                AccountNumberAllocator allocator = new AccountNumberAllocator(blockRepository, transactionManager, 10);
+
+                allocator.next();
+
+                InOrder inOrder = inOrder(blockRepository);
+                inOrder.verify(blockRepository).insertIfAbsent(AccountNumberAllocator.BLOCK_NAME,
+                                AccountNumberAllocator.FIRST_SERIAL);
+                inOrder.verify(blockRepository).findByNameForUpdate(AccountNumberAllocator.BLOCK_NAME);
+        }
+
+        @Test
+        void testConcurrentAllocationsAreUnique() throws Exception {
+                AccountNumberAllocator allocator = new AccountNumberAllocator(blockRepository, transactionManager, 64);
+                Set<String> numbers = ConcurrentHashMap.newKeySet();
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+
+                for (int t = 0; t < 8; t++) {
+                        executor.submit(() -> {
+                                for (int i = 0; i < 5_000; i++) {
+                                        numbers.add(allocator.next());
+                                }
+                        });
+                }
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+                assertEquals(40_000, numbers.size());
+        }
+}
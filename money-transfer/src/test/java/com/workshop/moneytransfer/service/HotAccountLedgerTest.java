@@ -0,0 +1,103 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.AccountBalanceSlot;
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.repository.AccountBalanceSlotRepository;
+import com.workshop.moneytransfer.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class HotAccountLedgerTest {
+
+        @Mock
+        private AccountBalanceSlotRepository slotRepository;
+
+        @Mock
+        private AccountRepository accountRepository;
+
+        @Mock
+        private AccountCache accountCache;
+
+        private HotAccountLedger ledger;
+        private Account hotAccount;
+
+        @BeforeEach
+        void setUp() {
+                ledger = new HotAccountLedger(slotRepository, accountRepository,
+                                new AccountLockManager(new SimpleMeterRegistry(), 16, 1000), accountCache,
+                                TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(),
+                                "ACC005, ACC007", 4);
+
+                hotAccount = new Account();
+                hotAccount.setAccountNumber("ACC005");
+                hotAccount.setBalance(Money.of("100.00"));
+                hotAccount.setStatus("ACTIVE");
+        }
+
+        @Test
+        void testDebitSweepsSlotsOnlyWhenAccountRowIsShort() {
+                AccountBalanceSlot slot0 = new AccountBalanceSlot(1L, "ACC005", 0, Money.of("30.00"));
+                AccountBalanceSlot slot1 = new AccountBalanceSlot(2L, "ACC005", 1, Money.of("45.00"));
+                when(slotRepository.findAllForUpdate("ACC005")).thenReturn(List.of(slot0, slot1));
+
+                ledger.sweepIfShort(hotAccount, Money.of("50.00"));
+                verify(slotRepository, never()).findAllForUpdate(anyString());
+
+                ledger.sweepIfShort(hotAccount, Money.of("150.00"));
+
+                assertEquals(Money.of("175.00"), hotAccount.getBalance());
+                assertEquals(0, slot0.getBalance().signum());
+                assertEquals(0, slot1.getBalance().signum());
+        }
+
+        @Test
+        void testNonHotAccountIsNeverSwept() {
+                Account account = new Account();
+                account.setAccountNumber("ACC001");
+                account.setBalance(Money.zero());
+
+                ledger.sweepIfShort(account, Money.of("10.00"));
+
+                assertFalse(ledger.isHot("ACC001"));
+                verifyNoInteractions(slotRepository);
+        }
+
+        @Test
+        void testCreditFallsBackToAccountRowWhenSlotMissing() {
+                when(slotRepository.findForUpdate("ACC005", 3)).thenReturn(Optional.empty());
+                when(accountRepository.findByAccountNumberForUpdate("ACC005")).thenReturn(Optional.of(hotAccount));
+
+                ledger.creditSlot("ACC005", 3, Money.of("25.00"));
+
+                assertEquals(Money.of("125.00"), hotAccount.getBalance());
+                verify(accountCache).refreshOnCommit(List.of(hotAccount));
+                verify(accountRepository).save(hotAccount);
+        }
+
+        @Test
+        void testBalanceIncludesSlotsWithoutChangingAccount() {
+                when(slotRepository.totalBalance("ACC005")).thenReturn(Optional.of(new BigDecimal("142.50")));
+
+                Account total = ledger.withSlotBalances(hotAccount);
+
+                assertEquals(Money.of("142.50"), total.getBalance());
+                assertEquals(Money.of("100.00"), hotAccount.getBalance());
+        }
+}
@@ -0,0 +1,77 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class OptimisticTransferRetryTest {
+
+        private SimpleMeterRegistry registry;
+
+        @BeforeEach
+        void setUp() {
+                registry = new SimpleMeterRegistry();
+        }
+
+        @Test
+        void testConflictIsRetriedUntilTheAttemptCommits() {
+                OptimisticTransferRetry retry = new OptimisticTransferRetry(registry, 5, 0, 0, 100, 0.1);
+                AtomicInteger calls = new AtomicInteger();
+
+                String result = retry.execute(() -> {
+                        if (calls.incrementAndGet() < 3) {
+                                throw new OptimisticLockingFailureException("stale");
+                        }
+                        return "committed";
+                });
+
+                assertEquals("committed", result);
+                assertEquals(2.0, registry.get("money.transfer.optimistic.conflicts").counter().count());
+                assertEquals(2.0, registry.get("money.transfer.optimistic.retries").counter().count());
+                assertEquals(3.0, registry.get("money.transfer.optimistic.attempts").summary().totalAmount());
+        }
+
+        @Test
+        void testGivesUpAfterMaxAttempts() {
+                OptimisticTransferRetry retry = new OptimisticTransferRetry(registry, 3, 0, 0, 100, 0.1);
+                AtomicInteger calls = new AtomicInteger();
+
+                assertThrows(ConcurrentUpdateException.class, () -> retry.execute(() -> {
+                        calls.incrementAndGet();
+                        throw new OptimisticLockingFailureException("stale");
+                }));
+
+                assertEquals(3, calls.get());
+                assertEquals(1.0, registry.get("money.transfer.optimistic.exhausted")
+                                .tag("reason", "attempts").counter().count());
+        }
+
+        @Test
+        void testRetryBudgetStopsRetriesWhenConflictsDominate() {
+                // 4 tokens: the third conflict drops the bucket to half and disables retries
+                OptimisticTransferRetry retry = new OptimisticTransferRetry(registry, 10, 0, 0, 4, 0.5);
+                AtomicInteger calls = new AtomicInteger();
+
+                assertThrows(ConcurrentUpdateException.class, () -> retry.execute(() -> {
+                        calls.incrementAndGet();
+                        throw new OptimisticLockingFailureException("stale");
+                }));
+                assertEquals(2, calls.get());
+                assertEquals(1.0, registry.get("money.transfer.optimistic.exhausted")
+                                .tag("reason", "budget").counter().count());
+
+                // Successful transfers refill the bucket
+                for (int i = 0; i < 4; i++) {
+                        retry.execute(() -> "ok");
+                }
+                assertEquals(4.0, registry.get("money.transfer.optimistic.retry.budget").gauge().value());
+        }
+}
@@ -0,0 +1,69 @@
+package com.workshop.moneytransfer.service;
+
+import com.workshop.moneytransfer.model.Money;
+import com.workshop.moneytransfer.model.Transaction;
+import com.workshop.moneytransfer.repository.TransactionRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Tag("unit")
+@ExtendWith(MockitoExtension.class)
+class TransactionHistoryStreamTest {
+
+        private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        @Mock
+        private TransactionRepository transactionRepository;
+
+        @Test
+        void testMergesBothSidesOldestFirst() {
+                when(transactionRepository.streamOutgoing("A")).thenReturn(Stream.of(
+                                transaction(1L, "A", "B", 0), transaction(4L, "A", "C", 2), transaction(6L, "A", "B", 5)));
+                when(transactionRepository.streamIncoming("A")).thenReturn(Stream.of(
+                                transaction(2L, "B", "A", 1), transaction(3L, "C", "A", 2), transaction(7L, "B", "A", 6)));
+
+                try (Stream<Transaction> history = TransactionHistoryStream.oldestFirst(transactionRepository, "A")) {
+                        assertEquals(List.of(1L, 2L, 3L, 4L, 6L, 7L), history.map(Transaction::getId).toList());
+                }
+        }
+
+        @Test
+        void testTransferToSelfAppearsOnce() {
+                Transaction toSelf = transaction(5L, "A", "A", 3);
+                when(transactionRepository.streamOutgoing("A")).thenReturn(Stream.of(toSelf));
+                when(transactionRepository.streamIncoming("A")).thenReturn(Stream.of(transaction(2L, "B", "A", 1), toSelf));
+
+                try (Stream<Transaction> history = TransactionHistoryStream.oldestFirst(transactionRepository, "A")) {
+                        assertEquals(List.of(2L, 5L), history.map(Transaction::getId).toList());
+                }
+        }
+
+        @Test
+        void testClosingTheHistoryClosesBothCursors() {
+                AtomicInteger closed = new AtomicInteger();
+                when(transactionRepository.streamOutgoing("A")).thenReturn(Stream.<Transaction>empty()
+                                .onClose(closed::incrementAndGet));
+                when(transactionRepository.streamIncoming("A")).thenReturn(Stream.<Transaction>empty()
+                                .onClose(closed::incrementAndGet));
+
+                TransactionHistoryStream.oldestFirst(transactionRepository, "A").close();
+
+                assertEquals(2, closed.get());
+        }
+
+        private static Transaction transaction(Long id, String from, String to, int minutes) {
+                return new Transaction(id, "tx-" + id, from, to, Money.of("1.00"), "USD", "SUCCESS", null, null,
+                                T0.plusMinutes(minutes));
+        }
+}
@@ -1,20 +1,28 @@
 package com.workshop.moneytransfer.service;
 
+import com.workshop.moneytransfer.audit.FailedTransferAuditWriter;
+import com.workshop.moneytransfer.engine.ShardedLedgerEngine;
 import com.workshop.moneytransfer.exception.AccountNotFoundException;
 import com.workshop.moneytransfer.exception.InsufficientFundsException;
+import com.workshop.moneytransfer.journal.TransferJournal;
 import com.workshop.moneytransfer.model.Account;
+import com.workshop.moneytransfer.model.Money;
 import com.workshop.moneytransfer.model.Transaction;
 import com.workshop.moneytransfer.repository.AccountRepository;
 import com.workshop.moneytransfer.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
-import java.math.BigDecimal;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +40,39 @@ class TransferServiceTest {
         @Mock
         private TransactionRepository transactionRepository;
 
+        @Mock
+        private AccountCache accountCache;
+
+        @Mock
+        private HotAccountLedger hotAccountLedger;
+
+        @Mock
+        private TransferJournal transferJournal;
+
+        @Mock
+        private IdempotencyStore idempotencyStore;
+
+        @Mock
+        private ShardedLedgerEngine ledgerEngine;
+
+        @Mock
+        private FailedTransferAuditWriter failureAudit;
+
+        @Mock
+        private AccountActivityService accountActivity;
+
+        @Spy
+        private AccountLockManager accountLockManager =
+                        new AccountLockManager(new SimpleMeterRegistry(), 16, 1000);
+
+        @Spy
+        private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        @Spy
+        private TransferMetrics transferMetrics = new TransferMetrics(meterRegistry);
+
         @InjectMocks
         private TransferService transferService;
 
@@ -44,7 +85,7 @@ class TransferServiceTest {
                 fromAccount.setId(1L);
                 fromAccount.setAccountNumber("1234567890");
                 fromAccount.setAccountHolderName("John Doe");
-                fromAccount.setBalance(new BigDecimal("1000.00"));
+                fromAccount.setBalance(Money.of("1000.00"));
                 fromAccount.setCurrency("USD");
                 fromAccount.setStatus("ACTIVE");
 
@@ -52,7 +93,7 @@ class TransferServiceTest {
                 toAccount.setId(2L);
                 toAccount.setAccountNumber("0987654321");
                 toAccount.setAccountHolderName("Jane Smith");
-                toAccount.setBalance(new BigDecimal("500.00"));
+                toAccount.setBalance(Money.of("500.00"));
                 toAccount.setCurrency("USD");
                 toAccount.setStatus("ACTIVE");
         }
@@ -60,19 +101,15 @@ class TransferServiceTest {
         @Test
         void testSuccessfulTransfer() {
                 // Arrange
-                BigDecimal transferAmount = new BigDecimal("300.00");
+                Money transferAmount = Money.of("300.00");
 
-                when(accountRepository.findByAccountNumber("1234567890"))
+                when(accountRepository.findByAccountNumberForUpdate("1234567890"))
                                 .thenReturn(Optional.of(fromAccount));
-                when(accountRepository.findByAccountNumber("0987654321"))
+                when(accountRepository.findByAccountNumberForUpdate("0987654321"))
                                 .thenReturn(Optional.of(toAccount));
 
-                Transaction mockTransaction = new Transaction();
-                mockTransaction.setTransactionId("test-txn-id");
-                mockTransaction.setStatus("SUCCESS");
-
                 when(transactionRepository.save(any(Transaction.class)))
-                                .thenReturn(mockTransaction);
+                                .thenAnswer(invocation -> invocation.getArgument(0));
 
                 // Act
                 Transaction result = transferService.transfer(
@@ -81,24 +118,30 @@ class TransferServiceTest {
                 // Assert
                 assertNotNull(result);
                 assertEquals("SUCCESS", result.getStatus());
-                assertEquals(new BigDecimal("700.00"), fromAccount.getBalance());
-                assertEquals(new BigDecimal("800.00"), toAccount.getBalance());
+                assertEquals(Money.of("700.00"), fromAccount.getBalance());
+                assertEquals(Money.of("800.00"), toAccount.getBalance());
 
                 verify(accountRepository, times(2)).save(any(Account.class));
                 verify(transactionRepository, times(1)).save(any(Transaction.class));
+                verify(accountActivity).apply(any(AccountActivityService.Changes.class));
+
+                assertEquals(1, transferDurations("success"));
+                assertEquals(1, meterRegistry.get("money.transfer.success").counter().count());
+                for (String phase : new String[] {"account_load", "validation", "update", "ledger_insert"}) {
+                        assertEquals(1, meterRegistry.get("money.transfer.phase").tag("phase", phase)
+                                        .timer().count(), phase);
+                }
         }
 
         @Test
         void testTransferWithInsufficientFunds() {
                 // Arrange
-                BigDecimal transferAmount = new BigDecimal("1500.00");
+                Money transferAmount = Money.of("1500.00");
 
-                when(accountRepository.findByAccountNumber("1234567890"))
+                when(accountRepository.findByAccountNumberForUpdate("1234567890"))
                                 .thenReturn(Optional.of(fromAccount));
-                when(accountRepository.findByAccountNumber("0987654321"))
+                when(accountRepository.findByAccountNumberForUpdate("0987654321"))
                                 .thenReturn(Optional.of(toAccount));
-                when(transactionRepository.save(any(Transaction.class)))
-                                .thenReturn(new Transaction());
 
                 // Act & Assert
                 assertThrows(InsufficientFundsException.class, () -> {
@@ -106,38 +149,48 @@ class TransferServiceTest {
                                         "1234567890", "0987654321", transferAmount, "Test transfer");
                 });
 
-                // Verify failed transaction was recorded
-                verify(transactionRepository, times(1)).save(any(Transaction.class));
+                // The failed transaction goes to the audit writer, not the rolled-back transaction
+                ArgumentCaptor<Transaction> audited = ArgumentCaptor.forClass(Transaction.class);
+                verify(failureAudit).record(audited.capture());
+                assertEquals("FAILED", audited.getValue().getStatus());
+                assertEquals(transferAmount, audited.getValue().getAmount());
+                verify(transactionRepository, never()).save(any(Transaction.class));
                 verify(accountRepository, never()).save(any(Account.class));
+                verify(accountActivity, never()).apply(any());
+
+                assertEquals(1, transferDurations("insufficient_funds"));
+                assertEquals(1, meterRegistry.get("money.transfer.failure").counter().count());
+                assertEquals(0, meterRegistry.get("money.transfer.phase").tag("phase", "validation")
+                                .timer().count());
         }
 
         @Test
         void testTransferWithNonExistentSourceAccount() {
                 // Arrange
-                when(accountRepository.findByAccountNumber(anyString()))
+                when(accountRepository.findByAccountNumberForUpdate(anyString()))
                                 .thenReturn(Optional.empty());
 
                 // Act & Assert
                 assertThrows(AccountNotFoundException.class, () -> {
                         transferService.transfer(
                                         "9999999999", "0987654321",
-                                        new BigDecimal("100.00"), "Test transfer");
+                                        Money.of("100.00"), "Test transfer");
                 });
         }
 
         @Test
         void testTransferWithNonExistentDestinationAccount() {
-                // Arrange
-                when(accountRepository.findByAccountNumber("1234567890"))
+                // Arrange - destination sorts first, so the source may never be loaded
+                lenient().when(accountRepository.findByAccountNumberForUpdate("1234567890"))
                                 .thenReturn(Optional.of(fromAccount));
-                when(accountRepository.findByAccountNumber("0987654321"))
+                when(accountRepository.findByAccountNumberForUpdate("0987654321"))
                                 .thenReturn(Optional.empty());
 
                 // Act & Assert
                 assertThrows(AccountNotFoundException.class, () -> {
                         transferService.transfer(
                                         "1234567890", "0987654321",
-                                        new BigDecimal("100.00"), "Test transfer");
+                                        Money.of("100.00"), "Test transfer");
                 });
         }
 
@@ -146,32 +199,121 @@ class TransferServiceTest {
                 // Arrange
                 fromAccount.setStatus("INACTIVE");
 
-                when(accountRepository.findByAccountNumber("1234567890"))
+                when(accountRepository.findByAccountNumberForUpdate("1234567890"))
                                 .thenReturn(Optional.of(fromAccount));
-                when(accountRepository.findByAccountNumber("0987654321"))
+                when(accountRepository.findByAccountNumberForUpdate("0987654321"))
                                 .thenReturn(Optional.of(toAccount));
 
                 // Act & Assert
                 assertThrows(IllegalStateException.class, () -> {
                         transferService.transfer(
                                         "1234567890", "0987654321",
-                                        new BigDecimal("100.00"), "Test transfer");
+                                        Money.of("100.00"), "Test transfer");
                 });
+                assertEquals(1, transferDurations("inactive"));
         }
 
         @Test
         void testTransferWithNegativeAmount() {
                 // Arrange
-                when(accountRepository.findByAccountNumber("1234567890"))
+                when(accountRepository.findByAccountNumberForUpdate("1234567890"))
                                 .thenReturn(Optional.of(fromAccount));
-                when(accountRepository.findByAccountNumber("0987654321"))
+                when(accountRepository.findByAccountNumberForUpdate("0987654321"))
                                 .thenReturn(Optional.of(toAccount));
 
                 // Act & Assert
                 assertThrows(IllegalArgumentException.class, () -> {
                         transferService.transfer(
                                         "1234567890", "0987654321",
-                                        new BigDecimal("-100.00"), "Test transfer");
+                                        Money.of("-100.00"), "Test transfer");
                 });
         }
-}
\ No newline at end of file
+
+        @Test
+        void testOppositeTransfersLockRowsInSameOrder() {
+                // Arrange
+                when(accountRepository.findByAccountNumberForUpdate("1234567890"))
+                                .thenReturn(Optional.of(fromAccount));
+                when(accountRepository.findByAccountNumberForUpdate("0987654321"))
+                                .thenReturn(Optional.of(toAccount));
+                when(transactionRepository.save(any(Transaction.class)))
+                                .thenAnswer(invocation -> invocation.getArgument(0));
+
+                // Act
+                transferService.transfer("1234567890", "0987654321",
+                                Money.of("10.00"), "A to B");
+                transferService.transfer("0987654321", "1234567890",
+                                Money.of("10.00"), "B to A");
+
+                // Assert - both directions lock the lower account number first
+                InOrder inOrder = inOrder(accountRepository);
+                inOrder.verify(accountRepository).findByAccountNumberForUpdate("0987654321");
+                inOrder.verify(accountRepository).findByAccountNumberForUpdate("1234567890");
+                inOrder.verify(accountRepository).findByAccountNumberForUpdate("0987654321");
+                inOrder.verify(accountRepository).findByAccountNumberForUpdate("1234567890");
+        }
+
+        @Test
+        void testRetryWithIdempotencyKeyReturnsOriginalWithoutTouchingAccounts() {
+                // Arrange
+                Transaction original = new Transaction();
+                original.setTransactionId("original-id");
+                when(idempotencyStore.find(any(IdempotencyStore.Request.class)))
+                                .thenReturn(Optional.of(original));
+
+                // Act
+                Transaction result = transferService.transfer("1234567890", "0987654321",
+                                Money.of("100.00"), "Retry", "key-1");
+
+                // Assert
+                assertSame(original, result);
+                verifyNoInteractions(accountRepository, transactionRepository);
+                verify(accountLockManager, never()).lock(any(String[].class));
+        }
+
+        @Test
+        void testFirstRequestWithIdempotencyKeyRecordsKeyWithTransfer() {
+                // Arrange
+                when(idempotencyStore.find(any(IdempotencyStore.Request.class))).thenReturn(Optional.empty());
+                when(accountRepository.findByAccountNumberForUpdate("1234567890"))
+                                .thenReturn(Optional.of(fromAccount));
+                when(accountRepository.findByAccountNumberForUpdate("0987654321"))
+                                .thenReturn(Optional.of(toAccount));
+                when(transactionRepository.save(any(Transaction.class)))
+                                .thenAnswer(invocation -> invocation.getArgument(0));
+
+                // Act
+                Transaction result = transferService.transfer("1234567890", "0987654321",
+                                Money.of("100.00"), "First", "key-2");
+
+                // Assert
+                verify(idempotencyStore).save(
+                                IdempotencyStore.request("key-2", "1234567890", "0987654321",
+                                                Money.of("100.00"), "First"),
+                                result);
+                assertEquals(Money.of("900.00"), fromAccount.getBalance());
+        }
+
+        @Test
+        void testShardedEngineExecutesTransferWithoutDatabaseOrLocks() {
+                // Arrange
+                Transaction executed = new Transaction();
+                executed.setTransactionId("engine-id");
+                when(ledgerEngine.isEnabled()).thenReturn(true);
+                when(ledgerEngine.transfer("1234567890", "0987654321", Money.of("100.00"), "Engine", null))
+                                .thenReturn(executed);
+
+                // Act
+                Transaction result = transferService.transfer("1234567890", "0987654321",
+                                Money.of("100.00"), "Engine");
+
+                // Assert
+                assertSame(executed, result);
+                verifyNoInteractions(accountRepository, transactionRepository);
+                verify(accountLockManager, never()).lock(any(String[].class));
+        }
+
+        private long transferDurations(String outcome) {
+                return meterRegistry.get("money.transfer.duration").tag("outcome", outcome).timer().count();
+        }
+}
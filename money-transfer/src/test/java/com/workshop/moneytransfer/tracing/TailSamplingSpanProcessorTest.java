@@ -0,0 +1,135 @@
+package com.workshop.moneytransfer.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Tag("unit")
+class TailSamplingSpanProcessorTest {
+
+        private final List<String> exported = new CopyOnWriteArrayList<>();
+        private SdkTracerProvider provider;
+        private TailSamplingSpanProcessor processor;
+        private Tracer tracer;
+
+        /** Stands in for the exporting processor and records which spans reach it. */
+        private class RecordingProcessor implements SpanProcessor {
+                @Override
+                public void onStart(Context parentContext, ReadWriteSpan span) {
+                }
+
+                @Override
+                public boolean isStartRequired() {
+                        return false;
+                }
+
+                @Override
+                public void onEnd(ReadableSpan span) {
+                        exported.add(span.getName());
+                }
+
+                @Override
+                public boolean isEndRequired() {
+                        return true;
+                }
+        }
+
+        private void start(double sampleRate, Duration latencyThreshold, int maxTraces, int maxSpansPerTrace) {
+                processor = new TailSamplingSpanProcessor(new RecordingProcessor(), true, sampleRate,
+                        latencyThreshold, Duration.ofSeconds(10), maxTraces, maxSpansPerTrace, 1000);
+                provider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+                tracer = provider.get("test");
+        }
+
+        @AfterEach
+        void tearDown() {
+                provider.close();
+        }
+
+        private Span root(String name) {
+                return tracer.spanBuilder(name).setNoParent().startSpan();
+        }
+
+        private Span child(Span parent, String name) {
+                return tracer.spanBuilder(name).setParent(Context.root().with(parent)).startSpan();
+        }
+
+        @Test
+        void keepsErroredAndSlowTracesAndDropsTheRest() throws InterruptedException {
+                start(0.0, Duration.ofMillis(20), 100, 100);
+
+                Span ok = root("ok");
+                child(ok, "ok.child").end();
+                ok.end();
+
+                Span failed = root("failed");
+                child(failed, "failed.child").setStatus(StatusCode.ERROR, "Insufficient funds").end();
+                failed.end();
+
+                Span slow = root("slow");
+                Span slowChild = child(slow, "slow.child");
+                TimeUnit.MILLISECONDS.sleep(30);
+                slowChild.end();
+                slow.end();
+
+                assertEquals(List.of("failed.child", "failed", "slow.child", "slow"), exported);
+                assertEquals(1, processor.getDecisions(TailSamplingSpanProcessor.Decision.DROPPED));
+                assertEquals(1, processor.getDecisions(TailSamplingSpanProcessor.Decision.ERROR));
+                assertEquals(1, processor.getDecisions(TailSamplingSpanProcessor.Decision.SLOW));
+                assertEquals(0, processor.getBufferedTraces());
+                assertEquals(0, processor.getBufferedSpans());
+        }
+
+        @Test
+        void sampleRateOneKeepsEverythingAndLateSpansFollowTheDecision() {
+                start(1.0, Duration.ofMinutes(1), 100, 100);
+
+                Span root = root("root");
+                Span late = child(root, "late");
+                root.end();
+                late.end();
+
+                assertEquals(List.of("root", "late"), exported);
+                assertEquals(1, processor.getDecisions(TailSamplingSpanProcessor.Decision.SAMPLED));
+        }
+
+        @Test
+        void boundsTheBuffer() {
+                start(1.0, Duration.ofMinutes(1), 1, 2);
+
+                Span first = root("first");
+                child(first, "first.a").end();
+                child(first, "first.b").end();
+                child(first, "first.c").end();
+                assertEquals(1, processor.getBufferedTraces());
+                assertEquals(2, processor.getBufferedSpans());
+                assertEquals(1, processor.getDroppedSpans());
+
+                // No room for a second open trace: its ordinary spans are dropped...
+                Span second = root("second");
+                child(second, "second.a").end();
+                // ...but one that errored on its own still goes out
+                child(second, "second.b").setStatus(StatusCode.ERROR).end();
+                assertEquals(2, processor.getDroppedSpans());
+                assertEquals(List.of("second.b"), exported);
+
+                first.end();
+                assertEquals(List.of("second.b", "first.a", "first.b"), exported);
+                assertEquals(0, processor.getBufferedSpans());
+        }
+}